@@ -0,0 +1,118 @@
+package dev.alphaserpentis.coffeecore.benchmarks;
+
+import dev.alphaserpentis.coffeecore.benchmarks.support.BenchmarkBot;
+import dev.alphaserpentis.coffeecore.benchmarks.support.BenchmarkCommand;
+import dev.alphaserpentis.coffeecore.data.bot.CommandResponse;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.requests.restaction.WebhookMessageCreateAction;
+import net.dv8tion.jda.api.requests.restaction.interactions.ReplyCallbackAction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the work CoffeeCore does for a slash command interaction, from the dispatch of the event to the reply.
+ * <p>
+ * Runs in both throughput and sample time modes, the latter reporting latency percentiles. Run with {@code -prof gc}
+ * to report the allocation rate of each benchmark.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandPathBenchmark {
+    private static final String NON_DEFERRED = "non-deferred";
+    private static final String DEFERRED = "deferred";
+    private static final IllegalStateException ERROR = new IllegalStateException("The command failed");
+
+    /**
+     * The amount of pre- and post-execution hooks each the commands have.
+     */
+    @Param({"0", "4"})
+    public int hooksPerType;
+
+    private BenchmarkBot bot;
+    private BenchmarkCommand nonDeferredCommand;
+    private BenchmarkCommand deferredCommand;
+    private SlashCommandInteractionEvent nonDeferredEvent;
+    private SlashCommandInteractionEvent deferredEvent;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        nonDeferredCommand = new BenchmarkCommand(NON_DEFERRED, false, hooksPerType);
+        deferredCommand = new BenchmarkCommand(DEFERRED, true, hooksPerType);
+        bot = new BenchmarkBot(nonDeferredCommand, deferredCommand);
+        nonDeferredEvent = bot.createSlashCommandEvent(NON_DEFERRED);
+        deferredEvent = bot.createSlashCommandEvent(DEFERRED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        bot.close();
+    }
+
+    @Benchmark
+    public void dispatchNonDeferred() {
+        bot.getCommandsHandler().onSlashCommandInteraction(nonDeferredEvent);
+    }
+
+    @Benchmark
+    public void dispatchDeferred() {
+        bot.getCommandsHandler().onSlashCommandInteraction(deferredEvent);
+    }
+
+    @Benchmark
+    public ReplyCallbackAction processNonDeferredCommand() {
+        return nonDeferredCommand.nonDeferred(nonDeferredEvent);
+    }
+
+    @Benchmark
+    public WebhookMessageCreateAction<?> processDeferredCommand() {
+        return deferredCommand.deferred(deferredEvent);
+    }
+
+    @Benchmark
+    public CommandResponse<?> preExecutionHooks() {
+        return nonDeferredCommand.preExecutionHooks(nonDeferredEvent);
+    }
+
+    @Benchmark
+    public void postExecutionHooks() {
+        bot.getCommandsHandler().postExecutionHooks(nonDeferredCommand, nonDeferredEvent, null);
+    }
+
+    @Benchmark
+    public CommandResponse<MessageEmbed> commandResponse() {
+        return new CommandResponse<>(
+                false,
+                new EmbedBuilder()
+                        .setTitle("Benchmark")
+                        .setDescription("A response that is built for every interaction")
+                        .addField("Field", "Value", false)
+                        .setColor(Color.GREEN)
+                        .build()
+        );
+    }
+
+    @Benchmark
+    public MessageEmbed handleError() {
+        return nonDeferredCommand.errorEmbed(ERROR, BenchmarkBot.USER_ID);
+    }
+}
@@ -0,0 +1,112 @@
+package dev.alphaserpentis.coffeecore.benchmarks;
+
+import dev.alphaserpentis.coffeecore.benchmarks.support.BenchmarkDataHandler;
+import dev.alphaserpentis.coffeecore.benchmarks.support.Footprint;
+import dev.alphaserpentis.coffeecore.benchmarks.support.StorageBackend;
+import dev.alphaserpentis.coffeecore.benchmarks.support.SyntheticEntities;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks flushing the entity data, for each storage backend. Without a backend, the flush is
+ * {@link dev.alphaserpentis.coffeecore.handler.api.discord.entities.AbstractDataHandler#writeToJSON}, which rewrites
+ * every entity no matter how many changed.
+ * <p>
+ * Each flush is timed once, with the peak heap usage and the bytes written as secondary results. The bytes written are
+ * read from {@code /proc/self/io}, and are the size of the storage after the flush on platforms without it. Larger
+ * amounts of entities, such as 10 million, can be run with {@code -p entitiesPerType=10000000} and a bigger heap
+ * through {@code -jvmArgs}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityFlushBenchmark {
+    private static final long SEED = 42;
+
+    /**
+     * The amount of guilds, and the amount of users.
+     */
+    @Param({"10000", "100000", "1000000"})
+    public int entitiesPerType;
+    @Param({"JSON", "BINARY_SNAPSHOT", "WRITE_AHEAD_LOG"})
+    public StorageBackend backend;
+    /**
+     * Whether the entities are subclasses of {@link dev.alphaserpentis.coffeecore.data.entity.ServerData} and
+     * {@link dev.alphaserpentis.coffeecore.data.entity.UserData} with extra fields.
+     */
+    @Param({"false", "true"})
+    public boolean customEntityData;
+    /**
+     * The percentage of the entities that changed since the last flush. At 100, the backends are told to write
+     * everything.
+     */
+    @Param({"100", "1"})
+    public int changedPercent;
+
+    private Path directory;
+    private BenchmarkDataHandler handler;
+    private Map<String, Set<Long>> changedEntities;
+
+    @Setup(Level.Trial)
+    public void loadEntities() throws IOException {
+        directory = Files.createTempDirectory("coffeecore-entities");
+        backend.write(directory, SyntheticEntities.generate(entitiesPerType, customEntityData, SEED), customEntityData);
+        handler = backend.open(directory, customEntityData);
+        changedEntities = changedPercent >= 100
+                ? null
+                : SyntheticEntities.pick(handler.entityDataHashMap, changedPercent);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetPeakHeap() {
+        Footprint.resetPeakHeap();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteEntities() throws IOException {
+        handler.close();
+
+        try(Stream<Path> files = Files.walk(directory)) {
+            for(Path file: files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void flush(FootprintCounters counters) throws IOException {
+        long writtenBefore = Footprint.getWrittenBytes();
+        long writtenAfter;
+
+        handler.flush(changedEntities);
+        writtenAfter = Footprint.getWrittenBytes();
+
+        counters.peakHeapBytes = Footprint.getPeakHeap();
+        counters.storageBytes = writtenBefore < 0 || writtenAfter < 0
+                ? Footprint.sizeOf(backend.files(directory))
+                : writtenAfter - writtenBefore;
+    }
+}
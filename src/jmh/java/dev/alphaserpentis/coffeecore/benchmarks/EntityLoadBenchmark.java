@@ -0,0 +1,100 @@
+package dev.alphaserpentis.coffeecore.benchmarks;
+
+import dev.alphaserpentis.coffeecore.benchmarks.support.BenchmarkDataHandler;
+import dev.alphaserpentis.coffeecore.benchmarks.support.Footprint;
+import dev.alphaserpentis.coffeecore.benchmarks.support.StorageBackend;
+import dev.alphaserpentis.coffeecore.benchmarks.support.SyntheticEntities;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks loading the entity data at startup, for each storage backend. The {@link BenchmarkDataHandler} is
+ * constructed the same way {@link dev.alphaserpentis.coffeecore.core.CoffeeCore} is handed one, which is where
+ * {@link dev.alphaserpentis.coffeecore.serialization.EntityDataDeserializer#deserialize} and the other loaders run.
+ * <p>
+ * Each load is timed once, with the peak heap usage and the size of the storage as secondary results. The binary
+ * snapshot decodes entities as they are accessed, so its load does not include decoding them. Larger amounts of
+ * entities, such as 10 million, can be run with {@code -p entitiesPerType=10000000} and a bigger heap through
+ * {@code -jvmArgs}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityLoadBenchmark {
+    private static final long SEED = 42;
+
+    /**
+     * The amount of guilds, and the amount of users.
+     */
+    @Param({"10000", "100000", "1000000"})
+    public int entitiesPerType;
+    @Param({"JSON", "JSON_TREE", "BINARY_SNAPSHOT", "WRITE_AHEAD_LOG"})
+    public StorageBackend backend;
+    /**
+     * Whether the entities are subclasses of {@link dev.alphaserpentis.coffeecore.data.entity.ServerData} and
+     * {@link dev.alphaserpentis.coffeecore.data.entity.UserData} with extra fields.
+     */
+    @Param({"false", "true"})
+    public boolean customEntityData;
+
+    private Path directory;
+    private BenchmarkDataHandler handler;
+
+    @Setup(Level.Trial)
+    public void writeEntities() throws IOException {
+        directory = Files.createTempDirectory("coffeecore-entities");
+        backend.write(directory, SyntheticEntities.generate(entitiesPerType, customEntityData, SEED), customEntityData);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetPeakHeap() {
+        Footprint.resetPeakHeap();
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeHandler() throws IOException {
+        if(handler != null) {
+            handler.close();
+            handler = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteEntities() throws IOException {
+        try(Stream<Path> files = Files.walk(directory)) {
+            for(Path file: files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public BenchmarkDataHandler load(FootprintCounters counters) throws IOException {
+        handler = backend.open(directory, customEntityData);
+
+        counters.peakHeapBytes = Footprint.getPeakHeap();
+        counters.storageBytes = Footprint.sizeOf(backend.files(directory));
+        return handler;
+    }
+}
@@ -0,0 +1,29 @@
+package dev.alphaserpentis.coffeecore.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Reports the footprint of the entity data benchmarks next to their times.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class FootprintCounters {
+    /**
+     * The peak heap usage while the entities were loaded or flushed.
+     */
+    public long peakHeapBytes;
+    /**
+     * The bytes written by a flush, or the size of the storage that was loaded.
+     */
+    public long storageBytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        peakHeapBytes = 0;
+        storageBytes = 0;
+    }
+}
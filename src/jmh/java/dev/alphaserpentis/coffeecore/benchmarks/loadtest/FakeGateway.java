@@ -0,0 +1,349 @@
+package dev.alphaserpentis.coffeecore.benchmarks.loadtest;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-process Discord gateway that a single JDA session connects to. It speaks just enough of the gateway protocol
+ * (HELLO, IDENTIFY, READY and heartbeats) over a plain WebSocket for JDA to become ready without any guilds, after
+ * which {@link #dispatch(String, JsonObject)} sends events to it.
+ */
+public class FakeGateway implements AutoCloseable {
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final int OP_DISPATCH = 0;
+    private static final int OP_HEARTBEAT = 1;
+    private static final int OP_IDENTIFY = 2;
+    private static final int OP_HELLO = 10;
+    private static final int OP_HEARTBEAT_ACK = 11;
+    private static final int FRAME_TEXT = 0x1;
+    private static final int FRAME_CLOSE = 0x8;
+    private static final int FRAME_PING = 0x9;
+    private static final int FRAME_PONG = 0xA;
+
+    private final JsonObject selfUser;
+    private final long applicationId;
+    private final ServerSocket serverSocket;
+    private final Thread acceptThread;
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final CountDownLatch identified = new CountDownLatch(1);
+    private volatile Socket session;
+    private volatile boolean closed = false;
+
+    /**
+     * Starts the gateway on a free port of the loopback address.
+     * @param selfUser The user the bot logs in as
+     * @param applicationId The ID of the bot's application
+     * @throws IOException If the server socket could not be opened
+     */
+    public FakeGateway(@NonNull JsonObject selfUser, long applicationId) throws IOException {
+        this.selfUser = selfUser;
+        this.applicationId = applicationId;
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        acceptThread = new Thread(this::acceptSessions, "FakeGateway-Accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    /**
+     * Gets the URL JDA connects to.
+     * @return The WebSocket URL of the gateway
+     */
+    @NonNull
+    public String getUrl() {
+        return "ws://" + serverSocket.getInetAddress().getHostAddress() + ":" + serverSocket.getLocalPort();
+    }
+
+    /**
+     * Waits for JDA to identify itself.
+     * @param timeout The maximum time to wait
+     * @param unit The unit of the timeout
+     * @return Whether JDA identified itself in time
+     * @throws InterruptedException If the thread was interrupted while waiting
+     */
+    public boolean awaitIdentify(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        return identified.await(timeout, unit);
+    }
+
+    /**
+     * Sends a dispatch event to the connected session.
+     * @param type The type of the event, such as {@code INTERACTION_CREATE}
+     * @param data The data of the event
+     * @throws IOException If no session is connected or the event could not be sent
+     */
+    public void dispatch(@NonNull String type, @NonNull JsonObject data) throws IOException {
+        JsonObject payload = new JsonObject();
+
+        payload.addProperty("op", OP_DISPATCH);
+        payload.addProperty("t", type);
+        payload.addProperty("s", sequence.incrementAndGet());
+        payload.add("d", data);
+        send(payload);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+
+        if(session != null)
+            session.close();
+    }
+
+    private void acceptSessions() {
+        while(!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread reader = new Thread(() -> runSession(socket), "FakeGateway-Session");
+
+                reader.setDaemon(true);
+                reader.start();
+            } catch(IOException e) {
+                if(!closed)
+                    e.printStackTrace();
+            }
+        }
+    }
+
+    private void runSession(@NonNull Socket socket) {
+        try(socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+
+            socket.setTcpNoDelay(true);
+            handshake(in, socket.getOutputStream());
+            session = socket;
+            sendHello();
+
+            while(!closed) {
+                Frame frame = readFrame(in);
+
+                switch(frame.opcode()) {
+                    case FRAME_TEXT -> handlePayload(JsonParser.parseString(
+                            new String(frame.payload(), StandardCharsets.UTF_8)
+                    ).getAsJsonObject());
+                    case FRAME_PING -> writeFrame(FRAME_PONG, frame.payload());
+                    case FRAME_CLOSE -> {
+                        writeFrame(FRAME_CLOSE, frame.payload());
+                        return;
+                    }
+                    default -> {
+                        // Continuation and binary frames are not sent by JDA without compression
+                    }
+                }
+            }
+        } catch(EOFException ignored) {
+            // JDA closed the connection
+        } catch(IOException e) {
+            if(!closed)
+                e.printStackTrace();
+        }
+    }
+
+    private void handlePayload(@NonNull JsonObject payload) throws IOException {
+        switch(payload.get("op").getAsInt()) {
+            case OP_HEARTBEAT -> {
+                JsonObject ack = new JsonObject();
+
+                ack.addProperty("op", OP_HEARTBEAT_ACK);
+                send(ack);
+            }
+            case OP_IDENTIFY -> {
+                dispatch("READY", createReady());
+                identified.countDown();
+            }
+            default -> {
+                // Presence updates and other requests do not affect the load test
+            }
+        }
+    }
+
+    private void sendHello() throws IOException {
+        JsonObject hello = new JsonObject();
+        JsonObject data = new JsonObject();
+
+        data.addProperty("heartbeat_interval", 41250);
+        hello.addProperty("op", OP_HELLO);
+        hello.add("d", data);
+        send(hello);
+    }
+
+    @NonNull
+    private JsonObject createReady() {
+        JsonObject ready = new JsonObject();
+        JsonObject application = new JsonObject();
+
+        application.addProperty("id", Long.toUnsignedString(applicationId));
+        application.addProperty("flags", 0);
+        ready.addProperty("v", 10);
+        ready.add("user", selfUser);
+        ready.add("guilds", new JsonArray());
+        ready.add("private_channels", new JsonArray());
+        ready.addProperty("session_id", "fake-session");
+        ready.addProperty("resume_gateway_url", getUrl());
+        ready.add("shard", JsonNull.INSTANCE);
+        ready.add("application", application);
+
+        return ready;
+    }
+
+    private void send(@NonNull JsonObject payload) throws IOException {
+        writeFrame(FRAME_TEXT, payload.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeFrame(int opcode, @NonNull byte[] payload) throws IOException {
+        Socket socket = session;
+
+        if(socket == null)
+            throw new IOException("No session is connected to the gateway");
+
+        // Frames from the server are never masked
+        synchronized(socket) {
+            OutputStream out = socket.getOutputStream();
+
+            out.write(0x80 | opcode);
+
+            if(payload.length < 126) {
+                out.write(payload.length);
+            } else if(payload.length <= 0xFFFF) {
+                out.write(126);
+                out.write(payload.length >>> 8);
+                out.write(payload.length);
+            } else {
+                out.write(127);
+
+                for(int shift = 56; shift >= 0; shift -= 8) {
+                    out.write((int) ((long) payload.length >>> shift));
+                }
+            }
+
+            out.write(payload);
+            out.flush();
+        }
+    }
+
+    private static void handshake(@NonNull InputStream in, @NonNull OutputStream out) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        String line = readLine(in);
+        String response;
+
+        while(!(line = readLine(in)).isEmpty()) {
+            int colon = line.indexOf(':');
+
+            if(colon > 0)
+                headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+        }
+
+        response = "HTTP/1.1 101 Switching Protocols\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + acceptKey(headers.get("sec-websocket-key")) + "\r\n\r\n";
+        out.write(response.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    @NonNull
+    private static String acceptKey(String key) throws IOException {
+        if(key == null)
+            throw new IOException("The WebSocket handshake is missing its key");
+
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1").digest(
+                    (key + WEBSOCKET_GUID).getBytes(StandardCharsets.US_ASCII)
+            ));
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @NonNull
+    private static String readLine(@NonNull InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+
+        while((b = in.read()) != '\n') {
+            if(b < 0)
+                throw new EOFException();
+            if(b != '\r')
+                line.write(b);
+        }
+
+        return line.toString(StandardCharsets.US_ASCII);
+    }
+
+    @NonNull
+    private static Frame readFrame(@NonNull InputStream in) throws IOException {
+        int first = readByte(in);
+        int second = readByte(in);
+        long length = second & 0x7F;
+        byte[] mask = new byte[4];
+        byte[] payload;
+
+        if(length == 126) {
+            length = (readByte(in) << 8) | readByte(in);
+        } else if(length == 127) {
+            length = 0;
+
+            for(int i = 0; i < 8; i++) {
+                length = (length << 8) | readByte(in);
+            }
+        }
+
+        // Frames from the client are always masked
+        if((second & 0x80) != 0)
+            readFully(in, mask);
+
+        payload = new byte[Math.toIntExact(length)];
+        readFully(in, payload);
+
+        for(int i = 0; i < payload.length; i++) {
+            payload[i] ^= mask[i & 3];
+        }
+
+        return new Frame(first & 0x0F, payload);
+    }
+
+    private static int readByte(@NonNull InputStream in) throws IOException {
+        int b = in.read();
+
+        if(b < 0)
+            throw new EOFException();
+
+        return b;
+    }
+
+    private static void readFully(@NonNull InputStream in, @NonNull byte[] bytes) throws IOException {
+        int offset = 0;
+
+        while(offset < bytes.length) {
+            int read = in.read(bytes, offset, bytes.length - offset);
+
+            if(read < 0)
+                throw new EOFException();
+
+            offset += read;
+        }
+    }
+
+    private record Frame(int opcode, @NonNull byte[] payload) {}
+}
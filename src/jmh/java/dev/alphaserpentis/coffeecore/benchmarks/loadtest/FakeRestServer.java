@@ -0,0 +1,270 @@
+package dev.alphaserpentis.coffeecore.benchmarks.loadtest;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An in-process Discord REST API that JDA's requests are pointed at. It serves the requests JDA and CoffeeCore make
+ * while starting up and answering interactions, after a simulated latency. Requests of interactions are rejected with
+ * a 429 at the configured rate, which JDA retries after the {@code Retry-After} the response asks for.
+ */
+public class FakeRestServer implements AutoCloseable {
+    /**
+     * The path JDA's base URL points at.
+     */
+    private static final String BASE_PATH = "/api/v10/";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final InteractionTracker tracker;
+    private final SyntheticInteractions interactions;
+    private final Duration latency;
+    private final Duration jitter;
+    private final double rateLimitChance;
+    private final long retryAfterSeconds;
+
+    static {
+        // The server writes the headers and the body of a response separately, which Nagle's algorithm would otherwise
+        // hold back until the client's delayed ACK, adding tens of milliseconds to every request
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    /**
+     * Starts the server on a free port of the loopback address.
+     * @param tracker The tracker the answered interaction requests are recorded in
+     * @param interactions The builder of the entities the responses contain
+     * @param latency The latency every request is answered after
+     * @param jitter The maximum random latency added to each request
+     * @param rateLimitChance The chance of a request of an interaction being rejected with a 429, from 0 to 1
+     * @param retryAfterSeconds The amount of seconds a rejected request is retried after
+     * @throws IOException If the server could not be started
+     */
+    public FakeRestServer(
+            @NonNull InteractionTracker tracker,
+            @NonNull SyntheticInteractions interactions,
+            @NonNull Duration latency,
+            @NonNull Duration jitter,
+            double rateLimitChance,
+            long retryAfterSeconds
+    ) throws IOException {
+        this.tracker = tracker;
+        this.interactions = interactions;
+        this.latency = latency;
+        this.jitter = jitter;
+        this.rateLimitChance = rateLimitChance;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "FakeRestServer");
+
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext(BASE_PATH, this::handle);
+        server.start();
+    }
+
+    /**
+     * Gets the URL JDA's REST requests are sent to.
+     * @return The base URL of the API
+     */
+    @NonNull
+    public String getBaseUrl() {
+        InetSocketAddress address = server.getAddress();
+
+        return "http://" + address.getAddress().getHostAddress() + ":" + address.getPort() + BASE_PATH;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(@NonNull HttpExchange exchange) throws IOException {
+        try(exchange) {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().substring(BASE_PATH.length()).split("/");
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            String token = getInteractionToken(path);
+
+            simulateLatency();
+
+            if(token != null && rateLimitChance > 0 && ThreadLocalRandom.current().nextDouble() < rateLimitChance) {
+                tracker.rateLimited(token);
+                sendRateLimited(exchange);
+            } else if(path[0].equals("users") && path[1].equals("@me")) {
+                send(exchange, 200, SyntheticInteractions.createSelfUser());
+            } else if(path[0].equals("applications") && path[path.length - 1].equals("commands")) {
+                handleCommands(exchange, method, body);
+            } else if(path[0].equals("interactions") && path.length == 4) {
+                tracker.acknowledged(token, parsePayload(exchange, body).get("type").getAsInt());
+                send(exchange, 204, null);
+            } else if(path[0].equals("webhooks") && token != null) {
+                handleWebhook(exchange, method, token, path);
+            } else {
+                JsonObject error = new JsonObject();
+
+                error.addProperty("message", "404: Not Found");
+                error.addProperty("code", 0);
+                send(exchange, 404, error);
+            }
+        } catch(RuntimeException e) {
+            e.printStackTrace();
+            throw e;
+        }
+    }
+
+    /**
+     * Answers the follow-ups of interactions, and the reads and edits of their responses.
+     */
+    private void handleWebhook(
+            @NonNull HttpExchange exchange,
+            @NonNull String method,
+            @NonNull String token,
+            @NonNull String[] path
+    ) throws IOException {
+        InteractionTracker.Pending interaction = tracker.getPending(token);
+        long channelId = interaction == null ? 0 : interaction.channelId();
+
+        if(method.equals("DELETE")) {
+            send(exchange, 204, null);
+            return;
+        }
+
+        // Follow-ups and edits of the original response are what the user sees of a deferred reply
+        if(method.equals("POST") || method.equals("PATCH"))
+            tracker.followedUp(token);
+
+        send(exchange, 200, interactions.createBotMessage(channelId, path.length > 3 ? "Edited" : "Followed up"));
+    }
+
+    /**
+     * Answers the requests that register the application's commands, assigning each command the ID the synthetic
+     * interactions reference.
+     */
+    private void handleCommands(
+            @NonNull HttpExchange exchange,
+            @NonNull String method,
+            @NonNull String body
+    ) throws IOException {
+        switch(method) {
+            case "GET" -> send(exchange, 200, new JsonArray());
+            case "POST" -> send(exchange, 200, toCommand(JsonParser.parseString(body).getAsJsonObject()));
+            case "PUT" -> {
+                JsonArray commands = new JsonArray();
+
+                for(JsonElement command: JsonParser.parseString(body).getAsJsonArray()) {
+                    commands.add(toCommand(command.getAsJsonObject()));
+                }
+
+                send(exchange, 200, commands);
+            }
+            default -> send(exchange, 204, null);
+        }
+    }
+
+    @NonNull
+    private static JsonObject toCommand(@NonNull JsonObject data) {
+        JsonObject command = data.deepCopy();
+        String name = data.get("name").getAsString();
+
+        command.addProperty("id", Long.toUnsignedString(LoadTestCommands.commandId(name)));
+        command.addProperty("application_id", Long.toUnsignedString(SyntheticInteractions.BOT_ID));
+        command.addProperty("version", "1");
+
+        if(!command.has("type"))
+            command.addProperty("type", 1);
+        if(!command.has("description"))
+            command.addProperty("description", "");
+        if(!command.has("options"))
+            command.add("options", new JsonArray());
+
+        return command;
+    }
+
+    /**
+     * Gets the token of the interaction that a request belongs to.
+     * @return The token, or {@code null} if the request does not belong to an interaction
+     */
+    @Nullable
+    private static String getInteractionToken(@NonNull String[] path) {
+        if(path[0].equals("interactions") && path.length == 4)
+            return path[2];
+        if(path[0].equals("webhooks") && path.length >= 3)
+            return path[2];
+
+        return null;
+    }
+
+    /**
+     * Parses the JSON payload of a request, which JDA sends as a part of a multipart request if it has files.
+     */
+    @NonNull
+    private static JsonObject parsePayload(@NonNull HttpExchange exchange, @NonNull String body) {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+
+        if(contentType != null && contentType.startsWith("multipart/"))
+            body = body.substring(body.indexOf('{'), body.lastIndexOf('}') + 1);
+
+        return JsonParser.parseString(body).getAsJsonObject();
+    }
+
+    private void simulateLatency() {
+        long nanos = latency.toNanos();
+
+        if(!jitter.isZero())
+            nanos += ThreadLocalRandom.current().nextLong(jitter.toNanos());
+        if(nanos > 0)
+            LockSupport.parkNanos(nanos);
+    }
+
+    private void sendRateLimited(@NonNull HttpExchange exchange) throws IOException {
+        JsonObject error = new JsonObject();
+
+        // Without a Via header, JDA takes the 429 for a Cloudflare ban
+        exchange.getResponseHeaders().add("Via", "1.1 google");
+        exchange.getResponseHeaders().add("Retry-After", Long.toString(retryAfterSeconds));
+        exchange.getResponseHeaders().add("X-RateLimit-Scope", "user");
+        error.addProperty("message", "You are being rate limited.");
+        error.addProperty("retry_after", (double) retryAfterSeconds);
+        error.addProperty("global", false);
+        send(exchange, 429, error);
+    }
+
+    private static void send(
+            @NonNull HttpExchange exchange,
+            int status,
+            @Nullable JsonElement body
+    ) throws IOException {
+        byte[] bytes = body == null ? new byte[0] : body.toString().getBytes(StandardCharsets.UTF_8);
+
+        if(body != null)
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+
+        try(OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package dev.alphaserpentis.coffeecore.benchmarks.loadtest;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+
+/**
+ * The kinds of interactions the load test generates.
+ */
+public enum InteractionKind {
+    SLASH("slash"),
+    BUTTON("button"),
+    MODAL("modal"),
+    USER_CONTEXT("user"),
+    MESSAGE_CONTEXT("message");
+
+    private final String key;
+
+    InteractionKind(@NonNull String key) {
+        this.key = key;
+    }
+
+    /**
+     * Gets the key of the kind, as used by {@code --mix}.
+     * @return The key
+     */
+    @NonNull
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the kind with the key.
+     * @param key The key, such as {@code slash}
+     * @return The kind
+     * @throws IllegalArgumentException If no kind has the key
+     */
+    @NonNull
+    public static InteractionKind fromKey(@NonNull String key) {
+        for(InteractionKind kind: values()) {
+            if(kind.key.equals(key))
+                return kind;
+        }
+
+        throw new IllegalArgumentException("Unknown interaction kind: " + key);
+    }
+}
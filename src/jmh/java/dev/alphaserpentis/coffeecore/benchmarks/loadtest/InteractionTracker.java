@@ -0,0 +1,239 @@
+package dev.alphaserpentis.coffeecore.benchmarks.loadtest;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Follows each interaction from the moment it was due to be dispatched by the gateway until the REST server answered
+ * its response. Latencies start from the scheduled dispatch time rather than the actual one, so a stalled bot is not
+ * hidden by the load generator falling behind.
+ * <p>
+ * The acknowledgement latency ends when the interaction callback is answered. The response latency ends when the
+ * message the user sees is answered, which is the callback itself unless the interaction was deferred, in which case it
+ * is the follow-up or the edit of the original response.
+ */
+public class InteractionTracker {
+    /**
+     * Callbacks that respond to the interaction with a message, an updated message or a modal.
+     */
+    private static final int CALLBACK_MESSAGE = 4;
+    private static final int CALLBACK_UPDATE_MESSAGE = 7;
+    private static final int CALLBACK_MODAL = 9;
+
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final Map<InteractionKind, Samples> ackLatencies = new EnumMap<>(InteractionKind.class);
+    private final Map<InteractionKind, Samples> responseLatencies = new EnumMap<>(InteractionKind.class);
+    private final Map<InteractionKind, LongAdder> dispatched = new EnumMap<>(InteractionKind.class);
+    private final Map<InteractionKind, LongAdder> rateLimited = new EnumMap<>(InteractionKind.class);
+    private final LongAdder errors = new LongAdder();
+    private volatile boolean measuring = false;
+
+    /**
+     * An interaction that was dispatched and has not been responded to yet.
+     * @param kind The kind of interaction
+     * @param channelId The ID of the channel the interaction happened in
+     * @param scheduledNanos The {@link System#nanoTime()} the interaction was due to be dispatched at
+     * @param measured Whether the interaction was dispatched after the warmup
+     * @param acknowledged Whether the interaction callback was answered
+     */
+    public record Pending(
+            @NonNull InteractionKind kind,
+            long channelId,
+            long scheduledNanos,
+            boolean measured,
+            @NonNull AtomicBoolean acknowledged
+    ) {}
+
+    public InteractionTracker() {
+        for(InteractionKind kind: InteractionKind.values()) {
+            ackLatencies.put(kind, new Samples());
+            responseLatencies.put(kind, new Samples());
+            dispatched.put(kind, new LongAdder());
+            rateLimited.put(kind, new LongAdder());
+        }
+    }
+
+    /**
+     * Starts counting the interactions dispatched from now on, ending the warmup.
+     */
+    public void startMeasuring() {
+        measuring = true;
+    }
+
+    /**
+     * Records an interaction that was dispatched.
+     * @param token The token of the interaction
+     * @param kind The kind of interaction
+     * @param channelId The ID of the channel the interaction happened in
+     * @param scheduledNanos The {@link System#nanoTime()} the interaction was due to be dispatched at
+     */
+    public void dispatched(@NonNull String token, @NonNull InteractionKind kind, long channelId, long scheduledNanos) {
+        boolean measured = measuring;
+
+        pending.put(token, new Pending(kind, channelId, scheduledNanos, measured, new AtomicBoolean()));
+
+        if(measured)
+            dispatched.get(kind).increment();
+    }
+
+    /**
+     * Records the interaction callback of an interaction being answered.
+     * @param token The token of the interaction
+     * @param callbackType The type of the callback
+     */
+    public void acknowledged(@NonNull String token, int callbackType) {
+        long now = System.nanoTime();
+        Pending interaction = pending.get(token);
+
+        if(interaction == null || !interaction.acknowledged().compareAndSet(false, true))
+            return;
+
+        if(interaction.measured())
+            ackLatencies.get(interaction.kind()).add(now - interaction.scheduledNanos());
+
+        if(callbackType == CALLBACK_MESSAGE
+                || callbackType == CALLBACK_UPDATE_MESSAGE
+                || callbackType == CALLBACK_MODAL)
+            responded(token, now);
+    }
+
+    /**
+     * Records the follow-up, or the edit of the original response, of a deferred interaction being answered.
+     * @param token The token of the interaction
+     */
+    public void followedUp(@NonNull String token) {
+        responded(token, System.nanoTime());
+    }
+
+    /**
+     * Records a request of an interaction that was rejected with a 429.
+     * @param token The token of the interaction
+     */
+    public void rateLimited(@NonNull String token) {
+        Pending interaction = pending.get(token);
+
+        if(interaction != null && interaction.measured())
+            rateLimited.get(interaction.kind()).increment();
+    }
+
+    /**
+     * Records an interaction that failed in
+     * {@link dev.alphaserpentis.coffeecore.handler.api.discord.commands.CommandsHandler}.
+     */
+    public void failed() {
+        if(measuring)
+            errors.increment();
+    }
+
+    /**
+     * Gets an interaction that was not responded to yet.
+     * @param token The token of the interaction
+     * @return The interaction, or {@code null} if it was responded to or never dispatched
+     */
+    @Nullable
+    public Pending getPending(@NonNull String token) {
+        return pending.get(token);
+    }
+
+    /**
+     * Gets the amount of interactions that were not responded to yet.
+     * @return The amount of interactions
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Prints the latencies and counts of the interactions dispatched after the warmup.
+     * @param out The stream to print to
+     */
+    public void printReport(@NonNull PrintStream out) {
+        long lost = pending.values().stream().filter(Pending::measured).count();
+
+        out.printf(
+                "%-8s %9s %9s %6s | %-33s | %-33s%n",
+                "kind", "sent", "done", "429s",
+                "ack p50 / p99 / max (ms)", "response p50 / p99 / max (ms)"
+        );
+
+        for(InteractionKind kind: InteractionKind.values()) {
+            long[] acks = ackLatencies.get(kind).sorted();
+            long[] responses = responseLatencies.get(kind).sorted();
+
+            if(dispatched.get(kind).sum() == 0)
+                continue;
+
+            out.printf(
+                    "%-8s %9d %9d %6d | %-33s | %-33s%n",
+                    kind.getKey(),
+                    dispatched.get(kind).sum(),
+                    responses.length,
+                    rateLimited.get(kind).sum(),
+                    formatPercentiles(acks),
+                    formatPercentiles(responses)
+            );
+        }
+
+        out.printf("Interactions without a response: %d, errors: %d%n", lost, errors.sum());
+    }
+
+    private void responded(@NonNull String token, long now) {
+        Pending interaction = pending.remove(token);
+
+        if(interaction != null && interaction.measured())
+            responseLatencies.get(interaction.kind()).add(now - interaction.scheduledNanos());
+    }
+
+    @NonNull
+    private static String formatPercentiles(@NonNull long[] sorted) {
+        if(sorted.length == 0)
+            return "-";
+
+        return String.format(
+                "%8.2f / %8.2f / %8.2f",
+                toMillis(percentile(sorted, 0.5)),
+                toMillis(percentile(sorted, 0.99)),
+                toMillis(sorted[sorted.length - 1])
+        );
+    }
+
+    private static long percentile(@NonNull long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * The latencies of one kind of interaction, in nanoseconds.
+     */
+    private static class Samples {
+        private long[] values = new long[1024];
+        private int size = 0;
+
+        private synchronized void add(long value) {
+            if(size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+
+            values[size++] = value;
+        }
+
+        @NonNull
+        private synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package dev.alphaserpentis.coffeecore.benchmarks.loadtest;
+
+import dev.alphaserpentis.coffeecore.benchmarks.support.BenchmarkDataHandler;
+import dev.alphaserpentis.coffeecore.commands.BotCommand;
+import dev.alphaserpentis.coffeecore.core.CoffeeCore;
+import dev.alphaserpentis.coffeecore.data.bot.BotSettings;
+import dev.alphaserpentis.coffeecore.handler.api.discord.commands.CommandsHandler;
+import dev.alphaserpentis.coffeecore.metrics.CommandMetricsSnapshot;
+import dev.alphaserpentis.coffeecore.metrics.DefaultCommandMetrics;
+import dev.alphaserpentis.coffeecore.metrics.HistogramSnapshot;
+import io.reactivex.rxjava3.annotations.NonNull;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.JDABuilder;
+import net.dv8tion.jda.api.requests.RestConfig;
+import net.dv8tion.jda.api.utils.Compression;
+import net.dv8tion.jda.api.utils.SessionControllerAdapter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs CoffeeCore end to end against an in-process Discord, without a network connection. A real {@link JDA} session
+ * connects to a {@link FakeGateway} and sends its requests to a {@link FakeRestServer}, and the interactions the
+ * gateway dispatches at a fixed rate go through {@link CoffeeCore}, {@link CommandsHandler} and the
+ * {@link BotCommand}s of {@link LoadTestCommands}.
+ * <p>
+ * Run it from the benchmarks jar:
+ * <pre>
+ * java -cp target/benchmarks/benchmarks.jar dev.alphaserpentis.coffeecore.benchmarks.loadtest.LoadTest --rate 500
+ * </pre>
+ * The load is open, so interactions keep being dispatched at the rate however slowly the bot responds. Run with
+ * {@code --help} for the options.
+ */
+public class LoadTest {
+    private static final String USAGE = """
+            Options:
+              --rate <n>             Interactions dispatched per second (default 200)
+              --duration <s>         Seconds of load that are measured (default 30)
+              --warmup <s>           Seconds of load before the measurement (default 5)
+              --mix <kind=weight,..> Weights of slash, button, modal, user and message interactions
+                                     (default slash=4,button=2,modal=1,user=1,message=1)
+              --users <n>            Users the interactions are spread across (default 1000)
+              --defer                Defer the replies of the commands
+              --rest-latency <ms>    Latency of every REST request (default 20)
+              --rest-jitter <ms>     Maximum random latency added to each REST request (default 10)
+              --ratelimit <p>        Chance of an interaction's REST request getting a 429, from 0 to 1 (default 0.01)
+              --retry-after <s>      Seconds a rate limited request is retried after (default 1)
+            """;
+
+    private LoadTest() {}
+
+    /**
+     * The options of a load test.
+     * @param rate Interactions dispatched per second
+     * @param duration The load that is measured
+     * @param warmup The load before the measurement
+     * @param mix The weights of the kinds of interactions
+     * @param users The amount of users the interactions are spread across
+     * @param deferReplies Whether the commands defer their replies
+     * @param restLatency The latency of every REST request
+     * @param restJitter The maximum random latency added to each REST request
+     * @param rateLimitChance The chance of an interaction's REST request being rejected with a 429
+     * @param retryAfterSeconds The amount of seconds a rejected request is retried after
+     */
+    public record Options(
+            double rate,
+            @NonNull Duration duration,
+            @NonNull Duration warmup,
+            @NonNull Map<InteractionKind, Integer> mix,
+            int users,
+            boolean deferReplies,
+            @NonNull Duration restLatency,
+            @NonNull Duration restJitter,
+            double rateLimitChance,
+            long retryAfterSeconds
+    ) {
+        /**
+         * Parses the options from the command line.
+         * @param args The arguments
+         * @return The options
+         * @throws IllegalArgumentException If an argument is unknown or malformed
+         */
+        @NonNull
+        public static Options parse(@NonNull String[] args) {
+            double rate = 200;
+            Duration duration = Duration.ofSeconds(30);
+            Duration warmup = Duration.ofSeconds(5);
+            Map<InteractionKind, Integer> mix = parseMix("slash=4,button=2,modal=1,user=1,message=1");
+            int users = 1000;
+            boolean deferReplies = false;
+            Duration restLatency = Duration.ofMillis(20);
+            Duration restJitter = Duration.ofMillis(10);
+            double rateLimitChance = 0.01;
+            long retryAfterSeconds = 1;
+
+            for(int i = 0; i < args.length; i++) {
+                String option = args[i];
+
+                if(option.equals("--defer")) {
+                    deferReplies = true;
+                    continue;
+                } else if(i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value of " + option);
+                }
+
+                String value = args[++i];
+
+                switch(option) {
+                    case "--rate" -> rate = Double.parseDouble(value);
+                    case "--duration" -> duration = Duration.ofSeconds(Long.parseLong(value));
+                    case "--warmup" -> warmup = Duration.ofSeconds(Long.parseLong(value));
+                    case "--mix" -> mix = parseMix(value);
+                    case "--users" -> users = Integer.parseInt(value);
+                    case "--rest-latency" -> restLatency = Duration.ofMillis(Long.parseLong(value));
+                    case "--rest-jitter" -> restJitter = Duration.ofMillis(Long.parseLong(value));
+                    case "--ratelimit" -> rateLimitChance = Double.parseDouble(value);
+                    case "--retry-after" -> retryAfterSeconds = Long.parseLong(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + option);
+                }
+            }
+
+            if(rate <= 0)
+                throw new IllegalArgumentException("The rate must be greater than 0");
+
+            return new Options(
+                    rate,
+                    duration,
+                    warmup,
+                    mix,
+                    users,
+                    deferReplies,
+                    restLatency,
+                    restJitter,
+                    rateLimitChance,
+                    retryAfterSeconds
+            );
+        }
+
+        @NonNull
+        private static Map<InteractionKind, Integer> parseMix(@NonNull String value) {
+            Map<InteractionKind, Integer> mix = new EnumMap<>(InteractionKind.class);
+
+            for(String entry: value.split(",")) {
+                String[] pair = entry.split("=", 2);
+
+                if(pair.length != 2)
+                    throw new IllegalArgumentException("Malformed mix entry: " + entry);
+
+                mix.put(InteractionKind.fromKey(pair[0].trim()), Integer.parseInt(pair[1].trim()));
+            }
+
+            if(mix.values().stream().mapToInt(Integer::intValue).sum() <= 0)
+                throw new IllegalArgumentException("The mix must have a positive weight");
+
+            return mix;
+        }
+    }
+
+    /**
+     * Points JDA at the fake gateway instead of asking Discord for its URL.
+     */
+    private static class FakeSessionController extends SessionControllerAdapter {
+        private final String gateway;
+
+        private FakeSessionController(@NonNull String gateway) {
+            this.gateway = gateway;
+        }
+
+        @Override
+        @NonNull
+        public String getGateway() {
+            return gateway;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options;
+
+        if(Arrays.asList(args).contains("--help")) {
+            System.out.print(USAGE);
+            return;
+        }
+
+        try {
+            options = Options.parse(args);
+        } catch(IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(1);
+            return;
+        }
+
+        run(options);
+    }
+
+    /**
+     * Starts the fake Discord and the bot, runs the load and prints the results.
+     * @param options The options of the load test
+     * @throws Exception If the fake Discord or the bot could not be started
+     */
+    public static void run(@NonNull Options options) throws Exception {
+        InteractionTracker tracker = new InteractionTracker();
+        SyntheticInteractions interactions = new SyntheticInteractions(options.users());
+        ExecutorService commandExecutor = Executors.newCachedThreadPool();
+        Path dataFile = Files.createTempFile("coffeecore-loadtest", ".json");
+
+        try(
+                FakeGateway gateway = new FakeGateway(
+                        SyntheticInteractions.createSelfUser(),
+                        SyntheticInteractions.BOT_ID
+                );
+                FakeRestServer rest = new FakeRestServer(
+                        tracker,
+                        interactions,
+                        options.restLatency(),
+                        options.restJitter(),
+                        options.rateLimitChance(),
+                        options.retryAfterSeconds()
+                );
+                BenchmarkDataHandler dataHandler = new BenchmarkDataHandler(dataFile)
+        ) {
+            JDA jda = JDABuilder.createLight("load-test")
+                    .setRestConfig(new RestConfig().setBaseUrl(rest.getBaseUrl()))
+                    .setSessionController(new FakeSessionController(gateway.getUrl()))
+                    .setCompression(Compression.NONE)
+                    .build();
+            CommandsHandler commandsHandler = new CommandsHandler(commandExecutor);
+            DefaultCommandMetrics metrics = new DefaultCommandMetrics();
+            CoffeeCore core;
+
+            commandsHandler.setHandleInteractionError(e -> {
+                tracker.failed();
+                return null;
+            });
+            commandsHandler.setMetrics(metrics);
+            core = new CoffeeCore(
+                    new BotSettings(0, dataFile.toString(), true, false),
+                    jda,
+                    dataHandler,
+                    commandsHandler
+            );
+            core.registerCommands(LoadTestCommands.create(options.deferReplies()).toArray(new BotCommand<?, ?>[0]));
+
+            System.out.printf(
+                    "Dispatching %.0f interactions/s for %ds after a %ds warmup%n",
+                    options.rate(),
+                    options.duration().toSeconds(),
+                    options.warmup().toSeconds()
+            );
+            generateLoad(options, gateway, interactions, tracker);
+            awaitResponses(tracker, Duration.ofSeconds(options.retryAfterSeconds() * 3 + 10));
+            tracker.printReport(System.out);
+            printMetrics(metrics, System.out);
+
+            core.shutdown(Duration.ZERO);
+        } finally {
+            commandExecutor.shutdownNow();
+            Files.deleteIfExists(dataFile);
+        }
+    }
+
+    /**
+     * Dispatches the interactions at the rate until the warmup and the measurement are over.
+     */
+    private static void generateLoad(
+            @NonNull Options options,
+            @NonNull FakeGateway gateway,
+            @NonNull SyntheticInteractions interactions,
+            @NonNull InteractionTracker tracker
+    ) throws IOException {
+        SplittableRandom random = new SplittableRandom();
+        InteractionKind[] kinds = createPicker(options.mix());
+        double period = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long start = System.nanoTime();
+        long measurementStart = start + options.warmup().toNanos();
+        long end = measurementStart + options.duration().toNanos();
+
+        for(long i = 0; ; i++) {
+            long scheduled = start + (long) (i * period);
+            long delay = scheduled - System.nanoTime();
+            InteractionKind kind = kinds[random.nextInt(kinds.length)];
+
+            if(scheduled >= end)
+                break;
+            if(scheduled >= measurementStart)
+                tracker.startMeasuring();
+            if(delay > 0)
+                LockSupport.parkNanos(delay);
+
+            var interaction = interactions.create(kind, random.nextInt(options.users()));
+
+            tracker.dispatched(interaction.token(), kind, interaction.channelId(), scheduled);
+            gateway.dispatch("INTERACTION_CREATE", interaction.payload());
+        }
+    }
+
+    /**
+     * Repeats each kind of interaction as many times as its weight, so a uniform pick follows the mix.
+     */
+    @NonNull
+    private static InteractionKind[] createPicker(@NonNull Map<InteractionKind, Integer> mix) {
+        return mix.entrySet().stream()
+                .flatMap(entry -> Collections.nCopies(Math.max(0, entry.getValue()), entry.getKey()).stream())
+                .toArray(InteractionKind[]::new);
+    }
+
+    /**
+     * Prints what {@link CommandsHandler} measured of each command, including the warmup.
+     */
+    private static void printMetrics(@NonNull DefaultCommandMetrics metrics, @NonNull PrintStream out) {
+        out.printf(
+                "%n%-16s %9s %6s %7s | %-17s | %-17s | %-17s | %-17s%n",
+                "command", "calls", "errors", "limited",
+                "queue p50 / p99", "run p50 / p99", "reply p50 / p99", "hooks p50 / p99"
+        );
+
+        for(CommandMetricsSnapshot command: metrics.snapshot()) {
+            out.printf(
+                    "%-16s %9d %6d %7d | %-17s | %-17s | %-17s | %-17s%n",
+                    command.command(),
+                    command.invocations(),
+                    command.errors(),
+                    command.ratelimited(),
+                    formatMetric(command.queueWait()),
+                    formatMetric(command.execution()),
+                    formatMetric(command.reply()),
+                    formatMetric(command.preExecutionHooks())
+            );
+        }
+    }
+
+    @NonNull
+    private static String formatMetric(@NonNull HistogramSnapshot histogram) {
+        if(histogram.getCount() == 0)
+            return "-";
+
+        return String.format(
+                "%7.2f / %7.2f",
+                histogram.getValueAtPercentile(50) / (double) TimeUnit.MILLISECONDS.toNanos(1),
+                histogram.getValueAtPercentile(99) / (double) TimeUnit.MILLISECONDS.toNanos(1)
+        );
+    }
+
+    private static void awaitResponses(@NonNull InteractionTracker tracker, @NonNull Duration timeout)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        while(tracker.getPendingCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+}
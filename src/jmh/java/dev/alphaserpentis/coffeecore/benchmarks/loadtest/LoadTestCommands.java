@@ -0,0 +1,140 @@
+package dev.alphaserpentis.coffeecore.benchmarks.loadtest;
+
+import dev.alphaserpentis.coffeecore.commands.BotCommand;
+import dev.alphaserpentis.coffeecore.commands.ButtonCommand;
+import dev.alphaserpentis.coffeecore.commands.ModalCommand;
+import dev.alphaserpentis.coffeecore.data.bot.CommandResponse;
+import dev.alphaserpentis.coffeecore.handler.api.discord.commands.ComponentRouter;
+import io.reactivex.rxjava3.annotations.NonNull;
+import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.GenericCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.MessageContextInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.UserContextInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.components.ItemComponent;
+import net.dv8tion.jda.api.interactions.components.buttons.ButtonStyle;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The commands the load test's interactions are handled by. They reply with short text right away, so the latencies
+ * are those of CoffeeCore, JDA and the simulated REST API rather than of the commands.
+ */
+public final class LoadTestCommands {
+    public static final String SLASH_NAME = "load";
+    public static final String USER_CONTEXT_NAME = "Inspect user";
+    public static final String MESSAGE_CONTEXT_NAME = "Inspect message";
+    /**
+     * The ID of the button that {@link SlashCommand} adds to its replies.
+     */
+    public static final String BUTTON_ID = ComponentRouter.encode(SLASH_NAME, "press");
+    /**
+     * The ID of the modal handled by {@link SlashCommand}.
+     */
+    public static final String MODAL_ID = ComponentRouter.encode(SLASH_NAME, "form");
+    private static final long FIRST_COMMAND_ID = 500000000000000000L;
+
+    private LoadTestCommands() {}
+
+    /**
+     * Creates the commands.
+     * @param deferReplies Whether the commands defer their replies
+     * @return The commands
+     */
+    @NonNull
+    public static List<BotCommand<?, ?>> create(boolean deferReplies) {
+        return List.of(
+                new SlashCommand(deferReplies),
+                new ContextCommand<UserContextInteractionEvent>(USER_CONTEXT_NAME, Command.Type.USER, deferReplies),
+                new ContextCommand<MessageContextInteractionEvent>(
+                        MESSAGE_CONTEXT_NAME,
+                        Command.Type.MESSAGE,
+                        deferReplies
+                )
+        );
+    }
+
+    /**
+     * Gets the ID the fake REST server registers a command under.
+     * @param name The name of the command
+     * @return The ID of the command
+     */
+    public static long commandId(@NonNull String name) {
+        return switch(name) {
+            case SLASH_NAME -> FIRST_COMMAND_ID + 1;
+            case USER_CONTEXT_NAME -> FIRST_COMMAND_ID + 2;
+            case MESSAGE_CONTEXT_NAME -> FIRST_COMMAND_ID + 3;
+            default -> FIRST_COMMAND_ID + 1000 + (name.hashCode() & 0xFFFF);
+        };
+    }
+
+    /**
+     * A slash command whose replies have a button, and that handles a modal.
+     */
+    public static class SlashCommand extends ButtonCommand<String, SlashCommandInteractionEvent>
+            implements ModalCommand {
+        public SlashCommand(boolean deferReplies) {
+            super(
+                    new BotCommandOptions()
+                            .setName(SLASH_NAME)
+                            .setDescription("Replies as fast as it can")
+                            .setDeferReplies(deferReplies)
+                            .setUseDefaultHooks(false)
+            );
+
+            addButton("press", ButtonStyle.PRIMARY, "Press", false);
+        }
+
+        @Override
+        @NonNull
+        public CommandResponse<String> runCommand(long userId, @NonNull SlashCommandInteractionEvent event) {
+            return new CommandResponse<>(false, "Loaded");
+        }
+
+        @Override
+        @NonNull
+        public Collection<ItemComponent> addButtonsToMessage(@NonNull SlashCommandInteractionEvent event) {
+            return List.of(getButtonHashMap().get("press"));
+        }
+
+        @Override
+        @NonNull
+        public Optional<?> runButtonInteraction(@NonNull ButtonInteractionEvent event) {
+            event.reply("Pressed").queue();
+            return Optional.empty();
+        }
+
+        @Override
+        @NonNull
+        public Optional<?> runModalInteraction(@NonNull ModalInteractionEvent event) {
+            event.reply("Submitted").queue();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * A user or message context menu command.
+     * @param <E> The type of event that triggers the command
+     */
+    public static class ContextCommand<E extends GenericCommandInteractionEvent> extends BotCommand<String, E> {
+        public ContextCommand(@NonNull String name, @NonNull Command.Type type, boolean deferReplies) {
+            super(
+                    new BotCommandOptions()
+                            .setName(name)
+                            .setCommandType(type)
+                            .setDeferReplies(deferReplies)
+                            .setUseDefaultHooks(false)
+            );
+        }
+
+        @Override
+        @NonNull
+        public CommandResponse<String> runCommand(long userId, @NonNull E event) {
+            return new CommandResponse<>(false, "Inspected");
+        }
+    }
+}
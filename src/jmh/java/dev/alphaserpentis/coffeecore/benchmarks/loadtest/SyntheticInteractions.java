@@ -0,0 +1,231 @@
+package dev.alphaserpentis.coffeecore.benchmarks.loadtest;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import io.reactivex.rxjava3.annotations.NonNull;
+import net.dv8tion.jda.api.utils.TimeUtil;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds the gateway payloads of the interactions, and the REST payloads of the entities they reference. Every
+ * interaction happens in the direct messages of one of a fixed amount of users, so JDA does not need any guilds in its
+ * cache to handle them.
+ */
+public class SyntheticInteractions {
+    /**
+     * The ID the bot's user and application share.
+     */
+    public static final long BOT_ID = 100000000000000001L;
+    private static final long FIRST_USER_ID = 200000000000000000L;
+    private static final long FIRST_CHANNEL_ID = 300000000000000000L;
+    /**
+     * The bits of a snowflake below its timestamp.
+     */
+    private static final long SNOWFLAKE_SEQUENCE_MASK = (1L << TimeUtil.TIMESTAMP_OFFSET) - 1;
+    private static final int INTERACTION_APPLICATION_COMMAND = 2;
+    private static final int INTERACTION_MESSAGE_COMPONENT = 3;
+    private static final int INTERACTION_MODAL_SUBMIT = 5;
+    private static final int COMMAND_SLASH = 1;
+    private static final int COMMAND_USER = 2;
+    private static final int COMMAND_MESSAGE = 3;
+    private static final int COMPONENT_BUTTON = 2;
+    private static final int CHANNEL_DM = 1;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final int users;
+
+    /**
+     * An interaction ready to be dispatched.
+     * @param token The token of the interaction
+     * @param channelId The ID of the channel the interaction happened in
+     * @param payload The data of the {@code INTERACTION_CREATE} event
+     */
+    public record Interaction(@NonNull String token, long channelId, @NonNull JsonObject payload) {}
+
+    /**
+     * @param users The amount of users the interactions are spread across
+     */
+    public SyntheticInteractions(int users) {
+        if(users <= 0)
+            throw new IllegalArgumentException("There must be at least one user");
+
+        this.users = users;
+    }
+
+    /**
+     * Creates the user object of the bot.
+     * @return The user object
+     */
+    @NonNull
+    public static JsonObject createSelfUser() {
+        JsonObject user = createUser(BOT_ID, "coffeecore");
+
+        user.addProperty("bot", true);
+        user.addProperty("verified", true);
+        user.addProperty("mfa_enabled", false);
+        return user;
+    }
+
+    /**
+     * Creates a message sent by the bot, as returned by the REST API.
+     * @param channelId The ID of the channel the message is in
+     * @param content The content of the message
+     * @return The message object
+     */
+    @NonNull
+    public JsonObject createBotMessage(long channelId, @NonNull String content) {
+        return createMessage(nextSnowflake(), channelId, createSelfUser(), content);
+    }
+
+    /**
+     * Creates an interaction of one of the commands of {@link LoadTestCommands}.
+     * @param kind The kind of interaction
+     * @param userIndex The user the interaction comes from, below the amount of users
+     * @return The interaction
+     */
+    @NonNull
+    public Interaction create(@NonNull InteractionKind kind, int userIndex) {
+        long id = nextSnowflake();
+        long userId = FIRST_USER_ID + Math.floorMod(userIndex, users);
+        long channelId = FIRST_CHANNEL_ID + Math.floorMod(userIndex, users);
+        String token = "token-" + id;
+        JsonObject user = createUser(userId, "user" + userId);
+        JsonObject channel = new JsonObject();
+        JsonObject payload = new JsonObject();
+
+        channel.addProperty("id", Long.toUnsignedString(channelId));
+        channel.addProperty("type", CHANNEL_DM);
+
+        payload.addProperty("id", Long.toUnsignedString(id));
+        payload.addProperty("application_id", Long.toUnsignedString(BOT_ID));
+        payload.addProperty("token", token);
+        payload.addProperty("version", 1);
+        payload.addProperty("channel_id", Long.toUnsignedString(channelId));
+        payload.add("channel", channel);
+        payload.add("user", user);
+        payload.addProperty("locale", "en-US");
+        payload.addProperty("app_permissions", "0");
+        payload.add("entitlements", new JsonArray());
+
+        switch(kind) {
+            case SLASH -> {
+                payload.addProperty("type", INTERACTION_APPLICATION_COMMAND);
+                payload.add("data", createCommandData(LoadTestCommands.SLASH_NAME, COMMAND_SLASH));
+            }
+            case USER_CONTEXT -> {
+                JsonObject data = createCommandData(LoadTestCommands.USER_CONTEXT_NAME, COMMAND_USER);
+                JsonObject resolvedUsers = new JsonObject();
+
+                resolvedUsers.add(Long.toUnsignedString(userId), user);
+                data.addProperty("target_id", Long.toUnsignedString(userId));
+                data.add("resolved", resolved("users", resolvedUsers));
+                payload.addProperty("type", INTERACTION_APPLICATION_COMMAND);
+                payload.add("data", data);
+            }
+            case MESSAGE_CONTEXT -> {
+                JsonObject data = createCommandData(LoadTestCommands.MESSAGE_CONTEXT_NAME, COMMAND_MESSAGE);
+                JsonObject resolvedMessages = new JsonObject();
+                long messageId = nextSnowflake();
+
+                resolvedMessages.add(
+                        Long.toUnsignedString(messageId),
+                        createMessage(messageId, channelId, user, "Inspect me")
+                );
+                data.addProperty("target_id", Long.toUnsignedString(messageId));
+                data.add("resolved", resolved("messages", resolvedMessages));
+                payload.addProperty("type", INTERACTION_APPLICATION_COMMAND);
+                payload.add("data", data);
+            }
+            case BUTTON -> {
+                JsonObject data = new JsonObject();
+
+                data.addProperty("custom_id", LoadTestCommands.BUTTON_ID);
+                data.addProperty("component_type", COMPONENT_BUTTON);
+                payload.addProperty("type", INTERACTION_MESSAGE_COMPONENT);
+                payload.add("data", data);
+                payload.add("message", createBotMessage(channelId, "A message with a button"));
+            }
+            case MODAL -> {
+                JsonObject data = new JsonObject();
+
+                data.addProperty("custom_id", LoadTestCommands.MODAL_ID);
+                data.add("components", new JsonArray());
+                payload.addProperty("type", INTERACTION_MODAL_SUBMIT);
+                payload.add("data", data);
+            }
+        }
+
+        return new Interaction(token, channelId, payload);
+    }
+
+    /**
+     * Creates a snowflake of the current time, as JDA expires interactions based on the time of their ID.
+     */
+    private long nextSnowflake() {
+        return TimeUtil.getDiscordTimestamp(System.currentTimeMillis())
+                | (sequence.incrementAndGet() & SNOWFLAKE_SEQUENCE_MASK);
+    }
+
+    @NonNull
+    private static JsonObject createCommandData(@NonNull String name, int type) {
+        JsonObject data = new JsonObject();
+
+        data.addProperty("id", Long.toUnsignedString(LoadTestCommands.commandId(name)));
+        data.addProperty("name", name);
+        data.addProperty("type", type);
+        return data;
+    }
+
+    @NonNull
+    private static JsonObject resolved(@NonNull String key, @NonNull JsonObject entities) {
+        JsonObject resolved = new JsonObject();
+
+        resolved.add(key, entities);
+        return resolved;
+    }
+
+    @NonNull
+    private static JsonObject createUser(long id, @NonNull String name) {
+        JsonObject user = new JsonObject();
+
+        user.addProperty("id", Long.toUnsignedString(id));
+        user.addProperty("username", name);
+        user.addProperty("discriminator", "0");
+        user.add("global_name", JsonNull.INSTANCE);
+        user.add("avatar", JsonNull.INSTANCE);
+        user.addProperty("bot", false);
+        user.addProperty("public_flags", 0);
+        return user;
+    }
+
+    @NonNull
+    private static JsonObject createMessage(
+            long id,
+            long channelId,
+            @NonNull JsonObject author,
+            @NonNull String content
+    ) {
+        JsonObject message = new JsonObject();
+
+        message.addProperty("id", Long.toUnsignedString(id));
+        message.addProperty("channel_id", Long.toUnsignedString(channelId));
+        message.addProperty("type", 0);
+        message.addProperty("content", content);
+        message.add("author", author);
+        message.addProperty("timestamp", Instant.now().toString());
+        message.add("edited_timestamp", JsonNull.INSTANCE);
+        message.addProperty("tts", false);
+        message.addProperty("mention_everyone", false);
+        message.add("mentions", new JsonArray());
+        message.add("mention_roles", new JsonArray());
+        message.add("attachments", new JsonArray());
+        message.add("embeds", new JsonArray());
+        message.add("components", new JsonArray());
+        message.addProperty("pinned", false);
+        message.addProperty("flags", 0);
+        return message;
+    }
+}
@@ -0,0 +1,346 @@
+package dev.alphaserpentis.coffeecore.benchmarks.persistence;
+
+import com.google.gson.Gson;
+import dev.alphaserpentis.coffeecore.benchmarks.support.SyntheticEntities;
+import dev.alphaserpentis.coffeecore.data.entity.EntityData;
+import dev.alphaserpentis.coffeecore.persistence.BinarySnapshotPersistence;
+import dev.alphaserpentis.coffeecore.persistence.MappedEntityMap;
+import dev.alphaserpentis.coffeecore.persistence.WriteAheadLogPersistence;
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Checks that the entity data storage backends read back what they wrote, including after the crashes they are meant
+ * to survive. Each check writes synthetic entities into a temporary directory, reloads them with a new backend, and
+ * compares them to the entities that were written.
+ * <p>
+ * Run it from the benchmarks jar. It exits with a non-zero status if a check fails:
+ * <pre>
+ * java -cp target/benchmarks/benchmarks.jar dev.alphaserpentis.coffeecore.benchmarks.persistence.PersistenceCheck
+ * </pre>
+ */
+public class PersistenceCheck {
+    private static final Gson gson = new Gson();
+    private static final int ENTITIES_PER_TYPE = 500;
+    private static final long SEED = 42;
+
+    private PersistenceCheck() {}
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("coffeecore-persistence");
+
+        try {
+            run("WAL round trip", () -> checkLogRoundTrip(directory.resolve("wal-round-trip")));
+            run("WAL torn record", () -> checkTornLogRecord(directory.resolve("wal-torn")));
+            run("WAL stale log after compaction", () -> checkStaleLog(directory.resolve("wal-stale")));
+            run("Snapshot round trip", () -> checkSnapshotRoundTrip(directory.resolve("snapshot-round-trip")));
+            run("Snapshot removal and rebind", () -> checkSnapshotRemoval(directory.resolve("snapshot-removal")));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        void run() throws IOException;
+    }
+
+    private static void run(@NonNull String name, @NonNull Check check) throws IOException {
+        try {
+            check.run();
+            System.out.println("PASS " + name);
+        } catch(IllegalStateException e) {
+            System.out.println("FAIL " + name + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compacts entities into the snapshot, appends changes, removals and new entities to the log, and reloads them.
+     */
+    private static void checkLogRoundTrip(@NonNull Path directory) throws IOException {
+        Map<String, Map<Long, EntityData>> expected = writeLog(directory);
+        WriteAheadLogPersistence<EntityData> wal = openLog(directory);
+        Map<String, Map<Long, EntityData>> loaded = wal.load(SyntheticEntities.CUSTOM_TYPES);
+
+        try {
+            check(wal.getLogRecords() > 0, "the appended changes were compacted instead of logged");
+            assertSameEntities(expected, loaded);
+        } finally {
+            wal.close();
+        }
+    }
+
+    /**
+     * Tears the last record of the log, as a crash while appending would, and checks that only that record is lost
+     * and that the next flush compacts the log.
+     */
+    private static void checkTornLogRecord(@NonNull Path directory) throws IOException {
+        Map<String, Map<Long, EntityData>> expected = writeLog(directory);
+        WriteAheadLogPersistence<EntityData> wal = openLog(directory);
+        Map<String, Map<Long, EntityData>> loaded;
+        long id = firstId(expected, "guild");
+
+        Files.writeString(
+                wal.getLogPath(),
+                "{\"type\":\"guild\",\"id\":" + id + ",\"da",
+                StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND
+        );
+        loaded = wal.load(SyntheticEntities.CUSTOM_TYPES);
+
+        try {
+            assertSameEntities(expected, loaded);
+
+            loaded.get("guild").remove(id);
+            expected.get("guild").remove(id);
+            wal.flush(loaded, Map.of("guild", Set.of(id)));
+            check(wal.getLogRecords() == 0, "the log was appended to after a torn record instead of compacted");
+        } finally {
+            wal.close();
+        }
+
+        wal = openLog(directory);
+
+        try {
+            assertSameEntities(expected, wal.load(SyntheticEntities.CUSTOM_TYPES));
+        } finally {
+            wal.close();
+        }
+    }
+
+    /**
+     * Restores the log of the previous generation after a compaction, as a crash between writing the snapshot and
+     * emptying the log would, and checks that the stale log is not replayed over the newer snapshot.
+     */
+    private static void checkStaleLog(@NonNull Path directory) throws IOException {
+        Map<String, Map<Long, EntityData>> expected = writeLog(directory);
+        WriteAheadLogPersistence<EntityData> wal = openLog(directory);
+        Map<String, Map<Long, EntityData>> loaded = wal.load(SyntheticEntities.CUSTOM_TYPES);
+        long id = firstId(expected, "user");
+        byte[] staleLog;
+
+        try {
+            // The stale log holds the user, which is then removed before the compaction
+            wal.flush(loaded, Map.of("user", Set.of(id)));
+            staleLog = Files.readAllBytes(wal.getLogPath());
+
+            loaded.get("user").remove(id);
+            expected.get("user").remove(id);
+            wal.compact(loaded);
+        } finally {
+            wal.close();
+        }
+
+        Files.write(wal.getLogPath(), staleLog);
+        wal = openLog(directory);
+
+        try {
+            assertSameEntities(expected, wal.load(SyntheticEntities.CUSTOM_TYPES));
+        } finally {
+            wal.close();
+        }
+    }
+
+    /**
+     * Writes entities into a snapshot, reloads them without decoding them, and rewrites the snapshot with changes,
+     * removals and new entities.
+     */
+    private static void checkSnapshotRoundTrip(@NonNull Path directory) throws IOException {
+        Map<String, Map<Long, EntityData>> expected = writeSnapshot(directory);
+        BinarySnapshotPersistence<EntityData> snapshot = openSnapshot(directory);
+        Map<String, Map<Long, EntityData>> loaded = snapshot.load(SyntheticEntities.CUSTOM_TYPES);
+
+        for(Map<Long, EntityData> entities: loaded.values()) {
+            check(((MappedEntityMap<EntityData>) entities).getDecodedCount() == 0, "entities were decoded on load");
+        }
+
+        assertSameEntities(expected, loaded);
+        snapshot.flush(loaded, change(loaded, expected));
+        assertSameEntities(expected, openSnapshot(directory).load(SyntheticEntities.CUSTOM_TYPES));
+    }
+
+    /**
+     * Removes an entity that was never decoded from the snapshot, and checks that the map stays consistent once the
+     * flush moved it onto the rewritten snapshot.
+     */
+    private static void checkSnapshotRemoval(@NonNull Path directory) throws IOException {
+        Map<String, Map<Long, EntityData>> expected = writeSnapshot(directory);
+        BinarySnapshotPersistence<EntityData> snapshot = openSnapshot(directory);
+        Map<String, Map<Long, EntityData>> loaded = snapshot.load(SyntheticEntities.CUSTOM_TYPES);
+        MappedEntityMap<EntityData> guilds = (MappedEntityMap<EntityData>) loaded.get("guild");
+        long id = firstId(expected, "guild");
+
+        check(guilds.getDecodedCount() == 0, "entities were decoded on load");
+        guilds.remove(id);
+        expected.get("guild").remove(id);
+        snapshot.flush(loaded, Map.of("guild", Set.of(id)));
+
+        check(!guilds.containsKey(id), "the removed entity is back after the rebind");
+        check(
+                Arrays.stream(guilds.keys()).noneMatch(key -> key == id),
+                "the removed entity is still listed after the rebind"
+        );
+        check(
+                guilds.size() == expected.get("guild").size(),
+                "the map holds " + guilds.size() + " entities after the rebind instead of "
+                        + expected.get("guild").size()
+        );
+        assertSameEntities(expected, loaded);
+        assertSameEntities(expected, openSnapshot(directory).load(SyntheticEntities.CUSTOM_TYPES));
+    }
+
+    /**
+     * Writes synthetic entities into a snapshot.
+     * @return The entities that were written
+     */
+    @NonNull
+    private static Map<String, Map<Long, EntityData>> writeSnapshot(@NonNull Path directory) throws IOException {
+        Map<String, Map<Long, EntityData>> expected = SyntheticEntities.generate(ENTITIES_PER_TYPE, true, SEED);
+        BinarySnapshotPersistence<EntityData> snapshot = openSnapshot(directory);
+        Map<String, Map<Long, EntityData>> data = snapshot.load(SyntheticEntities.CUSTOM_TYPES);
+
+        expected.forEach((type, entities) -> data.get(type).putAll(entities));
+        snapshot.flush(data, null);
+
+        return expected;
+    }
+
+    @NonNull
+    private static BinarySnapshotPersistence<EntityData> openSnapshot(@NonNull Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return new BinarySnapshotPersistence<>(directory.resolve("entities.bin"));
+    }
+
+    /**
+     * Compacts synthetic entities into a snapshot, then logs changes to some of them, removals of others, and new
+     * entities.
+     * @return The entities that were written
+     */
+    @NonNull
+    private static Map<String, Map<Long, EntityData>> writeLog(@NonNull Path directory) throws IOException {
+        Map<String, Map<Long, EntityData>> expected = SyntheticEntities.generate(ENTITIES_PER_TYPE, true, SEED);
+        WriteAheadLogPersistence<EntityData> wal = openLog(directory);
+        Map<String, Map<Long, EntityData>> data = wal.load(SyntheticEntities.CUSTOM_TYPES);
+
+        try {
+            expected.forEach((type, entities) -> data.get(type).putAll(entities));
+            wal.flush(data, null);
+            wal.flush(data, change(data, expected));
+        } finally {
+            wal.close();
+        }
+
+        return expected;
+    }
+
+    @NonNull
+    private static WriteAheadLogPersistence<EntityData> openLog(@NonNull Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return new WriteAheadLogPersistence<>(directory.resolve("entities.jsonl"));
+    }
+
+    /**
+     * Replaces, removes and adds entities of every type, applying the same changes to the expected entities.
+     * @return The IDs of the changed entities mapped by entity type ID
+     */
+    @NonNull
+    private static Map<String, Set<Long>> change(
+            @NonNull Map<String, Map<Long, EntityData>> data,
+            @NonNull Map<String, Map<Long, EntityData>> expected
+    ) {
+        Map<String, Map<Long, EntityData>> added = SyntheticEntities.generate(ENTITIES_PER_TYPE / 10, true, SEED + 1);
+        Map<String, Set<Long>> changed = new HashMap<>();
+
+        for(String type: expected.keySet()) {
+            Set<Long> ids = new HashSet<>();
+            Iterator<Long> existing = new HashSet<>(expected.get(type).keySet()).iterator();
+            Iterator<EntityData> replacements = added.get(type).values().iterator();
+
+            for(int i = 0; i < ENTITIES_PER_TYPE / 10; i++) {
+                long replacedId = existing.next();
+                long removedId = existing.next();
+                EntityData replacement = replacements.next();
+
+                data.get(type).put(replacedId, replacement);
+                expected.get(type).put(replacedId, replacement);
+                data.get(type).remove(removedId);
+                expected.get(type).remove(removedId);
+                ids.add(replacedId);
+                ids.add(removedId);
+            }
+
+            added.get(type).forEach((id, entity) -> {
+                data.get(type).put(id, entity);
+                expected.get(type).put(id, entity);
+                ids.add(id);
+            });
+            changed.put(type, ids);
+        }
+
+        return changed;
+    }
+
+    private static long firstId(@NonNull Map<String, Map<Long, EntityData>> data, @NonNull String type) {
+        return data.get(type).keySet().iterator().next();
+    }
+
+    /**
+     * Compares the entities by their JSON, as entity data does not implement {@code equals}.
+     */
+    private static void assertSameEntities(
+            @NonNull Map<String, Map<Long, EntityData>> expected,
+            @NonNull Map<String, Map<Long, EntityData>> actual
+    ) {
+        for(Map.Entry<String, Map<Long, EntityData>> entry: expected.entrySet()) {
+            Map<Long, String> expectedJson = toJson(entry.getValue());
+            Map<Long, String> actualJson = toJson(actual.getOrDefault(entry.getKey(), Map.of()));
+
+            check(
+                    expectedJson.size() == actualJson.size(),
+                    "expected " + expectedJson.size() + " entities of " + entry.getKey() + " but got "
+                            + actualJson.size()
+            );
+
+            expectedJson.forEach((id, json) -> check(
+                    json.equals(actualJson.get(id)),
+                    "entity " + id + " of " + entry.getKey() + " is " + actualJson.get(id) + " instead of " + json
+            ));
+        }
+    }
+
+    @NonNull
+    private static Map<Long, String> toJson(@NonNull Map<Long, EntityData> entities) {
+        Map<Long, String> json = new TreeMap<>();
+
+        entities.forEach((id, entity) -> json.put(id, gson.toJson(entity, entity.getClass())));
+        return json;
+    }
+
+    private static void check(boolean condition, @NonNull String message) {
+        if(!condition)
+            throw new IllegalStateException(message);
+    }
+
+    private static void delete(@NonNull Path directory) throws IOException {
+        try(Stream<Path> paths = Files.walk(directory)) {
+            for(Path path: paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package dev.alphaserpentis.coffeecore.benchmarks.support;
+
+import dev.alphaserpentis.coffeecore.commands.BotCommand;
+import dev.alphaserpentis.coffeecore.core.CoffeeCore;
+import dev.alphaserpentis.coffeecore.data.bot.BotSettings;
+import dev.alphaserpentis.coffeecore.handler.api.discord.commands.CommandsHandler;
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.interaction.command.GenericCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.requests.restaction.WebhookMessageCreateAction;
+import net.dv8tion.jda.api.requests.restaction.interactions.ReplyCallbackAction;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link CoffeeCore} running on stubbed JDA objects. Replies complete immediately and interactions run on the calling
+ * thread, so a benchmark measures the work CoffeeCore does for an interaction rather than Discord or thread hand-offs.
+ */
+public class BenchmarkBot implements AutoCloseable {
+    public static final long USER_ID = 123456789012345678L;
+    public static final long GUILD_ID = 876543210987654321L;
+
+    private final Path dataFile;
+    private final JDA jda;
+    private final BenchmarkDataHandler dataHandler;
+    private final BenchmarkCommandsHandler commandsHandler;
+    private final CoffeeCore core;
+
+    /**
+     * A {@link CommandsHandler} that exposes the post-execution hooks to the benchmarks and remembers the first
+     * interaction that failed, as failures would otherwise be benchmarked as fast replies.
+     */
+    public static class BenchmarkCommandsHandler extends CommandsHandler {
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        public BenchmarkCommandsHandler() {
+            super(new DirectExecutorService());
+            setHandleInteractionError(e -> failure.compareAndSet(null, e));
+        }
+
+        public void postExecutionHooks(
+                @NonNull BotCommand<?, ?> cmd,
+                @NonNull GenericCommandInteractionEvent event,
+                @Nullable Message msg
+        ) {
+            executePostExecutionHook(cmd, event, msg);
+        }
+
+        @Nullable
+        public Throwable getFailure() {
+            return failure.get();
+        }
+    }
+
+    /**
+     * Runs tasks on the thread that submits them.
+     */
+    private static class DirectExecutorService extends AbstractExecutorService {
+        private volatile boolean shutdown = false;
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        @NonNull
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) {
+            return shutdown;
+        }
+    }
+
+    /**
+     * Creates the bot with the commands registered to it.
+     * @param commands The commands
+     * @throws IOException If the entity data file could not be created
+     */
+    public BenchmarkBot(@NonNull BotCommand<?, ?>... commands) throws IOException {
+        HashMap<String, BotCommand<?, ?>> mapOfCommands = new HashMap<>();
+
+        dataFile = Files.createTempFile("coffeecore-benchmark", ".json");
+        jda = Stubs.stub(JDA.class, Map.of("getGuilds", args -> List.of()));
+        dataHandler = new BenchmarkDataHandler(dataFile);
+        commandsHandler = new BenchmarkCommandsHandler();
+        core = new CoffeeCore(
+                new BotSettings(0, dataFile.toString(), false, false),
+                jda,
+                dataHandler,
+                commandsHandler
+        );
+
+        for(BotCommand<?, ?> cmd: commands) {
+            cmd.setCore(core);
+            mapOfCommands.put(cmd.getName(), cmd);
+        }
+
+        // Without shards, the commands are only added to the registry and nothing is sent to Discord
+        commandsHandler.registerCommands(mapOfCommands, false, List.of(), false);
+    }
+
+    /**
+     * Creates a slash command interaction in a guild whose replies complete immediately.
+     * @param name The name of the command
+     * @return The event of the interaction
+     */
+    @NonNull
+    public SlashCommandInteractionEvent createSlashCommandEvent(@NonNull String name) {
+        User user = Stubs.stub(User.class, Map.of("getIdLong", args -> USER_ID));
+        Guild guild = Stubs.stub(Guild.class, Map.of("getIdLong", args -> GUILD_ID));
+        Message message = Stubs.stub(Message.class, Map.of(
+                "getIdLong", args -> 1L,
+                "getChannelIdLong", args -> 2L
+        ));
+        WebhookMessageCreateAction<?> followUp = Stubs.completedAction(WebhookMessageCreateAction.class, message);
+        InteractionHook hook = Stubs.stub(InteractionHook.class, Map.of(
+                "sendMessage", args -> followUp,
+                "sendMessageEmbeds", args -> followUp,
+                "retrieveOriginal", args -> Stubs.completedAction(RestAction.class, message)
+        ));
+        ReplyCallbackAction reply = Stubs.completedAction(ReplyCallbackAction.class, hook);
+        SlashCommandInteraction interaction = Stubs.stub(SlashCommandInteraction.class, Map.of(
+                "getName", args -> name,
+                "getUser", args -> user,
+                "getGuild", args -> guild,
+                "getHook", args -> hook,
+                "deferReply", args -> reply,
+                "reply", args -> reply,
+                "replyEmbeds", args -> reply
+        ));
+
+        return new SlashCommandInteractionEvent(jda, 0, interaction);
+    }
+
+    @NonNull
+    public CoffeeCore getCore() {
+        return core;
+    }
+
+    @NonNull
+    public BenchmarkCommandsHandler getCommandsHandler() {
+        return commandsHandler;
+    }
+
+    /**
+     * Shuts down the bot.
+     * @throws IllegalStateException If an interaction failed while the bot was running
+     */
+    @Override
+    public void close() throws Exception {
+        core.shutdown(Duration.ZERO);
+        dataHandler.close();
+        Files.deleteIfExists(dataFile);
+
+        if(commandsHandler.getFailure() != null)
+            throw new IllegalStateException("An interaction failed", commandsHandler.getFailure());
+    }
+}
@@ -0,0 +1,109 @@
+package dev.alphaserpentis.coffeecore.benchmarks.support;
+
+import dev.alphaserpentis.coffeecore.commands.BotCommand;
+import dev.alphaserpentis.coffeecore.data.bot.CommandResponse;
+import dev.alphaserpentis.coffeecore.hook.CommandHook;
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.events.interaction.command.GenericCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.requests.restaction.WebhookMessageCreateAction;
+import net.dv8tion.jda.api.requests.restaction.interactions.ReplyCallbackAction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A slash command that replies with a pre-built embed, so benchmarks measure the framework rather than the command.
+ * Exposes the protected steps of {@link BotCommand} to the benchmarks.
+ */
+public class BenchmarkCommand extends BotCommand<MessageEmbed, SlashCommandInteractionEvent> {
+    private static final MessageEmbed RESPONSE = new EmbedBuilder()
+            .setTitle("Benchmark")
+            .setDescription("A response that is built once")
+            .build();
+
+    /**
+     * A hook that does nothing, so benchmarks measure the cost of running the hook chains.
+     */
+    public static class NoOpHook extends CommandHook {
+        public NoOpHook(@NonNull Type type) {
+            super(type);
+        }
+
+        @Override
+        @NonNull
+        public Optional<?> execute(
+                @NonNull BotCommand<?, ?> cmd,
+                @NonNull GenericCommandInteractionEvent event,
+                @Nullable Message msg
+        ) {
+            return Optional.empty();
+        }
+
+        @Override
+        public boolean isMessageRequired() {
+            return false;
+        }
+    }
+
+    /**
+     * Creates the command.
+     * @param name The name of the command
+     * @param deferReplies Whether the command defers its replies
+     * @param hooksPerType The amount of pre- and post-execution hooks each
+     */
+    public BenchmarkCommand(@NonNull String name, boolean deferReplies, int hooksPerType) {
+        super(
+                new BotCommandOptions()
+                        .setName(name)
+                        .setDescription("Benchmark command")
+                        .setOnlyEmbed(true)
+                        .setDeferReplies(deferReplies)
+                        .setUseDefaultHooks(false)
+                        .setHooks(createHooks(hooksPerType))
+        );
+    }
+
+    @Override
+    @NonNull
+    public CommandResponse<MessageEmbed> runCommand(long userId, @NonNull SlashCommandInteractionEvent event) {
+        return new CommandResponse<>(false, RESPONSE);
+    }
+
+    @NonNull
+    public ReplyCallbackAction nonDeferred(@NonNull SlashCommandInteractionEvent event) {
+        return processNonDeferredCommand(event);
+    }
+
+    @NonNull
+    public WebhookMessageCreateAction<?> deferred(@NonNull SlashCommandInteractionEvent event) {
+        return processDeferredCommand(event);
+    }
+
+    @Nullable
+    public CommandResponse<?> preExecutionHooks(@NonNull SlashCommandInteractionEvent event) {
+        return runPreExecutionHooks(event);
+    }
+
+    @NonNull
+    public MessageEmbed errorEmbed(@NonNull Exception e, long userId) {
+        return handleError(e, userId);
+    }
+
+    @NonNull
+    private static List<CommandHook> createHooks(int hooksPerType) {
+        List<CommandHook> hooks = new ArrayList<>();
+
+        for(int i = 0; i < hooksPerType; i++) {
+            hooks.add(new NoOpHook(CommandHook.Type.PRE_EXECUTION));
+            hooks.add(new NoOpHook(CommandHook.Type.POST_EXECUTION));
+        }
+
+        return hooks;
+    }
+}
@@ -0,0 +1,120 @@
+package dev.alphaserpentis.coffeecore.benchmarks.support;
+
+import com.google.gson.reflect.TypeToken;
+import dev.alphaserpentis.coffeecore.data.entity.EntityData;
+import dev.alphaserpentis.coffeecore.data.entity.EntityType;
+import dev.alphaserpentis.coffeecore.handler.api.discord.entities.DataHandler;
+import dev.alphaserpentis.coffeecore.persistence.EntityDataPersistence;
+import dev.alphaserpentis.coffeecore.serialization.EntityDataDeserializer;
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link DataHandler} that lets benchmarks flush on demand. Failed writes are thrown rather than ignored, so they are
+ * not measured as fast flushes.
+ */
+public class BenchmarkDataHandler extends DataHandler<EntityData> implements AutoCloseable {
+    private static final TypeToken<Map<String, Map<Long, EntityData>>> TYPE_TOKEN = new TypeToken<>() {};
+
+    /**
+     * A {@link BenchmarkDataHandler} of {@link SyntheticEntities#CUSTOM_TYPES}.
+     */
+    public static class Custom extends BenchmarkDataHandler {
+        public Custom(@NonNull Path path) throws IOException {
+            super(path);
+        }
+
+        public Custom(@NonNull Path path, @NonNull EntityDataDeserializer<EntityData> deserializer)
+                throws IOException {
+            super(path, deserializer);
+        }
+
+        public Custom(@NonNull Path path, @NonNull EntityDataPersistence<EntityData> persistence) throws IOException {
+            super(path, persistence);
+        }
+
+        // Called while DataHandler's constructor loads the entities, before the fields of this class are assigned
+        @Override
+        @NonNull
+        public List<EntityType> getEntityTypes() {
+            return SyntheticEntities.CUSTOM_TYPES;
+        }
+
+        @Override
+        @NonNull
+        public EntityData createNewEntityData(@NonNull String entityType) {
+            return switch(entityType) {
+                case "guild" -> new SyntheticEntities.SyntheticServerData();
+                case "user" -> new SyntheticEntities.SyntheticUserData();
+                default -> throw new IllegalArgumentException("Invalid entity type: " + entityType);
+            };
+        }
+    }
+
+    /**
+     * Loads the entity data file with {@link dev.alphaserpentis.coffeecore.serialization.EntityDataTypeAdapter}.
+     * @param path The path to the entity data file
+     * @throws IOException If the entity data file could not be read
+     */
+    public BenchmarkDataHandler(@NonNull Path path) throws IOException {
+        super(path);
+    }
+
+    /**
+     * Loads the entity data file with an {@link EntityDataDeserializer}.
+     * @param path The path to the entity data file
+     * @param deserializer The deserializer
+     * @throws IOException If the entity data file could not be read
+     */
+    public BenchmarkDataHandler(@NonNull Path path, @NonNull EntityDataDeserializer<EntityData> deserializer)
+            throws IOException {
+        super(path, TYPE_TOKEN, deserializer);
+    }
+
+    /**
+     * Loads the entity data from a storage backend.
+     * @param path The path to the entity data file
+     * @param persistence The storage backend
+     * @throws IOException If the entity data could not be read
+     */
+    public BenchmarkDataHandler(@NonNull Path path, @NonNull EntityDataPersistence<EntityData> persistence)
+            throws IOException {
+        super(path, persistence);
+    }
+
+    /**
+     * Writes the entity data the way a scheduled flush does, without waiting for the schedule.
+     * @param changedEntities The IDs of the changed entities mapped by entity type ID, or {@code null} to write
+     *                        everything. Ignored without a storage backend, which always writes everything.
+     * @throws IOException If the entity data could not be written
+     */
+    public void flush(@Nullable Map<String, Set<Long>> changedEntities) throws IOException {
+        if(persistence == null)
+            writeToJSON(entityDataHashMap);
+        else
+            persistence.flush(entityDataHashMap, changedEntities);
+    }
+
+    /**
+     * Stops the scheduled flushes, whose executor would otherwise keep the JVM alive, and closes the storage backend.
+     * @throws IOException If the storage backend could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if(executor != null)
+            executor.shutdownNow();
+        if(persistence != null)
+            persistence.close();
+    }
+
+    @Override
+    protected void handleEntityDataException(@NonNull Exception e) {
+        throw new IllegalStateException("Failed to write the entity data", e);
+    }
+}
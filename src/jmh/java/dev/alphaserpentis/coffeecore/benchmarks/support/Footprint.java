@@ -0,0 +1,84 @@
+package dev.alphaserpentis.coffeecore.benchmarks.support;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Measures the heap and disk footprint of an operation, which JMH does not report on its own.
+ */
+public final class Footprint {
+    private static final Path PROCESS_IO = Path.of("/proc/self/io");
+    private static final List<MemoryPoolMXBean> HEAP_POOLS = ManagementFactory.getMemoryPoolMXBeans()
+            .stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isValid())
+            .toList();
+
+    private Footprint() {}
+
+    /**
+     * Collects the garbage and starts tracking the peak heap usage from the current usage.
+     */
+    public static void resetPeakHeap() {
+        System.gc();
+
+        for(MemoryPoolMXBean pool: HEAP_POOLS) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    /**
+     * Gets the peak heap usage since {@link #resetPeakHeap()}. This sums the peaks of the heap's pools, which may have
+     * peaked at different times, so it is an upper bound.
+     * @return The peak heap usage in bytes
+     */
+    public static long getPeakHeap() {
+        long peak = 0;
+
+        for(MemoryPoolMXBean pool: HEAP_POOLS) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+
+        return peak;
+    }
+
+    /**
+     * Gets the amount of bytes the process has written so far.
+     * @return The amount of bytes, or {@code -1} if the platform does not report it
+     */
+    public static long getWrittenBytes() {
+        try {
+            for(String line: Files.readAllLines(PROCESS_IO)) {
+                if(line.startsWith("wchar:"))
+                    return Long.parseLong(line.substring("wchar:".length()).trim());
+            }
+        } catch(IOException | SecurityException | NumberFormatException ignored) {
+            // Only Linux reports the bytes written by the process
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gets the total size of the files, skipping the ones that do not exist.
+     * @param files The files
+     * @return The total size in bytes
+     * @throws IOException If the size of a file could not be read
+     */
+    public static long sizeOf(@NonNull List<Path> files) throws IOException {
+        long size = 0;
+
+        for(Path file: files) {
+            if(Files.exists(file))
+                size += Files.size(file);
+        }
+
+        return size;
+    }
+}
@@ -0,0 +1,105 @@
+package dev.alphaserpentis.coffeecore.benchmarks.support;
+
+import dev.alphaserpentis.coffeecore.data.entity.EntityData;
+import dev.alphaserpentis.coffeecore.persistence.BinarySnapshotPersistence;
+import dev.alphaserpentis.coffeecore.persistence.EntityDataPersistence;
+import dev.alphaserpentis.coffeecore.persistence.WriteAheadLogPersistence;
+import dev.alphaserpentis.coffeecore.serialization.EntityDataDeserializer;
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ways {@link dev.alphaserpentis.coffeecore.handler.api.discord.entities.DataHandler} can store the entity data.
+ */
+public enum StorageBackend {
+    /**
+     * The entity data file, streamed with {@link dev.alphaserpentis.coffeecore.serialization.EntityDataTypeAdapter}.
+     */
+    JSON,
+    /**
+     * The entity data file, parsed into a tree by {@link EntityDataDeserializer}. Writes the same way as {@link #JSON}.
+     */
+    JSON_TREE,
+    /**
+     * {@link BinarySnapshotPersistence}.
+     */
+    BINARY_SNAPSHOT,
+    /**
+     * {@link WriteAheadLogPersistence}.
+     */
+    WRITE_AHEAD_LOG;
+
+    /**
+     * Opens the entity data stored in the directory, creating empty storage if there is none.
+     * @param directory The directory of the storage
+     * @param custom Whether the entities are {@link SyntheticEntities#CUSTOM_TYPES}
+     * @return The data handler of the entity data
+     * @throws IOException If the entity data could not be read
+     */
+    @NonNull
+    public BenchmarkDataHandler open(@NonNull Path directory, boolean custom) throws IOException {
+        Path path = directory.resolve("entities.json");
+
+        if(Files.notExists(path))
+            Files.createFile(path);
+
+        return switch(this) {
+            case JSON -> custom ? new BenchmarkDataHandler.Custom(path) : new BenchmarkDataHandler(path);
+            case JSON_TREE -> custom
+                    ? new BenchmarkDataHandler.Custom(path, new EntityDataDeserializer<>())
+                    : new BenchmarkDataHandler(path, new EntityDataDeserializer<>());
+            case BINARY_SNAPSHOT, WRITE_AHEAD_LOG -> custom
+                    ? new BenchmarkDataHandler.Custom(path, createPersistence(directory))
+                    : new BenchmarkDataHandler(path, createPersistence(directory));
+        };
+    }
+
+    /**
+     * Writes the entities into empty storage in the directory.
+     * @param directory The directory of the storage
+     * @param entities The entities
+     * @param custom Whether the entities are {@link SyntheticEntities#CUSTOM_TYPES}
+     * @throws IOException If the entity data could not be written
+     */
+    public void write(
+            @NonNull Path directory,
+            @NonNull Map<String, Map<Long, EntityData>> entities,
+            boolean custom
+    ) throws IOException {
+        try(BenchmarkDataHandler handler = open(directory, custom)) {
+            handler.entityDataHashMap = entities;
+            handler.flush(null);
+        }
+    }
+
+    /**
+     * Gets the files of the storage in the directory.
+     * @param directory The directory of the storage
+     * @return The files, including the ones that do not exist yet
+     */
+    @NonNull
+    public List<Path> files(@NonNull Path directory) {
+        return switch(this) {
+            case JSON, JSON_TREE -> List.of(directory.resolve("entities.json"));
+            case BINARY_SNAPSHOT -> List.of(directory.resolve("entities.bin"));
+            case WRITE_AHEAD_LOG -> List.of(
+                    directory.resolve("entities.jsonl"),
+                    directory.resolve("entities.jsonl.wal")
+            );
+        };
+    }
+
+    @NonNull
+    private EntityDataPersistence<EntityData> createPersistence(@NonNull Path directory) {
+        return switch(this) {
+            case BINARY_SNAPSHOT -> new BinarySnapshotPersistence<>(directory.resolve("entities.bin"));
+            case WRITE_AHEAD_LOG -> new WriteAheadLogPersistence<>(directory.resolve("entities.jsonl"));
+            default -> throw new IllegalStateException("No storage backend for " + this);
+        };
+    }
+}
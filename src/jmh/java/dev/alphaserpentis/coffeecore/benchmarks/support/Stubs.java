@@ -0,0 +1,95 @@
+package dev.alphaserpentis.coffeecore.benchmarks.support;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Creates stubs of JDA's interfaces so interactions can be dispatched without a connection to Discord.
+ * <p>
+ * A stub answers its methods from a map of method names. Methods without an answer return the stub itself if their
+ * return type allows it, which covers the fluent setters of JDA's actions, and the default value of their return type
+ * otherwise.
+ */
+public final class Stubs {
+    /**
+     * The answer of a stubbed method.
+     */
+    @FunctionalInterface
+    public interface Answer {
+        Object answer(@NonNull Object[] args);
+    }
+
+    private Stubs() {}
+
+    /**
+     * Creates a stub of an interface.
+     * @param type The interface to stub
+     * @param answers The answers of the stub, mapped by method name
+     * @return The stub
+     * @param <T> The type of the interface
+     */
+    @NonNull
+    public static <T> T stub(@NonNull Class<T> type, @NonNull Map<String, Answer> answers) {
+        return type.cast(Proxy.newProxyInstance(
+                Stubs.class.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> invoke(type, proxy, method, args == null ? new Object[0] : args, answers)
+        ));
+    }
+
+    /**
+     * Creates a stub of a {@link net.dv8tion.jda.api.requests.RestAction} that completes immediately.
+     * @param type The interface of the action
+     * @param result The result of the action
+     * @return The stub
+     * @param <T> The type of the interface
+     */
+    @NonNull
+    public static <T> T completedAction(@NonNull Class<T> type, Object result) {
+        CompletableFuture<Object> future = CompletableFuture.completedFuture(result);
+
+        return stub(type, Map.of(
+                "submit", args -> future,
+                "complete", args -> result,
+                "queue", args -> null
+        ));
+    }
+
+    private static Object invoke(
+            @NonNull Class<?> type,
+            @NonNull Object proxy,
+            @NonNull Method method,
+            @NonNull Object[] args,
+            @NonNull Map<String, Answer> answers
+    ) {
+        Answer answer = answers.get(method.getName());
+        Class<?> returnType = method.getReturnType();
+
+        if(method.getDeclaringClass() == Object.class) {
+            return switch(method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> "Stub[" + type.getSimpleName() + "]";
+            };
+        }
+
+        if(answer != null)
+            return answer.answer(args);
+        if(returnType.isInstance(proxy))
+            return proxy;
+        if(returnType == boolean.class)
+            return false;
+        if(returnType == long.class)
+            return 0L;
+        if(returnType == int.class)
+            return 0;
+        if(returnType.isPrimitive() && returnType != void.class)
+            throw new UnsupportedOperationException("Unstubbed method: " + method);
+
+        return null;
+    }
+}
@@ -0,0 +1,143 @@
+package dev.alphaserpentis.coffeecore.benchmarks.support;
+
+import dev.alphaserpentis.coffeecore.data.entity.EntityData;
+import dev.alphaserpentis.coffeecore.data.entity.EntityType;
+import dev.alphaserpentis.coffeecore.data.entity.ServerData;
+import dev.alphaserpentis.coffeecore.data.entity.UserData;
+import dev.alphaserpentis.coffeecore.util.LongObjectHashMap;
+import dev.alphaserpentis.coffeecore.util.LongObjectMap;
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Generates guilds and users with random snowflake IDs, either as the default {@link ServerData} and {@link UserData}
+ * or as subclasses with extra fields, like bots that store their own settings.
+ */
+public final class SyntheticEntities {
+    public static final List<EntityType> DEFAULT_TYPES = List.of(
+            new EntityType("guild", ServerData.class),
+            new EntityType("user", UserData.class)
+    );
+    public static final List<EntityType> CUSTOM_TYPES = List.of(
+            new EntityType("guild", SyntheticServerData.class),
+            new EntityType("user", SyntheticUserData.class)
+    );
+    /**
+     * The Discord epoch, which snowflake timestamps are relative to.
+     */
+    private static final long DISCORD_EPOCH = 1420070400000L;
+    /**
+     * The bound of the generated snowflake timestamps, which is about eight years after the Discord epoch.
+     */
+    private static final long TIMESTAMP_BOUND = 1L << 38;
+
+    public static class SyntheticServerData extends ServerData {
+        private String prefix = "!";
+        private String locale = "en-US";
+        private long moderatorRoleId;
+        private List<String> disabledCommands = List.of();
+
+        public SyntheticServerData() {}
+
+        public SyntheticServerData(
+                boolean onlyEphemeral,
+                long moderatorRoleId,
+                @NonNull List<String> disabledCommands
+        ) {
+            super(onlyEphemeral);
+            this.moderatorRoleId = moderatorRoleId;
+            this.disabledCommands = disabledCommands;
+        }
+    }
+
+    public static class SyntheticUserData extends UserData {
+        private String timezone = "UTC";
+        private int commandsUsed;
+        private long lastSeen;
+
+        public SyntheticUserData() {}
+
+        public SyntheticUserData(int commandsUsed, long lastSeen) {
+            this.commandsUsed = commandsUsed;
+            this.lastSeen = lastSeen;
+        }
+    }
+
+    private SyntheticEntities() {}
+
+    /**
+     * Generates the entities. The same seed always generates the same entities.
+     * @param entitiesPerType The amount of guilds, and the amount of users
+     * @param custom Whether to generate {@link #CUSTOM_TYPES} rather than {@link #DEFAULT_TYPES}
+     * @param seed The seed of the random IDs and fields
+     * @return The mapping of entity type IDs to the mapping of entity IDs to {@link EntityData}
+     */
+    @NonNull
+    public static Map<String, Map<Long, EntityData>> generate(int entitiesPerType, boolean custom, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Map<String, Map<Long, EntityData>> data = new HashMap<>();
+        LongObjectMap<EntityData> guilds = new LongObjectHashMap<>(entitiesPerType);
+        LongObjectMap<EntityData> users = new LongObjectHashMap<>(entitiesPerType);
+
+        while(guilds.size() < entitiesPerType) {
+            guilds.put(nextSnowflake(random), custom
+                    ? new SyntheticServerData(
+                            random.nextBoolean(),
+                            nextSnowflake(random),
+                            random.nextInt(4) == 0 ? List.of("ping", "about") : List.of()
+                    )
+                    : new ServerData(random.nextBoolean()));
+        }
+
+        while(users.size() < entitiesPerType) {
+            EntityData user = custom
+                    ? new SyntheticUserData(random.nextInt(10_000), DISCORD_EPOCH + (nextSnowflake(random) >>> 22))
+                    : new UserData();
+
+            users.put(nextSnowflake(random), user);
+        }
+
+        data.put("guild", guilds);
+        data.put("user", users);
+        return data;
+    }
+
+    /**
+     * Picks a share of the entities of each type, like the entities that changed between two flushes.
+     * @param data The entities
+     * @param percent The percentage of the entities of each type to pick
+     * @return The IDs of the picked entities mapped by entity type ID
+     */
+    @NonNull
+    public static Map<String, Set<Long>> pick(@NonNull Map<String, Map<Long, EntityData>> data, int percent) {
+        Map<String, Set<Long>> picked = new HashMap<>();
+
+        for(Map.Entry<String, Map<Long, EntityData>> entry: data.entrySet()) {
+            Set<Long> ids = new HashSet<>();
+            long limit = (long) entry.getValue().size() * percent / 100;
+
+            for(long id: entry.getValue().keySet()) {
+                if(ids.size() >= limit)
+                    break;
+
+                ids.add(id);
+            }
+
+            picked.put(entry.getKey(), ids);
+        }
+
+        return picked;
+    }
+
+    private static long nextSnowflake(@NonNull SplittableRandom random) {
+        long timestamp = random.nextLong(TIMESTAMP_BOUND);
+
+        return timestamp << 22 | random.nextLong(1 << 22);
+    }
+}
@@ -7,6 +7,12 @@ import dev.alphaserpentis.coffeecore.data.entity.UserData;
 import dev.alphaserpentis.coffeecore.hook.CommandHook;
 import dev.alphaserpentis.coffeecore.hook.defaults.MessageExpireHook;
 import dev.alphaserpentis.coffeecore.hook.defaults.RatelimitHook;
+import dev.alphaserpentis.coffeecore.metrics.CommandMetrics;
+import dev.alphaserpentis.coffeecore.ratelimit.CooldownRatelimitPolicy;
+import dev.alphaserpentis.coffeecore.ratelimit.DefaultRatelimitStore;
+import dev.alphaserpentis.coffeecore.ratelimit.RatelimitPolicy;
+import dev.alphaserpentis.coffeecore.ratelimit.RatelimitStore;
+import dev.alphaserpentis.coffeecore.util.ConcurrentLongLongMap;
 import io.reactivex.rxjava3.annotations.NonNull;
 import io.reactivex.rxjava3.annotations.Nullable;
 import net.dv8tion.jda.api.EmbedBuilder;
@@ -22,19 +28,26 @@ import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.requests.restaction.WebhookMessageCreateAction;
 import net.dv8tion.jda.api.requests.restaction.interactions.ReplyCallbackAction;
-import net.dv8tion.jda.api.utils.FileUpload;
+import net.dv8tion.jda.api.utils.messages.MessageCreateRequest;
 
 import java.awt.Color;
-import java.io.IOException;
-import java.time.Instant;
-import java.util.AbstractMap;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Abstract class for bot commands
@@ -43,10 +56,23 @@ import java.util.concurrent.TimeUnit;
  */
 public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
 
-    protected final HashMap<Long, Long> guildCommandIds = new HashMap<>();
-    protected final HashMap<Long, Long> ratelimitMap = new HashMap<>();
+    protected final ConcurrentLongLongMap guildCommandIds = new ConcurrentLongLongMap();
+    protected final RatelimitStore ratelimitStore;
+    protected final RatelimitPolicy ratelimitPolicy;
     protected final Collection<Long> guildsToRegisterIn;
     protected final Collection<CommandHook> commandHooks;
+    /**
+     * The {@link CommandHook.Type#PRE_EXECUTION} hooks of {@link #commandHooks} in the order they run.
+     */
+    protected volatile CommandHook[] preExecutionHooks;
+    /**
+     * The {@link CommandHook.Type#POST_EXECUTION} hooks of {@link #commandHooks} in the order they run.
+     */
+    protected volatile CommandHook[] postExecutionHooks;
+    /**
+     * Whether any of the {@link #postExecutionHooks} needs the {@link Message} sent by the command.
+     */
+    protected volatile boolean originalMessageRequired;
     protected final String name;
     protected final String description;
     protected final String helpDescription;
@@ -56,6 +82,11 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
     protected final boolean onlyEphemeral;
     protected final boolean isActive;
     protected final boolean deferReplies;
+    /**
+     * How long the command may run before its reply is deferred, or {@code null} if replies are not deferred
+     * adaptively.
+     */
+    protected final Duration adaptiveDeferralBudget;
     protected final boolean useRatelimits;
     protected final boolean forgiveRatelimitOnError;
     protected final boolean messagesExpire;
@@ -77,6 +108,16 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
         GUILD
     }
 
+    /**
+     * The time Discord gives a bot to acknowledge an interaction.
+     */
+    public static final Duration INTERACTION_RESPONSE_WINDOW = Duration.ofSeconds(3);
+    /**
+     * The default budget of {@link BotCommandOptions#setAdaptiveDeferral(Duration)}, which leaves half of the
+     * {@link #INTERACTION_RESPONSE_WINDOW} to defer the reply.
+     */
+    public static final Duration DEFAULT_ADAPTIVE_DEFERRAL_BUDGET = Duration.ofMillis(1500);
+
     /**
      * Static class builder helper for {@link BotCommand}
      */
@@ -90,6 +131,7 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
         protected boolean onlyEphemeral = false;
         protected boolean isActive = true;
         protected boolean deferReplies = false;
+        protected Duration adaptiveDeferralBudget = null;
         protected boolean useRatelimits = false;
         protected boolean forgiveRatelimitOnError = false;
         protected boolean messagesExpire = false;
@@ -98,6 +140,8 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
         protected Command.Type commandType = Command.Type.SLASH;
         protected Collection<Long> guildsToRegisterIn = List.of();
         protected Collection<CommandHook> commandHooks = new ArrayList<>();
+        protected RatelimitStore ratelimitStore = null;
+        protected RatelimitPolicy ratelimitPolicy = null;
 
         public BotCommandOptions() {}
 
@@ -208,6 +252,23 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
             return this;
         }
 
+        /**
+         * Sets the command to defer replies only if it takes too long. The command starts running right away, and its
+         * reply is deferred if it has not finished within the budget. Fast commands skip the deferral's round-trip
+         * while slow commands still reply within Discord's {@link #INTERACTION_RESPONSE_WINDOW}.
+         * <p>
+         * Cannot be used together with {@link #setDeferReplies(boolean)}.
+         * @param adaptiveDeferralBudget How long the command may run before its reply is deferred, or {@code null} to
+         * disable adaptive deferral
+         * @return {@link BotCommandOptions}
+         * @see #DEFAULT_ADAPTIVE_DEFERRAL_BUDGET
+         */
+        @NonNull
+        public BotCommandOptions setAdaptiveDeferral(@Nullable Duration adaptiveDeferralBudget) {
+            this.adaptiveDeferralBudget = adaptiveDeferralBudget;
+            return this;
+        }
+
         /**
          * Sets the command to use ratelimits
          * @param useRatelimits Whether the command will use ratelimits
@@ -298,23 +359,62 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
             return this;
         }
 
+        /**
+         * Sets the {@link RatelimitStore} used to track the command's ratelimits
+         * <p>
+         * If not set, a {@link DefaultRatelimitStore} will be used. The store only backs the default policy, so it is
+         * unused if {@link #setRatelimitPolicy(RatelimitPolicy)} is set as well.
+         * @param ratelimitStore The command's ratelimit store
+         * @return {@link BotCommandOptions}
+         */
+        @NonNull
+        public BotCommandOptions setRatelimitStore(@NonNull RatelimitStore ratelimitStore) {
+            this.ratelimitStore = ratelimitStore;
+            return this;
+        }
+
+        /**
+         * Sets the {@link RatelimitPolicy} used to decide if an invocation of the command is allowed
+         * <p>
+         * If not set, a {@link CooldownRatelimitPolicy} of {@link #setRatelimitLength(long)} seconds backed by the
+         * command's {@link RatelimitStore} will be used. Setting a policy removes the need to set a ratelimit length.
+         * @param ratelimitPolicy The command's ratelimit policy
+         * @return {@link BotCommandOptions}
+         * @see dev.alphaserpentis.coffeecore.ratelimit.TokenBucketRatelimitPolicy
+         * @see dev.alphaserpentis.coffeecore.ratelimit.SlidingWindowRatelimitPolicy
+         */
+        @NonNull
+        public BotCommandOptions setRatelimitPolicy(@NonNull RatelimitPolicy ratelimitPolicy) {
+            this.ratelimitPolicy = ratelimitPolicy;
+            return this;
+        }
+
         /**
          * Validates the command options.
          * A command is considered valid if: <br>
          *    - The name is not null <br>
          *    - If the command is a slash command, the description is not {@code null} <br>
-         *    - If using ratelimits, the ratelimit length is greater than 0 <br>
+         *    - If using ratelimits without a ratelimit policy, the ratelimit length is greater than 0 <br>
          *    - If messages expire, the message expiration length is greater than 0 <br>
+         *    - If deferring adaptively, replies are not always deferred and the budget is within the
+         *    {@link #INTERACTION_RESPONSE_WINDOW} <br>
          */
         public void validate() throws IllegalArgumentException {
             if(name == null)
                 throw new IllegalArgumentException("Name cannot be null!");
             if(description == null && commandType == Command.Type.SLASH)
                 throw new IllegalArgumentException("Description cannot be null for slash commands!");
-            if(useRatelimits && ratelimitLength <= 0)
+            if(useRatelimits && ratelimitPolicy == null && ratelimitLength <= 0)
                 throw new IllegalArgumentException("Ratelimit length must be greater than 0 if using ratelimits!");
             if(messagesExpire && messageExpirationLength <= 0)
                 throw new IllegalArgumentException("Message expiration length must be greater than 0 if messages expire!");
+            if(adaptiveDeferralBudget != null) {
+                if(deferReplies)
+                    throw new IllegalArgumentException("Adaptive deferral cannot be used with deferred replies!");
+                if(adaptiveDeferralBudget.isNegative() || adaptiveDeferralBudget.isZero()
+                        || adaptiveDeferralBudget.compareTo(INTERACTION_RESPONSE_WINDOW) >= 0)
+                    throw new IllegalArgumentException("Adaptive deferral budget must be between 0 and 3 seconds!");
+            }
         }
     }
 
@@ -334,6 +434,7 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
         onlyEphemeral = options.onlyEphemeral;
         isActive = options.isActive;
         deferReplies = options.deferReplies;
+        adaptiveDeferralBudget = options.adaptiveDeferralBudget;
         useRatelimits = options.useRatelimits;
         forgiveRatelimitOnError = options.forgiveRatelimitOnError;
         messagesExpire = options.messagesExpire;
@@ -341,6 +442,11 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
         commandType = options.commandType;
         guildsToRegisterIn = options.guildsToRegisterIn;
         commandHooks = options.commandHooks;
+        ratelimitStore = Objects.requireNonNullElseGet(options.ratelimitStore, DefaultRatelimitStore::new);
+        ratelimitPolicy = Objects.requireNonNullElseGet(
+                options.ratelimitPolicy,
+                () -> new CooldownRatelimitPolicy(ratelimitStore, Duration.ofSeconds(ratelimitLength))
+        );
 
         if(isUsingRatelimits() && options.useDefaultHooks) {
             commandHooks.add(new RatelimitHook());
@@ -348,6 +454,36 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
         if(doMessagesExpire() && options.useDefaultHooks) {
             commandHooks.add(new MessageExpireHook());
         }
+
+        compileHooks();
+    }
+
+    /**
+     * Sorts the {@link #commandHooks} into the chains of hooks that run before and after the command executes, so that
+     * interactions do not need to filter and sort them. This is called when the command is constructed and when it is
+     * registered, and must be called again if {@link #commandHooks} is modified afterward.
+     * @see CommandHook#getOrder()
+     */
+    public void compileHooks() {
+        Comparator<CommandHook> order = Comparator.comparingInt(CommandHook::getOrder);
+        CommandHook[] hooks = commandHooks.toArray(new CommandHook[0]);
+        boolean messageRequired = false;
+
+        for(CommandHook hook: hooks) {
+            if(hook.getTypeOfHook() == CommandHook.Type.POST_EXECUTION && hook.isMessageRequired())
+                messageRequired = true;
+        }
+
+        // Sorting is stable, so hooks with the same order run in the order they were added
+        preExecutionHooks = Arrays.stream(hooks)
+                .filter(hook -> hook.getTypeOfHook() == CommandHook.Type.PRE_EXECUTION)
+                .sorted(order)
+                .toArray(CommandHook[]::new);
+        postExecutionHooks = Arrays.stream(hooks)
+                .filter(hook -> hook.getTypeOfHook() == CommandHook.Type.POST_EXECUTION)
+                .sorted(order)
+                .toArray(CommandHook[]::new);
+        originalMessageRequired = messageRequired;
     }
 
     /**
@@ -359,28 +495,77 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
     @NonNull
     public abstract CommandResponse<T> runCommand(final long userId, @NonNull final E event);
 
+    /**
+     * Builds the {@link CommandData} this command is registered with.
+     * <p>
+     * <b>This method should be overridden if the command uses subcommands or options.</b>
+     * @return The command data
+     */
+    @NonNull
+    public CommandData getCommandData() {
+        return getJDACommandData(getCommandType(), getName(), getDescription());
+    }
+
     /**
      * Method used to update the command.
      * This method is called when the bot is started and when the command is updated.
      * <p>
-     * <b>This method should be overridden if the command uses subcommands.</b>
+     * <b>Override {@link #getCommandData()} instead if the command uses subcommands or options.</b>
      * @param jda {@link JDA} instance
+     * @deprecated {@link dev.alphaserpentis.coffeecore.handler.api.discord.commands.CommandsHandler} no longer calls
+     * this when registering commands, so overriding it has no effect. Override {@link #updateCommandAsync(JDA)}
+     * instead!
      */
+    @Deprecated
     public void updateCommand(@NonNull JDA jda) {
         jda
-                .upsertCommand(getJDACommandData(getCommandType(), getName(), getDescription()))
+                .upsertCommand(getCommandData())
                 .queue(command -> globalCommandId = command.getIdLong());
     }
 
     /**
      * Guild-specific method used to update the command. This method is called when the bot is started and when the command is updated.
-     * <p><b>This method should be overridden if the command uses subcommands.</b></p>
+     * <p><b>Override {@link #getCommandData()} instead if the command uses subcommands or options.</b></p>
      * @param guild {@link Guild} to update the command in
+     * @deprecated {@link dev.alphaserpentis.coffeecore.handler.api.discord.commands.CommandsHandler} no longer calls
+     * this when registering commands, so overriding it has no effect. Override {@link #updateCommandAsync(Guild)}
+     * instead!
      */
+    @Deprecated
     public void updateCommand(@NonNull Guild guild) {
         guild
-                .upsertCommand(getJDACommandData(getCommandType(), getName(), getDescription()))
-                .queue();
+                .upsertCommand(getCommandData())
+                .queue(command -> setGuildCommandId(guild.getIdLong(), command.getIdLong()));
+    }
+
+    /**
+     * Updates the command. This is called when the bot is started and when the command is updated.
+     * <p>
+     * <b>Override {@link #getCommandData()} instead if the command uses subcommands or options.</b>
+     * @param jda {@link JDA} instance
+     * @return {@link CompletableFuture} that completes once the command is registered and its ID is set
+     */
+    @NonNull
+    public CompletableFuture<Void> updateCommandAsync(@NonNull JDA jda) {
+        return jda
+                .upsertCommand(getCommandData())
+                .submit()
+                .thenAccept(command -> globalCommandId = command.getIdLong());
+    }
+
+    /**
+     * Updates the command in a guild. This is called when the bot is started and when the command is updated.
+     * <p>
+     * <b>Override {@link #getCommandData()} instead if the command uses subcommands or options.</b>
+     * @param guild {@link Guild} to update the command in
+     * @return {@link CompletableFuture} that completes once the command is registered and its ID is set
+     */
+    @NonNull
+    public CompletableFuture<Void> updateCommandAsync(@NonNull Guild guild) {
+        return guild
+                .upsertCommand(getCommandData())
+                .submit()
+                .thenAccept(command -> setGuildCommandId(guild.getIdLong(), command.getIdLong()));
     }
 
     /**
@@ -395,13 +580,14 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
     @Nullable
     @Deprecated
     public CommandResponse<?> checkAndHandleRateLimitedUser(long userId) {
-        if(isUserRatelimited(userId)) {
+        final long now = System.currentTimeMillis();
+        final long retryAt = getRatelimitPolicy().peek(userId, 0, now);
+
+        if(retryAt != RatelimitPolicy.ALLOWED) {
             return new CommandResponse<>(
                     onlyEphemeral,
                     new EmbedBuilder().setDescription(
-                            "You are still rate limited. Expires in " + (
-                                    getRatelimitMap().get(userId) - Instant.now().getEpochSecond()
-                            ) + " seconds."
+                            "You are still rate limited. Expires in " + ((retryAt - now) / 1000) + " seconds."
                     ).build()
             );
         } else {
@@ -414,7 +600,20 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
      * @param guildId is the ID of the guild to remove the command ID for
      */
     public void removeGuildCommandId(long guildId) {
-        getGuildCommandIds().remove(guildId);
+        getGuildCommandIdMap().remove(guildId);
+    }
+
+    /**
+     * Sets the guild command ID for the provided guild ID
+     * @param guildId is the ID of the guild the command is registered in
+     * @param id is the ID of the guild command
+     * @throws UnsupportedOperationException if the command is a global command
+     */
+    public void setGuildCommandId(long guildId, long id) {
+        if(getCommandVisibility() == CommandVisibility.GLOBAL)
+            throw new UnsupportedOperationException("Cannot set guild command ID for global command");
+
+        getGuildCommandIdMap().put(guildId, id);
     }
 
     /**
@@ -433,14 +632,64 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
         this.core = core;
     }
 
+    /**
+     * Gets the IDs of this command in each guild it is known to be registered in, mapped by the guild IDs.
+     * @return a {@link ConcurrentLongLongMap} of guild IDs to command IDs
+     */
     @NonNull
-    public HashMap<Long, Long> getGuildCommandIds() {
+    public ConcurrentLongLongMap getGuildCommandIdMap() {
         return guildCommandIds;
     }
 
+    /**
+     * Gets a copy of the IDs of this command in each guild it is known to be registered in, mapped by the guild IDs.
+     * @return an unmodifiable {@link HashMap} of guild IDs to command IDs
+     * @deprecated The IDs are kept in a {@link ConcurrentLongLongMap} now, which this copies on every call. The copy
+     * is unmodifiable, so modifying it throws an {@link UnsupportedOperationException} instead of changing the
+     * command's IDs. Use {@link #getGuildCommandIdMap()} or {@link #setGuildCommandId(long, long)} instead!
+     */
+    @NonNull
+    @Deprecated
+    public HashMap<Long, Long> getGuildCommandIds() {
+        HashMap<Long, Long> copy = new HashMap<>();
+
+        guildCommandIds.forEach(copy::put);
+        return new GuildCommandIdsCopy(copy);
+    }
+
+    /**
+     * Gets a view of the ratelimits in the {@link #getRatelimitStore()}, in UNIX seconds, mapped by the user IDs.
+     * @return a {@link HashMap} backed by the {@link RatelimitStore}
+     * @throws IllegalStateException If the {@link #getRatelimitPolicy()} is not a {@link CooldownRatelimitPolicy}, as
+     * only its store holds when each user's ratelimit expires
+     * @deprecated Ratelimits are kept in a {@link RatelimitStore} in milliseconds, which cannot be iterated. Only
+     * {@code get}, {@code getOrDefault}, {@code containsKey}, {@code put} and {@code remove} reach the store through
+     * this view. Use {@link #getRatelimitStore()} instead!
+     */
     @NonNull
+    @Deprecated
     public HashMap<Long, Long> getRatelimitMap() {
-        return ratelimitMap;
+        if(!(ratelimitPolicy instanceof CooldownRatelimitPolicy cooldown))
+            throw new IllegalStateException(
+                    "The ratelimits of a " + ratelimitPolicy.getClass().getSimpleName() + " cannot be viewed as a map!"
+            );
+
+        return new RatelimitMapView(cooldown.getStore());
+    }
+
+    /**
+     * Gets the store of the {@link #getRatelimitPolicy()}, which is the one set with
+     * {@link BotCommandOptions#setRatelimitStore(RatelimitStore)} unless a custom policy is set.
+     * @return The {@link RatelimitPolicy#getStore()} of the policy, or {@code null} if it does not keep a store
+     */
+    @Nullable
+    public RatelimitStore getRatelimitStore() {
+        return ratelimitPolicy.getStore();
+    }
+
+    @NonNull
+    public RatelimitPolicy getRatelimitPolicy() {
+        return ratelimitPolicy;
     }
 
     @NonNull
@@ -463,18 +712,41 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
     }
 
     /**
-     * Gets this command's ID associated with this guild
+     * Gets this command's ID associated with this guild. This does not make any requests to Discord.
      * @param guild is the {@link Guild} to get the command ID for
-     * @return a long ID of the command. If the command is not registered in the guild, it will return -1.
+     * @return a long ID of the command. If the command is not known to be registered in the guild, it will return -1.
+     * @see #retrieveGuildCommandId(Guild)
      */
     public long getGuildCommandId(@NonNull Guild guild) {
-        return getGuildCommandIds().computeIfAbsent(guild.getIdLong(), id ->
-                guild.retrieveCommands().complete().stream()
-                        .filter(command -> command.getName().equals(getName()))
-                        .findFirst()
-                        .map(Command::getIdLong)
-                        .orElse(-1L)
-        );
+        long id = getGuildCommandIdMap().get(guild.getIdLong());
+
+        return id == ConcurrentLongLongMap.MISSING_VALUE ? -1 : id;
+    }
+
+    /**
+     * Gets this command's ID associated with this guild, retrieving the guild's commands from Discord if the ID is not
+     * known yet.
+     * @param guild is the {@link Guild} to get the command ID for
+     * @return a {@link CompletableFuture} completing with the ID of the command, or -1 if the command is not
+     * registered in the guild
+     */
+    @NonNull
+    public CompletableFuture<Long> retrieveGuildCommandId(@NonNull Guild guild) {
+        long id = getGuildCommandId(guild);
+
+        if(id != -1)
+            return CompletableFuture.completedFuture(id);
+
+        return guild.retrieveCommands().submit().thenApply(commands -> {
+            for(Command command: commands) {
+                if(command.getName().equals(getName())) {
+                    getGuildCommandIdMap().put(guild.getIdLong(), command.getIdLong());
+                    return command.getIdLong();
+                }
+            }
+
+            return -1L;
+        });
     }
 
     public long getRatelimitLength() {
@@ -501,6 +773,20 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
         return deferReplies;
     }
 
+    /**
+     * Checks if the command defers its replies only when it runs longer than its budget.
+     * @return {@code true} if replies are deferred adaptively
+     * @see BotCommandOptions#setAdaptiveDeferral(Duration)
+     */
+    public boolean isAdaptiveDeferral() {
+        return adaptiveDeferralBudget != null;
+    }
+
+    @Nullable
+    public Duration getAdaptiveDeferralBudget() {
+        return adaptiveDeferralBudget;
+    }
+
     public boolean isUsingRatelimits() {
         return useRatelimits;
     }
@@ -509,15 +795,14 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
         return forgiveRatelimitOnError;
     }
 
+    /**
+     * Checks if the user would be ratelimited outside a guild without consuming any capacity
+     * @param userId is the ID of the user to check
+     * @return {@code true} if the user is ratelimited, {@code false} otherwise
+     * @see RatelimitPolicy#peek(long, long, long)
+     */
     public boolean isUserRatelimited(long userId) {
-        final long ratelimit = getRatelimitMap().getOrDefault(userId, 0L);
-
-        if(ratelimit != 0) {
-            return ratelimit > Instant.now().getEpochSecond();
-        } else {
-            getRatelimitMap().remove(userId);
-            return false;
-        }
+        return getRatelimitPolicy().peek(userId, 0, System.currentTimeMillis()) != RatelimitPolicy.ALLOWED;
     }
 
     public boolean doMessagesExpire() {
@@ -539,6 +824,15 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
         return core;
     }
 
+    /**
+     * Gets where the measurements of this command are recorded.
+     * @return The {@link CommandMetrics} of the commands handler, or {@code null} if commands are not measured
+     */
+    @Nullable
+    public CommandMetrics getMetrics() {
+        return core == null ? null : core.getCommandsHandler().getMetrics();
+    }
+
     @NonNull
     public Collection<Long> getGuildsToRegisterIn() {
         return guildsToRegisterIn;
@@ -550,144 +844,292 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
     }
 
     /**
-     * Handles the reply of a command.
+     * Gets the {@link CommandHook.Type#PRE_EXECUTION} hooks in the order they run. <b>Do not modify the array.</b>
+     * @return The pre-execution hooks
+     * @see #compileHooks()
+     */
+    @NonNull
+    public CommandHook[] getPreExecutionHooks() {
+        return preExecutionHooks;
+    }
+
+    /**
+     * Gets the {@link CommandHook.Type#POST_EXECUTION} hooks in the order they run. <b>Do not modify the array.</b>
+     * @return The post-execution hooks
+     * @see #compileHooks()
+     */
+    @NonNull
+    public CommandHook[] getPostExecutionHooks() {
+        return postExecutionHooks;
+    }
+
+    /**
+     * Checks if any of the {@link CommandHook.Type#POST_EXECUTION} hooks need the {@link Message} sent by the command.
+     * @return {@code true} if the original message needs to be retrieved for non-deferred replies
+     * @see CommandHook#isMessageRequired()
+     */
+    public boolean isOriginalMessageRequired() {
+        return originalMessageRequired;
+    }
+
+    /**
+     * Handles the reply of a command, blocking until every Discord round-trip finished.
      * @param event {@link E} that contains the interaction
      * @param cmd {@link BotCommand} that contains the command used
-     * @return {@link Message} that is the reply of the command
+     * @return {@link Message} that is the reply of the command, or {@code null} if the reply was not deferred and no
+     * hook requires the message
+     * @see #isOriginalMessageRequired()
+     * @deprecated {@link dev.alphaserpentis.coffeecore.handler.api.discord.commands.CommandsHandler} no longer calls
+     * this when dispatching commands, so overriding it has no effect. Override
+     * {@link #handleReplyAsync(GenericCommandInteractionEvent, BotCommand)} instead!
      */
-    @NonNull
+    @Nullable
+    @Deprecated
     public Message handleReply(@NonNull final E event, @NonNull final BotCommand<?, E> cmd) {
-        if(cmd.isDeferReplies()) {
+        final CommandResponse<?> hookResponse = cmd.runPreExecutionHooks(event);
+
+        if(hookResponse != null) {
+            return cmd.replyWithHookResponse(event, hookResponse).join();
+        } else if(cmd.isAdaptiveDeferral()) {
+            return cmd.replyAdaptively(event, request -> {}).join();
+        } else if(cmd.isDeferReplies()) {
             return (Message) cmd.processDeferredCommand(event).complete();
         } else {
-            return cmd.processNonDeferredCommand(event).complete().retrieveOriginal().complete();
+            InteractionHook hook = cmd.processNonDeferredCommand(event).complete();
+
+            return cmd.isOriginalMessageRequired() ? hook.retrieveOriginal().complete() : null;
         }
     }
 
     /**
-     * Runs and processes a deferred command
+     * Handles the reply of a command without blocking on any Discord round-trips. This is what
+     * {@link dev.alphaserpentis.coffeecore.handler.api.discord.commands.CommandsHandler} calls to dispatch commands.
+     * <p>
+     * Only the REST round-trips are asynchronous. The hooks and
+     * {@link #runCommand(long, GenericCommandInteractionEvent)} still run on the calling thread for deferred,
+     * non-deferred and adaptively deferred replies alike, and this returns once the response was built. For deferred
+     * commands, the command runs while the deferral is in-flight and its response is sent once the interaction is
+     * acknowledged. If a {@link CommandHook.Type#PRE_EXECUTION} hook responds instead, the interaction is replied to
+     * directly without being deferred.
      * @param event {@link E} that contains the interaction
-     * @return {@link WebhookMessageCreateAction}
+     * @param cmd {@link BotCommand} that contains the command used
+     * @return {@link CompletableFuture} of the {@link Message} that is the reply of the command. The message is
+     * {@code null} if the reply was not deferred and no hook requires the message.
+     * @see #isOriginalMessageRequired()
      */
     @NonNull
-    protected WebhookMessageCreateAction<?> processDeferredCommand(@NonNull final E event) {
-        final long userId = event.getUser().getIdLong();
-        final InteractionHook interactHook = event.getHook();
-        final boolean msgIsEphemeral = determineEphemeralStatus(event);
-        final List<CommandHook> preExecHooks = commandHooks.stream()
-                .filter(hook -> hook.getTypeOfHook() == CommandHook.Type.PRE_EXECUTION)
-                .toList();
+    public CompletableFuture<Message> handleReplyAsync(@NonNull final E event, @NonNull final BotCommand<?, E> cmd) {
+        final CommandResponse<?> hookResponse = cmd.runPreExecutionHooks(event);
+
+        if(hookResponse != null) {
+            return cmd.replyWithHookResponse(event, hookResponse);
+        } else if(cmd.isAdaptiveDeferral()) {
+            return cmd.replyAdaptively(event, request -> {});
+        } else if(cmd.isDeferReplies()) {
+            final CompletableFuture<InteractionHook> deferral = event
+                    .deferReply(cmd.determineEphemeralStatus(event))
+                    .submit();
+            final WebhookMessageCreateAction<?> action = cmd.buildDeferredResponse(event);
+
+            return deferral.thenCompose(hook -> action.submit().thenApply(Message.class::cast));
+        } else {
+            final CompletableFuture<InteractionHook> reply = cmd.processNonDeferredCommand(event).submit();
+
+            return cmd.isOriginalMessageRequired()
+                    ? reply.thenCompose(hook -> hook.retrieveOriginal().submit())
+                    : reply.thenApply(hook -> null);
+        }
+    }
+
+    /**
+     * Runs the {@link CommandHook.Type#PRE_EXECUTION} hooks in order until one of them returns a
+     * {@link CommandResponse}, which replaces the response of the command. The remaining hooks are skipped.
+     * <p>
+     * The hooks run before the interaction is acknowledged, so they should be fast and may return pre-built responses.
+     * @param event {@link E} that contains the interaction
+     * @return The response to reply with instead of executing the command, or {@code null} to execute the command
+     */
+    @Nullable
+    protected CommandResponse<?> runPreExecutionHooks(@NonNull final E event) {
+        final CommandHook[] preExecHooks = preExecutionHooks;
+        final CommandMetrics metrics = preExecHooks.length == 0 ? null : getMetrics();
+        final long start = System.nanoTime();
 
         try {
-            event.deferReply(msgIsEphemeral).complete();
-
-            if(isOnlyEmbed()) {
-                if(!preExecHooks.isEmpty()) {
-                    ArrayList<MessageEmbed> embeds = new ArrayList<>();
-                    ArrayList<FileUpload> files = new ArrayList<>();
-
-                    preExecHooks.forEach(
-                            hook -> hook
-                                    .execute(this, event, null)
-                                    .ifPresent(rawResponse -> {
-                                        if(rawResponse instanceof CommandResponse<?> cmdResponse) {
-                                            embeds.addAll(
-                                                    List.of((MessageEmbed[]) cmdResponse.messageResponse())
-                                            );
-
-                                            try(var fileUpload = cmdResponse.fileUpload()) {
-                                                if(fileUpload != null) files.add(fileUpload);
-                                            } catch (IOException e) {
-                                                throw new RuntimeException(e);
-                                            }
-                                        }
-                                    })
-                    );
+            for(CommandHook hook: preExecHooks) {
+                if(hook.execute(this, event, null).orElse(null) instanceof CommandResponse<?> cmdResponse
+                        && cmdResponse.messageResponse() != null)
+                    return cmdResponse;
+            }
+        } catch(Exception e) {
+            if(metrics != null)
+                metrics.recordError(getName());
 
-                    if(!embeds.isEmpty()) {
-                        if(!files.isEmpty()) {
-                            return interactHook.sendMessageEmbeds(embeds).addFiles(files);
-                        } else {
-                            return interactHook.sendMessageEmbeds(embeds);
-                        }
-                    }
-                }
+            return new CommandResponse<>(null, handleError(e, event.getUser().getIdLong()));
+        } finally {
+            if(metrics != null)
+                metrics.recordHooks(getName(), CommandHook.Type.PRE_EXECUTION, System.nanoTime() - start);
+        }
 
-                AbstractMap.SimpleEntry<T[], FileUpload> response = retrieveAndProcessResponse(userId, event);
-                T[] responseKey = response.getKey();
-                FileUpload responseValue = response.getValue();
+        return null;
+    }
 
-                if(responseValue == null) {
-                    return interactHook.sendMessageEmbeds(
-                            Arrays.asList((MessageEmbed[]) responseKey)
-                    );
-                } else {
-                    return interactHook.sendMessageEmbeds(
-                            Arrays.asList((MessageEmbed[]) responseKey)
-                    ).addFiles(responseValue);
-                }
-            } else {
-                if(!preExecHooks.isEmpty()) {
-                    ArrayList<MessageEmbed> embeds = new ArrayList<>();
-                    ArrayList<FileUpload> files = new ArrayList<>();
-                    final String[] lastResponse = new String[1];
-
-                    preExecHooks.forEach(
-                            hook -> hook
-                                    .execute(this, event, null)
-                                    .ifPresent(rawResponse -> {
-                                        if(rawResponse instanceof CommandResponse<?> cmdResponse) {
-                                            if(cmdResponse.messageResponse() instanceof MessageEmbed[] msgResponse)
-                                                embeds.addAll(List.of(msgResponse));
-                                            else
-                                                lastResponse[0] = (String) cmdResponse.messageResponse()[0];
-
-                                            try(var fileUpload = cmdResponse.fileUpload()) {
-                                                if(fileUpload != null) files.add(fileUpload);
-                                            } catch (IOException e) {
-                                                throw new RuntimeException(e);
-                                            }
-                                        }
-                                    })
-                    );
+    /**
+     * Replies with the response of a {@link CommandHook.Type#PRE_EXECUTION} hook without deferring the interaction.
+     * @param event {@link E} that contains the interaction
+     * @param response The response of the hook
+     * @return {@link CompletableFuture} of the {@link Message} that is the reply. The message is {@code null} if no
+     * hook requires the message.
+     * @see #isOriginalMessageRequired()
+     */
+    @NonNull
+    protected CompletableFuture<Message> replyWithHookResponse(
+            @NonNull final E event,
+            @NonNull final CommandResponse<?> response
+    ) {
+        final CompletableFuture<InteractionHook> reply = buildReply(event, response).submit();
 
-                    if(!files.isEmpty()) {
-                        if(lastResponse[0] != null)
-                            return interactHook.sendMessage(lastResponse[0]).addFiles(files);
-                        else if(!embeds.isEmpty())
-                            return interactHook.sendMessageEmbeds(embeds).addFiles(files);
-                    } else {
-                        if(lastResponse[0] != null)
-                            return interactHook.sendMessage(lastResponse[0]);
-                        else if(!embeds.isEmpty())
-                            return interactHook.sendMessageEmbeds(embeds);
-                    }
-                }
+        return isOriginalMessageRequired()
+                ? reply.thenCompose(hook -> hook.retrieveOriginal().submit())
+                : reply.thenApply(hook -> null);
+    }
 
-                AbstractMap.SimpleEntry<T[], FileUpload> response = retrieveAndProcessResponse(userId, event);
-                T[] responseKey = response.getKey();
-                FileUpload responseValue = response.getValue();
+    /**
+     * Determines if the reply with a response is ephemeral, which is the case if either the response or
+     * {@link #determineEphemeralStatus(GenericCommandInteractionEvent)} says so. Every reply mode uses this rule, but a
+     * deferred reply is acknowledged before the response exists, so whether it is ephemeral is decided by
+     * {@link #determineEphemeralStatus(GenericCommandInteractionEvent)} alone.
+     * @param event {@link E} that contains the interaction
+     * @param response The response to reply with
+     * @return {@code true} if the reply is ephemeral
+     */
+    protected boolean isReplyEphemeral(@NonNull final E event, @NonNull final CommandResponse<?> response) {
+        return Boolean.TRUE.equals(response.messageIsEphemeral()) || determineEphemeralStatus(event);
+    }
 
-                if(responseValue != null) {
-                    if(responseKey instanceof MessageEmbed[] embeds)
-                        return interactHook.sendMessageEmbeds(Arrays.asList(embeds)).addFiles(responseValue);
-                    else
-                        return interactHook.sendMessage((String) responseKey[0]).addFiles(responseValue);
-                } else {
-                    if(responseKey instanceof MessageEmbed[] embeds)
-                        return interactHook.sendMessageEmbeds(Arrays.asList(embeds));
+    /**
+     * Builds a reply to an interaction that has not been acknowledged yet.
+     * @param event {@link E} that contains the interaction
+     * @param response The response to reply with
+     * @return {@link ReplyCallbackAction}
+     * @see #isReplyEphemeral(GenericCommandInteractionEvent, CommandResponse)
+     */
+    @NonNull
+    protected ReplyCallbackAction buildReply(@NonNull final E event, @NonNull final CommandResponse<?> response) {
+        ReplyCallbackAction reply;
+
+        if(response.messageResponse() instanceof MessageEmbed[] embeds)
+            reply = event.replyEmbeds(Arrays.asList(embeds));
+        else
+            reply = event.reply((String) response.messageResponse()[0]);
+
+        if(response.fileUpload() != null)
+            reply.addFiles(response.fileUpload());
+
+        return reply.setEphemeral(isReplyEphemeral(event, response));
+    }
+
+    /**
+     * Runs the command on the calling thread and replies directly if it finishes within the
+     * {@link #getAdaptiveDeferralBudget() budget}. Otherwise, the reply is deferred once the budget runs out and the
+     * response is sent through the {@link InteractionHook} when the command finishes.
+     * @param event {@link E} that contains the interaction
+     * @param finisher Adds to the reply before it is sent, such as components
+     * @return {@link CompletableFuture} of the {@link Message} that is the reply of the command. The message is
+     * {@code null} if the reply was not deferred and no hook requires the message.
+     */
+    @NonNull
+    protected CompletableFuture<Message> replyAdaptively(
+            @NonNull final E event,
+            @NonNull final Consumer<MessageCreateRequest<?>> finisher
+    ) {
+        final boolean msgIsEphemeral = determineEphemeralStatus(event);
+        final AtomicBoolean acknowledged = new AtomicBoolean(false);
+        final CompletableFuture<InteractionHook> deferral = new CompletableFuture<>();
+        final CommandResponse<?> response;
+
+        CompletableFuture.delayedExecutor(adaptiveDeferralBudget.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if(acknowledged.compareAndSet(false, true)) {
+                event.deferReply(msgIsEphemeral).submit().whenComplete((hook, e) -> {
+                    if(e != null)
+                        deferral.completeExceptionally(e);
                     else
-                        return interactHook.sendMessage((String) responseKey[0]);
-                }
+                        deferral.complete(hook);
+                });
             }
-        } catch(Exception e) {
-            if(isForgivingRatelimitOnError())
-                getRatelimitMap().remove(userId);
+        });
+
+        response = retrieveResponse(event.getUser().getIdLong(), event);
+
+        if(acknowledged.compareAndSet(false, true)) {
+            final ReplyCallbackAction reply = buildReply(event, response);
 
-            return interactHook.sendMessageEmbeds(handleError(e, userId));
+            finisher.accept(reply);
+
+            return isOriginalMessageRequired()
+                    ? reply.submit().thenCompose(hook -> hook.retrieveOriginal().submit())
+                    : reply.submit().thenApply(hook -> null);
+        } else {
+            return deferral.thenCompose(hook -> {
+                final WebhookMessageCreateAction<?> action = buildHookMessage(event, hook, response);
+
+                finisher.accept(action);
+
+                return action.submit().thenApply(Message.class::cast);
+            });
         }
     }
 
+    /**
+     * Builds a message sent through the {@link InteractionHook} of a deferred interaction.
+     * @param event {@link E} that contains the interaction
+     * @param hook The {@link InteractionHook} of the interaction
+     * @param response The response to send
+     * @return {@link WebhookMessageCreateAction}
+     * @see #isReplyEphemeral(GenericCommandInteractionEvent, CommandResponse)
+     */
+    @NonNull
+    protected WebhookMessageCreateAction<?> buildHookMessage(
+            @NonNull final E event,
+            @NonNull final InteractionHook hook,
+            @NonNull final CommandResponse<?> response
+    ) {
+        final WebhookMessageCreateAction<?> action;
+
+        if(response.messageResponse() instanceof MessageEmbed[] embeds)
+            action = hook.sendMessageEmbeds(Arrays.asList(embeds));
+        else
+            action = hook.sendMessage((String) response.messageResponse()[0]);
+
+        if(response.fileUpload() != null)
+            action.addFiles(response.fileUpload());
+
+        return action.setEphemeral(isReplyEphemeral(event, response));
+    }
+
+    /**
+     * Runs and processes a deferred command
+     * @param event {@link E} that contains the interaction
+     * @return {@link WebhookMessageCreateAction}
+     */
+    @NonNull
+    protected WebhookMessageCreateAction<?> processDeferredCommand(@NonNull final E event) {
+        event.deferReply(determineEphemeralStatus(event)).complete();
+
+        return buildDeferredResponse(event);
+    }
+
+    /**
+     * Runs the command and builds the response to send through the {@link InteractionHook} of a deferred
+     * interaction. This does not acknowledge the interaction itself.
+     * @param event {@link E} that contains the interaction
+     * @return {@link WebhookMessageCreateAction}
+     */
+    @NonNull
+    protected WebhookMessageCreateAction<?> buildDeferredResponse(@NonNull final E event) {
+        return buildHookMessage(event, event.getHook(), retrieveResponse(event.getUser().getIdLong(), event));
+    }
+
     /**
      * Runs and processes a non-deferred command
      * @param event {@link E} that contains the interaction
@@ -695,68 +1137,58 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
      */
     @NonNull
     protected ReplyCallbackAction processNonDeferredCommand(@NonNull final E event) {
-        final long userId = event.getUser().getIdLong();
-        final boolean msgIsEphemeral = determineEphemeralStatus(event);
-        AbstractMap.SimpleEntry<T[], FileUpload> response;
-        ReplyCallbackAction reply;
+        return buildReply(event, retrieveResponse(event.getUser().getIdLong(), event));
+    }
 
+    /**
+     * Retrieves the response of the command, replacing it with an error response if the command fails
+     * @param userId The ID of the user who called the command
+     * @param event {@link E} that contains the interaction
+     * @return The response of the command
+     */
+    @NonNull
+    private CommandResponse<?> retrieveResponse(long userId, @NonNull E event) {
         try {
-            response = retrieveAndProcessResponse(userId, event);
-
-            boolean isEmbedOnly = isOnlyEmbed();
-            T[] responseKey = response.getKey();
-            FileUpload responseValue = response.getValue();
-            if(responseValue == null) {
-                if(isEmbedOnly) {
-                    reply = event.replyEmbeds(
-                            Arrays.asList((MessageEmbed[]) responseKey)
-                    ).setEphemeral(msgIsEphemeral);
-                } else {
-                    reply = event.reply(
-                            (String) responseKey[0]
-                    ).setEphemeral(msgIsEphemeral);
-                }
-            } else {
-                if(isEmbedOnly) {
-                    reply = event.replyEmbeds(
-                            Arrays.asList((MessageEmbed[]) responseKey)
-                    ).setEphemeral(msgIsEphemeral).addFiles(responseValue);
-                } else {
-                    reply = event.reply(
-                            (String) responseKey[0]
-                    ).setEphemeral(msgIsEphemeral);
-                }
-            }
+            CommandResponse<?> responseFromCommand = executeCommand(userId, event);
 
-            return reply;
+            determineRatelimit(userId, getGuildId(event), responseFromCommand);
+            return responseFromCommand;
         } catch(Exception e) {
             if(isForgivingRatelimitOnError())
-                getRatelimitMap().remove(userId);
+                getRatelimitPolicy().forgive(userId, getGuildId(event), System.currentTimeMillis());
 
-            return event.replyEmbeds(handleError(e, userId));
+            return new CommandResponse<>(null, handleError(e, userId));
         }
     }
 
     /**
-     * Retrieves the response of the command and processes it
+     * Runs the command, or responds that it is inactive, and records how long it ran for in the {@link #getMetrics()}.
      * @param userId The ID of the user who called the command
      * @param event {@link E} that contains the interaction
      * @return The response of the command
      */
-    @SuppressWarnings("unchecked")
     @NonNull
-    private AbstractMap.SimpleEntry<T[], FileUpload> retrieveAndProcessResponse(long userId, @NonNull E event) {
-        CommandResponse<?> responseFromCommand = isActive() ? runCommand(userId, event) : inactiveCommandResponse();
+    private CommandResponse<?> executeCommand(long userId, @NonNull E event) {
+        if(!isActive())
+            return inactiveCommandResponse();
 
-        determineRatelimit(userId, responseFromCommand);
+        final CommandMetrics metrics = getMetrics();
+        final long start = System.nanoTime();
 
-        return new AbstractMap.SimpleEntry<>(
-                (T[]) responseFromCommand.messageResponse(),
-                responseFromCommand.fileUpload()
-        );
+        try {
+            return runCommand(userId, event);
+        } catch(RuntimeException e) {
+            if(metrics != null)
+                metrics.recordError(getName());
+
+            throw e;
+        } finally {
+            if(metrics != null)
+                metrics.recordExecution(getName(), System.nanoTime() - start);
+        }
     }
 
-    private boolean determineEphemeralStatus(@NonNull E event) {
+    protected boolean determineEphemeralStatus(@NonNull E event) {
         if (event.getGuild() == null) {
             return isOnlyEphemeral();
         } else {
@@ -772,16 +1204,23 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
         }
     }
 
-    private void determineRatelimit(long userId, @NonNull CommandResponse<?> responseFromCommand) {
+    private void determineRatelimit(long userId, long guildId, @NonNull CommandResponse<?> responseFromCommand) {
         if(responseFromCommand.forgiveRatelimit() != null && responseFromCommand.forgiveRatelimit()) {
-            getRatelimitMap().remove(userId);
-        } else if(
-                isUsingRatelimits() && (getRatelimitMap().get(userId) == null || getRatelimitMap().get(userId) == 0)
-        ) {
-            getRatelimitMap().put(userId, Instant.now().getEpochSecond() + getRatelimitLength());
+            getRatelimitPolicy().forgive(userId, guildId, System.currentTimeMillis());
+        } else if(isUsingRatelimits()) {
+            getRatelimitPolicy().onExecuted(userId, guildId, System.currentTimeMillis());
         }
     }
 
+    /**
+     * Gets the ID of the guild the interaction happened in
+     * @param event {@link E} that contains the interaction
+     * @return The ID of the guild, or {@code 0} if the interaction did not happen in a guild
+     */
+    protected static long getGuildId(@NonNull GenericCommandInteractionEvent event) {
+        return event.getGuild() == null ? 0 : event.getGuild().getIdLong();
+    }
+
     /**
      * Deletes a message after a certain amount of time
      * @param command The command that is being executed
@@ -892,5 +1331,165 @@ public abstract class BotCommand<T, E extends GenericCommandInteractionEvent> {
                 new EmbedBuilder().setDescription("This command is currently not active").setColor(Color.RED).build()
         );
     }
-}
 
+    /**
+     * An unmodifiable copy of the former {@code HashMap} of guild command IDs, so callers still modifying it fail
+     * instead of silently changing nothing.
+     */
+    @Deprecated
+    private static final class GuildCommandIdsCopy extends HashMap<Long, Long> {
+        private static final long serialVersionUID = 1L;
+
+        private GuildCommandIdsCopy(@NonNull Map<Long, Long> ids) {
+            super(ids);
+        }
+
+        @Override
+        public Long put(Long key, Long value) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public void putAll(Map<? extends Long, ? extends Long> map) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public Long putIfAbsent(Long key, Long value) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public Long remove(Object key) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public Long replace(Long key, Long value) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public boolean replace(Long key, Long oldValue, Long newValue) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public void replaceAll(BiFunction<? super Long, ? super Long, ? extends Long> function) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public Long compute(Long key, BiFunction<? super Long, ? super Long, ? extends Long> function) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public Long computeIfAbsent(Long key, Function<? super Long, ? extends Long> function) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public Long computeIfPresent(Long key, BiFunction<? super Long, ? super Long, ? extends Long> function) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public Long merge(Long key, Long value, BiFunction<? super Long, ? super Long, ? extends Long> function) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public void clear() {
+            throw unmodifiable();
+        }
+
+        @Override
+        @NonNull
+        public Set<Long> keySet() {
+            return Collections.unmodifiableSet(super.keySet());
+        }
+
+        @Override
+        @NonNull
+        public Collection<Long> values() {
+            return Collections.unmodifiableCollection(super.values());
+        }
+
+        @Override
+        @NonNull
+        public Set<Map.Entry<Long, Long>> entrySet() {
+            return Collections.unmodifiableSet(super.entrySet());
+        }
+
+        @NonNull
+        private static UnsupportedOperationException unmodifiable() {
+            return new UnsupportedOperationException(
+                    "Guild command IDs cannot be modified through this copy, use setGuildCommandId instead!"
+            );
+        }
+    }
+
+    /**
+     * Bridges the former {@code HashMap} of ratelimits, in UNIX seconds, to a {@link RatelimitStore}.
+     */
+    @Deprecated
+    private static final class RatelimitMapView extends HashMap<Long, Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient RatelimitStore store;
+
+        private RatelimitMapView(@NonNull RatelimitStore store) {
+            this.store = store;
+        }
+
+        @Override
+        @Nullable
+        public Long get(@Nullable Object key) {
+            if(!(key instanceof Long userId))
+                return null;
+
+            long expiresAt = store.get(userId);
+
+            return expiresAt == RatelimitStore.NONE ? null : expiresAt / 1000;
+        }
+
+        @Override
+        @Nullable
+        public Long getOrDefault(@Nullable Object key, @Nullable Long defaultValue) {
+            Long expiresAt = get(key);
+
+            return expiresAt == null ? defaultValue : expiresAt;
+        }
+
+        @Override
+        public boolean containsKey(@Nullable Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        @Nullable
+        public Long put(@NonNull Long key, @NonNull Long value) {
+            Long previous = get(key);
+
+            store.put(key, value * 1000);
+            return previous;
+        }
+
+        @Override
+        @Nullable
+        public Long remove(@Nullable Object key) {
+            Long previous = get(key);
+
+            if(previous != null)
+                store.remove((Long) key);
+
+            return previous;
+        }
+    }
+}
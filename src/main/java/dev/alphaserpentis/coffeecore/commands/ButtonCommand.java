@@ -1,23 +1,32 @@
 package dev.alphaserpentis.coffeecore.commands;
 
+import dev.alphaserpentis.coffeecore.data.bot.CommandResponse;
+import dev.alphaserpentis.coffeecore.handler.api.discord.commands.ComponentRouter;
 import io.reactivex.rxjava3.annotations.NonNull;
 import io.reactivex.rxjava3.annotations.Nullable;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
 import net.dv8tion.jda.api.events.interaction.command.GenericCommandInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.interactions.InteractionHook;
 import net.dv8tion.jda.api.interactions.components.ItemComponent;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
 import net.dv8tion.jda.api.interactions.components.buttons.ButtonStyle;
 import net.dv8tion.jda.api.requests.restaction.WebhookMessageCreateAction;
 import net.dv8tion.jda.api.requests.restaction.interactions.ReplyCallbackAction;
+import net.dv8tion.jda.api.utils.messages.MessageCreateRequest;
 
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A command that can utilize buttons
+ * <p>
+ * Button keys must not contain {@link ComponentRouter#PAYLOAD_SEPARATOR} ({@code :}), as it separates the key from the
+ * payload of {@link #generateButtonId(String, String)}. Methods that take a key throw an
+ * {@link IllegalArgumentException} if it does.
  * @param <T> The type of object to return when the command is executed.
  * @param <E> The type of event that triggers the command.
  * @see dev.alphaserpentis.coffeecore.commands.BotCommand
@@ -28,6 +37,10 @@ public abstract class ButtonCommand<T, E extends GenericCommandInteractionEvent>
      * A {@link HashMap} of buttons that can be added to a message.
      */
     protected final HashMap<String, Button> buttonHashMap = new HashMap<>();
+    /**
+     * A {@link HashMap} of handlers for specific buttons, mapped by the buttons' keys.
+     */
+    protected final HashMap<String, ComponentHandler<ButtonInteractionEvent>> buttonHandlers = new HashMap<>();
 
     public ButtonCommand() {
         super();
@@ -38,7 +51,7 @@ public abstract class ButtonCommand<T, E extends GenericCommandInteractionEvent>
     }
 
     /**
-     * This method is called when a button is pressed.
+     * This method is called when a button without a handler is pressed.
      * @param event The event that triggered the button press.
      * @return An optional object after button execution. This may be empty.
      */
@@ -71,13 +84,34 @@ public abstract class ButtonCommand<T, E extends GenericCommandInteractionEvent>
         return buttonHashMap;
     }
 
+    /**
+     * Returns the {@link #buttonHandlers} field.
+     * @return The handlers of the buttons.
+     */
+    @NonNull
+    public HashMap<String, ComponentHandler<ButtonInteractionEvent>> getButtonHandlers() {
+        return buttonHandlers;
+    }
+
+    /**
+     * Sets the handler of the button with the key, instead of handling it through
+     * {@link #runButtonInteraction(ButtonInteractionEvent)}. Handlers must be set before the command is registered.
+     * @param key The key of the button.
+     * @param handler The handler of the button.
+     * @throws IllegalArgumentException If the key contains {@link ComponentRouter#PAYLOAD_SEPARATOR}.
+     */
+    public void setButtonHandler(@NonNull String key, @NonNull ComponentHandler<ButtonInteractionEvent> handler) {
+        buttonHandlers.put(ComponentRouter.checkKey(key), handler);
+    }
+
     /**
      * Easy way to add a {@link Button} to the {@link #buttonHashMap}.
      * @param key Unique key for the button. An {@link IllegalArgumentException} will be thrown if the key is already in use.
      * @param style The style of button.
      * @param label Text to display on the button. This cannot be null.
      * @param disabled Determines if the button is disabled.
-     * @throws IllegalArgumentException If the key is already in use.
+     * @throws IllegalArgumentException If the key is already in use or contains
+     * {@link ComponentRouter#PAYLOAD_SEPARATOR}.
      */
     public void addButton(@NonNull String key, @NonNull ButtonStyle style, @NonNull String label, boolean disabled) {
         if(buttonHashMap.containsKey(key))
@@ -93,7 +127,8 @@ public abstract class ButtonCommand<T, E extends GenericCommandInteractionEvent>
      * @param label Text to display on the button. This may be null.
      * @param emoji {@link Emoji} to display on the button. This may be null.
      * @param disabled Determines if the button is disabled.
-     * @throws IllegalArgumentException If the key is already in use.
+     * @throws IllegalArgumentException If the key is already in use or contains
+     * {@link ComponentRouter#PAYLOAD_SEPARATOR}.
      */
     public void addButton(
             @NonNull String key,
@@ -112,31 +147,53 @@ public abstract class ButtonCommand<T, E extends GenericCommandInteractionEvent>
      * Generate a button id. This id is used for identification purposes.
      * @param key Unique identifier for the button.
      * @return {@link String} The generated key.
+     * @throws IllegalArgumentException If the key contains {@link ComponentRouter#PAYLOAD_SEPARATOR}.
      */
     @NonNull
     public String generateButtonId(@NonNull String key) {
-        return String.format("%s_%s", getName(), key);
+        return ComponentRouter.encode(getName(), key);
+    }
+
+    /**
+     * Generate a button id that carries a payload, such as the state of a paginated message. The payload is passed to
+     * the button's handler.
+     * @param key Unique identifier for the button.
+     * @param payload The payload to carry.
+     * @return {@link String} The generated key.
+     * @throws IllegalArgumentException If the key contains {@link ComponentRouter#PAYLOAD_SEPARATOR}.
+     * @see #setButtonHandler(String, ComponentHandler)
+     */
+    @NonNull
+    public String generateButtonId(@NonNull String key, @NonNull String payload) {
+        return ComponentRouter.encode(getName(), key, payload);
     }
 
     /**
      * Convert a component (button) id to a key.
      * @param componentId The component (button) id.
-     * @return {@link String} The key associated with the component (button) id.
+     * @return {@link String} The key associated with the component (button) id, without its payload.
+     * @see ComponentRouter#keyOf(String, String)
      */
     @NonNull
     public String convertComponentIdToKey(@NonNull String componentId) {
-        return componentId.substring(getName().length() + 1);
+        return ComponentRouter.keyOf(getName(), componentId);
     }
 
     @Override
-    @NonNull
+    @Nullable
+    @Deprecated
     public Message handleReply(
             @NonNull final E event,
             @NonNull final BotCommand<?, E> cmd
     ) {
+        final CommandResponse<?> hookResponse = cmd.runPreExecutionHooks(event);
         Collection<ItemComponent> buttons;
 
-        if(cmd.isDeferReplies()) {
+        if(hookResponse != null) {
+            return cmd.replyWithHookResponse(event, hookResponse).join();
+        } else if(cmd.isAdaptiveDeferral()) {
+            return cmd.replyAdaptively(event, request -> addButtonsToRequest(event, request)).join();
+        } else if(cmd.isDeferReplies()) {
             final WebhookMessageCreateAction<?> action = cmd.processDeferredCommand(event);
 
             buttons = addButtonsToMessage(event);
@@ -150,10 +207,63 @@ public abstract class ButtonCommand<T, E extends GenericCommandInteractionEvent>
 
             buttons = addButtonsToMessage(event);
 
-            if(buttons.isEmpty())
-                return action.complete().retrieveOriginal().complete();
-            else
-                return action.addActionRow(buttons).complete().retrieveOriginal().complete();
+            if(!buttons.isEmpty())
+                action.addActionRow(buttons);
+
+            InteractionHook hook = action.complete();
+
+            return cmd.isOriginalMessageRequired() ? hook.retrieveOriginal().complete() : null;
         }
     }
+
+    @Override
+    @NonNull
+    public CompletableFuture<Message> handleReplyAsync(
+            @NonNull final E event,
+            @NonNull final BotCommand<?, E> cmd
+    ) {
+        final CommandResponse<?> hookResponse = cmd.runPreExecutionHooks(event);
+        Collection<ItemComponent> buttons;
+
+        if(hookResponse != null) {
+            return cmd.replyWithHookResponse(event, hookResponse);
+        } else if(cmd.isAdaptiveDeferral()) {
+            return cmd.replyAdaptively(event, request -> addButtonsToRequest(event, request));
+        } else if(cmd.isDeferReplies()) {
+            final CompletableFuture<InteractionHook> deferral = event
+                    .deferReply(cmd.determineEphemeralStatus(event))
+                    .submit();
+            final WebhookMessageCreateAction<?> action = cmd.buildDeferredResponse(event);
+
+            buttons = addButtonsToMessage(event);
+
+            if(!buttons.isEmpty())
+                action.addActionRow(buttons);
+
+            return deferral.thenCompose(hook -> action.submit().thenApply(Message.class::cast));
+        } else {
+            final ReplyCallbackAction action = cmd.processNonDeferredCommand(event);
+
+            buttons = addButtonsToMessage(event);
+
+            if(!buttons.isEmpty())
+                action.addActionRow(buttons);
+
+            return cmd.isOriginalMessageRequired()
+                    ? action.submit().thenCompose(hook -> hook.retrieveOriginal().submit())
+                    : action.submit().thenApply(hook -> null);
+        }
+    }
+
+    /**
+     * Adds the buttons of {@link #addButtonsToMessage(GenericCommandInteractionEvent)} to a reply, if there are any.
+     * @param event The event that triggered the command.
+     * @param request The reply to add the buttons to.
+     */
+    private void addButtonsToRequest(@NonNull final E event, @NonNull final MessageCreateRequest<?> request) {
+        Collection<ItemComponent> buttons = addButtonsToMessage(event);
+
+        if(!buttons.isEmpty())
+            request.addActionRow(buttons);
+    }
 }
@@ -0,0 +1,23 @@
+package dev.alphaserpentis.coffeecore.commands;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+import net.dv8tion.jda.api.events.interaction.GenericInteractionCreateEvent;
+
+import java.util.Optional;
+
+/**
+ * Handles the interactions of a single component (button or modal) of a command.
+ * @param <E> The type of event that triggers the component.
+ * @see dev.alphaserpentis.coffeecore.handler.api.discord.commands.ComponentRouter
+ */
+@FunctionalInterface
+public interface ComponentHandler<E extends GenericInteractionCreateEvent> {
+    /**
+     * This method is called when the component is interacted with.
+     * @param event The event that triggered the component.
+     * @param payload The payload carried by the component's ID, or an empty string if it does not carry one.
+     * @return An optional object after the interaction. This may be empty.
+     */
+    @NonNull
+    Optional<?> handle(@NonNull E event, @NonNull String payload);
+}
@@ -3,6 +3,7 @@ package dev.alphaserpentis.coffeecore.commands;
 import io.reactivex.rxjava3.annotations.NonNull;
 import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
 
+import java.util.Map;
 import java.util.Optional;
 
 public interface ModalCommand {
@@ -13,4 +14,14 @@ public interface ModalCommand {
      */
     @NonNull
     Optional<?> runModalInteraction(@NonNull final ModalInteractionEvent event);
+
+    /**
+     * Handlers of the command's modals, mapped by their keys. Modals without a handler are handled by
+     * {@link #runModalInteraction(ModalInteractionEvent)}.
+     * @return The handlers of the modals. May be empty.
+     */
+    @NonNull
+    default Map<String, ComponentHandler<ModalInteractionEvent>> getModalHandlers() {
+        return Map.of();
+    }
 }
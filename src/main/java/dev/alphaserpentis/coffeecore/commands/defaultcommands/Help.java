@@ -2,20 +2,18 @@ package dev.alphaserpentis.coffeecore.commands.defaultcommands;
 
 import dev.alphaserpentis.coffeecore.commands.BotCommand;
 import dev.alphaserpentis.coffeecore.data.bot.CommandResponse;
+import dev.alphaserpentis.coffeecore.handler.api.discord.commands.CommandRegistry;
 import io.reactivex.rxjava3.annotations.NonNull;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 public class Help extends BotCommand<MessageEmbed, SlashCommandInteractionEvent> {
-    private static List<BotCommand<?, ?>> cachedSlashCommands = null;
-    private static List<BotCommand<?, ?>> cachedUserContextCommands = null;
-    private static List<BotCommand<?, ?>> cachedMessageContextCommands = null;
-
     public Help() {
         super(
                 new BotCommandOptions()
@@ -35,14 +33,22 @@ public class Help extends BotCommand<MessageEmbed, SlashCommandInteractionEvent>
         EmbedBuilder eb = new EmbedBuilder();
         StringBuilder sb = new StringBuilder();
 
-        if(cachedSlashCommands == null) // This assumes everything else is null
-            cacheCommands(getCore().getCommandsHandler().getCommands());
-        if(!cachedSlashCommands.isEmpty())
-            addCommandsToHelp(sb, cachedSlashCommands, "Slash Commands");
-        if(!cachedUserContextCommands.isEmpty())
-            addCommandsToHelp(sb, cachedUserContextCommands, "User Context Commands");
-        if(!cachedMessageContextCommands.isEmpty())
-            addCommandsToHelp(sb, cachedMessageContextCommands, "Message Context Commands");
+        CommandRegistry registry = getCore().getCommandsHandler().getCommandRegistry();
+        List<BotCommand<?, ?>> slashCommands = registry.getCommands(Command.Type.SLASH);
+        List<BotCommand<?, ?>> userContextCommands = registry.getCommands(Command.Type.USER);
+        List<BotCommand<?, ?>> messageContextCommands = registry.getCommands(Command.Type.MESSAGE);
+
+        if(!registry.getCommands(Command.Type.UNKNOWN).isEmpty()) {
+            slashCommands = new ArrayList<>(slashCommands);
+            slashCommands.addAll(registry.getCommands(Command.Type.UNKNOWN));
+        }
+
+        if(!slashCommands.isEmpty())
+            addCommandsToHelp(sb, slashCommands, "Slash Commands");
+        if(!userContextCommands.isEmpty())
+            addCommandsToHelp(sb, userContextCommands, "User Context Commands");
+        if(!messageContextCommands.isEmpty())
+            addCommandsToHelp(sb, messageContextCommands, "Message Context Commands");
 
         eb.setTitle("Help");
         eb.setFooter("Built using Coffee Core");
@@ -70,19 +76,4 @@ public class Help extends BotCommand<MessageEmbed, SlashCommandInteractionEvent>
             sb.append("**").append(command.getName()).append("**\n").append(desc).append('\n');
         }
     }
-
-    private static void cacheCommands(@NonNull List<BotCommand<?, ?>> listOfCommands) {
-        cachedSlashCommands = new ArrayList<>();
-        cachedUserContextCommands = new ArrayList<>();
-        cachedMessageContextCommands = new ArrayList<>();
-
-        listOfCommands.forEach(cmd -> {
-            switch(cmd.getCommandType()) {
-                case SLASH, UNKNOWN -> cachedSlashCommands.add(cmd);
-                case USER -> cachedUserContextCommands.add(cmd);
-                case MESSAGE -> cachedMessageContextCommands.add(cmd);
-                default -> throw new IllegalStateException("Unexpected value: " + cmd.getCommandType());
-            }
-        });
-    }
 }
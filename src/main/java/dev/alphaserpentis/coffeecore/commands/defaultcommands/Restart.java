@@ -4,11 +4,11 @@ import dev.alphaserpentis.coffeecore.commands.BotCommand;
 import dev.alphaserpentis.coffeecore.data.bot.CommandResponse;
 import io.reactivex.rxjava3.annotations.NonNull;
 import net.dv8tion.jda.api.EmbedBuilder;
-import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
-import net.dv8tion.jda.api.interactions.commands.Command;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
 
 /**
  * Default command that restarts the specified shard. This will not work on non-sharded bots!
@@ -54,11 +54,9 @@ public class Restart extends BotCommand<MessageEmbed, SlashCommandInteractionEve
     }
 
     @Override
-    public void updateCommand(@NonNull JDA jda) {
-        Command cmd = jda.upsertCommand(name, description)
-                .addOption(OptionType.INTEGER, "shard", "The shard to restart.", true)
-                .complete();
-
-        setGlobalCommandId(cmd.getIdLong());
+    @NonNull
+    public CommandData getCommandData() {
+        return Commands.slash(name, description)
+                .addOption(OptionType.INTEGER, "shard", "The shard to restart.", true);
     }
 }
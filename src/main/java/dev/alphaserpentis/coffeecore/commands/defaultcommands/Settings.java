@@ -7,11 +7,12 @@ import dev.alphaserpentis.coffeecore.data.entity.UserData;
 import dev.alphaserpentis.coffeecore.handler.api.discord.entities.DataHandler;
 import io.reactivex.rxjava3.annotations.NonNull;
 import net.dv8tion.jda.api.EmbedBuilder;
-import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
 import net.dv8tion.jda.api.interactions.commands.build.SubcommandGroupData;
 
@@ -76,7 +77,8 @@ public class Settings extends BotCommand<MessageEmbed, SlashCommandInteractionEv
     }
 
     @Override
-    public void updateCommand(@NonNull JDA jda) {
+    @NonNull
+    public CommandData getCommandData() {
         SubcommandGroupData userSettings = new SubcommandGroupData(
                 "user",
                 "Configure your personal settings with the bot"
@@ -98,9 +100,7 @@ public class Settings extends BotCommand<MessageEmbed, SlashCommandInteractionEv
                         )
                 );
 
-        jda.upsertCommand(name, description).addSubcommandGroups(userSettings, serverSettings).queue(
-                (cmd) -> setGlobalCommandId(cmd.getIdLong())
-        );
+        return Commands.slash(name, description).addSubcommandGroups(userSettings, serverSettings);
     }
 
     public boolean isUserPermissioned(@NonNull Member member) {
@@ -118,8 +118,6 @@ public class Settings extends BotCommand<MessageEmbed, SlashCommandInteractionEv
             ud.setShowFullStackTrace(true);
             eb.setDescription("The bot will now show the full stack trace.");
         }
-
-        dh.updateEntityData();
     }
 
     private void setServerEphemeral(long guildId, EmbedBuilder eb) {
@@ -133,7 +131,5 @@ public class Settings extends BotCommand<MessageEmbed, SlashCommandInteractionEv
             sd.setOnlyEphemeral(true);
             eb.setDescription("The bot's responses are now ephemeral.");
         }
-
-        dh.updateEntityData();
     }
 }
@@ -1,6 +1,5 @@
 package dev.alphaserpentis.coffeecore.core;
 
-import com.google.gson.reflect.TypeToken;
 import dev.alphaserpentis.coffeecore.commands.BotCommand;
 import dev.alphaserpentis.coffeecore.commands.defaultcommands.About;
 import dev.alphaserpentis.coffeecore.commands.defaultcommands.Help;
@@ -13,19 +12,27 @@ import dev.alphaserpentis.coffeecore.handler.api.discord.commands.CommandsHandle
 import dev.alphaserpentis.coffeecore.handler.api.discord.entities.AbstractDataHandler;
 import dev.alphaserpentis.coffeecore.handler.api.discord.entities.DataHandler;
 import dev.alphaserpentis.coffeecore.helper.ContainerHelper;
-import dev.alphaserpentis.coffeecore.serialization.EntityDataDeserializer;
+import dev.alphaserpentis.coffeecore.hook.defaults.MessageExpirationScheduler;
 import io.reactivex.rxjava3.annotations.NonNull;
 import io.reactivex.rxjava3.annotations.Nullable;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.SelfUser;
 import net.dv8tion.jda.api.entities.channel.attribute.IGuildChannelContainer;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.sharding.ShardManager;
 
 import java.io.IOException;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 /**
@@ -34,6 +41,21 @@ import java.util.concurrent.Executors;
  */
 public class CoffeeCore {
 
+    /**
+     * Enum used to determine how {@link CoffeeCore} waits for the shards to be ready.
+     */
+    public enum StartupMode {
+        /**
+         * Waits for every shard to be ready before initializing the data handler and registering commands.
+         */
+        AWAIT_ALL_SHARDS,
+        /**
+         * Initializes the data handler and registers commands for each shard as soon as that shard is ready, without
+         * waiting for the other shards. Only applies to a {@link ShardManager}.
+         */
+        PER_SHARD
+    }
+
     /**
      * The {@link JDA} instance. Mutually exclusive with {@link #shardManager}.
      */
@@ -54,6 +76,34 @@ public class CoffeeCore {
      * The {@link BotSettings} instance.
      */
     protected final BotSettings settings;
+    /**
+     * How {@link CoffeeCore} waits for the shards to be ready.
+     */
+    protected final StartupMode startupMode;
+    /**
+     * The {@link MessageExpirationScheduler} instance.
+     */
+    protected MessageExpirationScheduler messageExpirationScheduler = null;
+    /**
+     * The shards that are ready, mapped by their shard IDs. Only used with {@link StartupMode#PER_SHARD}.
+     */
+    private final Map<Integer, JDA> readyShards = new HashMap<>();
+    /**
+     * The commands to register in each shard as it becomes ready. Only used with {@link StartupMode#PER_SHARD}.
+     */
+    private HashMap<String, BotCommand<?, ?>> commandsToRegister = null;
+    /**
+     * Whether the global commands have been registered. Only used with {@link StartupMode#PER_SHARD}.
+     */
+    private boolean globalCommandsRegistered = false;
+    /**
+     * Runs the startup of each shard off of JDA's event threads. Only used with {@link StartupMode#PER_SHARD}.
+     */
+    private ExecutorService shardStartupExecutor = null;
+    /**
+     * The latest startup of each shard, mapped by their shard IDs. Only used with {@link StartupMode#PER_SHARD}.
+     */
+    private final Map<Integer, CompletableFuture<Void>> shardStartups = new ConcurrentHashMap<>();
 
     public CoffeeCore(
             @NonNull BotSettings settings,
@@ -84,22 +134,34 @@ public class CoffeeCore {
             @Nullable AbstractDataHandler<?> dataHandler,
             @Nullable CommandsHandler commandsHandler,
             @Nullable Object... additionalListeners
+    ) {
+        this(settings, container, dataHandler, commandsHandler, StartupMode.AWAIT_ALL_SHARDS, additionalListeners);
+    }
+
+    public CoffeeCore(
+            @NonNull BotSettings settings,
+            @NonNull IGuildChannelContainer container,
+            @Nullable AbstractDataHandler<?> dataHandler,
+            @Nullable CommandsHandler commandsHandler,
+            @NonNull StartupMode startupMode,
+            @Nullable Object... additionalListeners
     ) {
         this.settings = settings;
+        this.startupMode = container instanceof ShardManager ? startupMode : StartupMode.AWAIT_ALL_SHARDS;
 
         try {
             determineAndSetContainer(container);
+            this.messageExpirationScheduler = new MessageExpirationScheduler(container);
             ContainerHelper containerHelper = new ContainerHelper(container);
             this.dataHandler = Objects.requireNonNullElse(
                     dataHandler,
-                    new DataHandler<>(
-                            Path.of(settings.getServerDataPath()),
-                            new TypeToken<>() {},
-                            new EntityDataDeserializer<>()
-                    )
+                    new DataHandler<>(Path.of(settings.getServerDataPath()))
             );
 
-            this.dataHandler.init(containerHelper, this);
+            if(this.startupMode == StartupMode.PER_SHARD)
+                this.dataHandler.init(this, Executors.newSingleThreadScheduledExecutor());
+            else
+                this.dataHandler.init(containerHelper, this);
         } catch (IllegalStateException | InterruptedException | IOException | IllegalArgumentException e) {
             e.printStackTrace();
             System.exit(1);
@@ -119,6 +181,9 @@ public class CoffeeCore {
         } else {
             addEventListenersToContainer(this.commandsHandler, this.dataHandler);
         }
+
+        if(this.startupMode == StartupMode.PER_SHARD)
+            startShardsIndependently();
     }
 
     /**
@@ -157,6 +222,16 @@ public class CoffeeCore {
         return commandsHandler;
     }
 
+    /**
+     * Get the {@link MessageExpirationScheduler} instance used by the default
+     * {@link dev.alphaserpentis.coffeecore.hook.defaults.MessageExpireHook}
+     * @return {@link MessageExpirationScheduler}
+     */
+    @NonNull
+    public MessageExpirationScheduler getMessageExpirationScheduler() {
+        return messageExpirationScheduler;
+    }
+
     /**
      * Get the {@link BotSettings} instance
      * @return {@link BotSettings}
@@ -207,6 +282,11 @@ public class CoffeeCore {
         return shardManager != null;
     }
 
+    @NonNull
+    public StartupMode getStartupMode() {
+        return startupMode;
+    }
+
     /**
      * Get the bot's {@link SelfUser} instance
      * @return {@link SelfUser}
@@ -230,6 +310,9 @@ public class CoffeeCore {
     public void shutdown(@NonNull Duration duration) throws InterruptedException {
         IGuildChannelContainer container = getActiveContainer();
 
+        // Pending expirations are persisted, if enabled, rather than deleted while the bot shuts down
+        messageExpirationScheduler.close();
+
         if(container instanceof JDA j) {
             j.shutdown();
 
@@ -240,6 +323,9 @@ public class CoffeeCore {
         } else if(container instanceof ShardManager sm) {
             sm.shutdown();
         }
+
+        if(shardStartupExecutor != null)
+            shardStartupExecutor.shutdown();
     }
 
     /**
@@ -301,7 +387,27 @@ public class CoffeeCore {
             cmd.setCore(this);
         }
 
-        commandsHandler.registerCommands(commands, settings.isUpdateCommandsAtLaunch());
+        if(startupMode == StartupMode.PER_SHARD) {
+            List<JDA> shards;
+            boolean registerGlobalCommands;
+
+            // Shards that become ready afterward register the commands themselves
+            synchronized(readyShards) {
+                commandsToRegister = commands;
+                shards = new ArrayList<>(readyShards.values());
+                registerGlobalCommands = !shards.isEmpty() && !globalCommandsRegistered;
+                globalCommandsRegistered |= registerGlobalCommands;
+            }
+
+            commandsHandler.registerCommands(
+                    commands,
+                    settings.isUpdateCommandsAtLaunch(),
+                    shards,
+                    registerGlobalCommands
+            );
+        } else {
+            commandsHandler.registerCommands(commands, settings.isUpdateCommandsAtLaunch());
+        }
     }
 
     /**
@@ -324,13 +430,93 @@ public class CoffeeCore {
         } else if(container instanceof ShardManager sm) {
             shardManager = sm;
 
-            for(JDA jda: shardManager.getShards())
-                jda.awaitReady();
+            if(startupMode != StartupMode.PER_SHARD) {
+                for(JDA jda: shardManager.getShards())
+                    jda.awaitReady();
+            }
         } else {
             throw new IllegalArgumentException("The container must either be a JDA or ShardManager instance.");
         }
     }
 
+    /**
+     * Starts each shard as soon as it is ready, including shards that are restarted later on.
+     */
+    private void startShardsIndependently() {
+        shardStartupExecutor = Executors.newCachedThreadPool();
+
+        shardManager.addEventListener(new ListenerAdapter() {
+            @Override
+            public void onReady(@NonNull ReadyEvent event) {
+                startShardAsync(event.getJDA());
+            }
+        });
+
+        // Shards that were ready before the listener was added
+        for(JDA shard: shardManager.getShards()) {
+            if(shard.getStatus() == JDA.Status.CONNECTED)
+                startShardAsync(shard);
+        }
+    }
+
+    /**
+     * Starts the shard on the {@link #shardStartupExecutor}. Failures are printed, and surface through
+     * {@link #getShardStartup(int)}.
+     */
+    private void startShardAsync(@NonNull JDA shard) {
+        CompletableFuture<Void> startup = CompletableFuture.runAsync(() -> startShard(shard), shardStartupExecutor);
+
+        shardStartups.put(shard.getShardInfo().getShardId(), startup);
+        startup.exceptionally(e -> {
+            e.printStackTrace();
+            return null;
+        });
+    }
+
+    /**
+     * Gets the latest startup of a shard, which reconciles the data of its guilds and registers the commands in them.
+     * Only used with {@link StartupMode#PER_SHARD}.
+     * @param shardId The ID of the shard
+     * @return {@link CompletableFuture} that completes once the shard started, or exceptionally if it failed to start.
+     * {@code null} if the shard has not been ready yet.
+     */
+    @Nullable
+    public CompletableFuture<Void> getShardStartup(int shardId) {
+        CompletableFuture<Void> startup = shardStartups.get(shardId);
+
+        return startup == null ? null : startup.copy();
+    }
+
+    /**
+     * Reconciles the data of a shard's guilds and registers the commands in them, if the commands were registered.
+     * Interactions of the shard may already be dispatched while this runs.
+     * @param shard The shard that became ready.
+     * @throws RuntimeException If the shard failed to start. This surfaces through {@link #getShardStartup(int)}.
+     */
+    protected void startShard(@NonNull JDA shard) {
+        HashMap<String, BotCommand<?, ?>> commands;
+        boolean registerGlobalCommands;
+
+        synchronized(readyShards) {
+            if(readyShards.put(shard.getShardInfo().getShardId(), shard) == shard)
+                return;
+
+            commands = commandsToRegister;
+            registerGlobalCommands = commands != null && !globalCommandsRegistered;
+            globalCommandsRegistered |= registerGlobalCommands;
+        }
+
+        dataHandler.reconcileGuilds(shard);
+
+        if(commands != null)
+            commandsHandler.registerCommands(
+                    commands,
+                    settings.isUpdateCommandsAtLaunch(),
+                    List.of(shard),
+                    registerGlobalCommands
+            );
+    }
+
     /**
      * Add event listeners to the container. This method will add the specified listeners to the container. The
      * container can be either {@link JDA} or {@link ShardManager}.
@@ -2,6 +2,7 @@ package dev.alphaserpentis.coffeecore.core;
 
 import dev.alphaserpentis.coffeecore.data.bot.BotSettings;
 import dev.alphaserpentis.coffeecore.handler.api.discord.commands.CommandsHandler;
+import dev.alphaserpentis.coffeecore.handler.api.discord.commands.InteractionDispatcher;
 import dev.alphaserpentis.coffeecore.handler.api.discord.entities.AbstractDataHandler;
 import dev.alphaserpentis.coffeecore.helper.BuilderHelper;
 import io.reactivex.rxjava3.annotations.Experimental;
@@ -17,6 +18,8 @@ import net.dv8tion.jda.api.utils.cache.CacheFlag;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Builder class for {@link CoffeeCore}.
@@ -53,6 +56,23 @@ public class CoffeeCoreBuilder<T> {
         DEFAULT
     }
 
+    /**
+     * Enum used to determine which {@link ExecutorService} the default {@link CommandsHandler} dispatches interactions
+     * with. This is ignored if a {@link CommandsHandler} was set.
+     */
+    public enum DispatcherMode {
+        /**
+         * Dispatches interactions with {@link Executors#newCachedThreadPool()}.
+         */
+        CACHED_THREAD_POOL,
+        /**
+         * Dispatches each interaction on its own virtual thread with a bound on in-flight interactions.
+         * <p>Falls back to a bounded pool of platform threads on runtimes older than Java 21.
+         * @see InteractionDispatcher
+         */
+        VIRTUAL_THREADS
+    }
+
     protected BotSettings settings = null;
     protected AbstractDataHandler<?> dataHandler = null;
     protected CommandsHandler commandsHandler = null;
@@ -66,6 +86,9 @@ public class CoffeeCoreBuilder<T> {
     protected MemberCachePolicy memberCachePolicy = MemberCachePolicy.NONE;
     protected boolean enableSharding = false;
     protected int shardsTotal = -1;
+    protected DispatcherMode dispatcherMode = DispatcherMode.CACHED_THREAD_POOL;
+    protected int maxConcurrentInteractions = InteractionDispatcher.DEFAULT_MAX_IN_FLIGHT_INTERACTIONS;
+    protected CoffeeCore.StartupMode startupMode = CoffeeCore.StartupMode.AWAIT_ALL_SHARDS;
 
     /**
      * Builds a {@link CoffeeCore} instance with the configured settings. Initialization will begin inside Coffee Core's
@@ -82,7 +105,8 @@ public class CoffeeCoreBuilder<T> {
                 settings,
                 new BuilderHelper<>(createBuilderInstance(token)).build(),
                 dataHandler,
-                commandsHandler,
+                commandsHandler != null ? commandsHandler : new CommandsHandler(createDispatcherExecutor()),
+                startupMode,
                 additionalListeners
         );
     }
@@ -240,6 +264,56 @@ public class CoffeeCoreBuilder<T> {
         return this;
     }
 
+    /**
+     * Sets the {@link DispatcherMode} of the default {@link CommandsHandler}. This is ignored if a
+     * {@link CommandsHandler} was set.
+     * @param dispatcherMode The dispatcher mode.
+     * @return {@link CoffeeCoreBuilder} for method chaining.
+     */
+    @NonNull
+    public CoffeeCoreBuilder<?> setDispatcherMode(@NonNull DispatcherMode dispatcherMode) {
+        this.dispatcherMode = dispatcherMode;
+        return this;
+    }
+
+    /**
+     * Sets the maximum amount of interactions that may be in-flight at once. Only applies to
+     * {@link DispatcherMode#VIRTUAL_THREADS}.
+     * @param maxConcurrentInteractions The maximum amount of in-flight interactions. Must be greater than 0.
+     * @return {@link CoffeeCoreBuilder} for method chaining.
+     * @see InteractionDispatcher#InteractionDispatcher(int)
+     */
+    @NonNull
+    public CoffeeCoreBuilder<?> setMaxConcurrentInteractions(int maxConcurrentInteractions) {
+        this.maxConcurrentInteractions = maxConcurrentInteractions;
+        return this;
+    }
+
+    /**
+     * Sets how {@link CoffeeCore} waits for the shards to be ready. Only applies if sharding is enabled.
+     * @param startupMode The startup mode.
+     * @return {@link CoffeeCoreBuilder} for method chaining.
+     * @see CoffeeCore.StartupMode
+     */
+    @NonNull
+    public CoffeeCoreBuilder<?> setStartupMode(@NonNull CoffeeCore.StartupMode startupMode) {
+        this.startupMode = startupMode;
+        return this;
+    }
+
+    /**
+     * Creates the {@link ExecutorService} for the default {@link CommandsHandler} based upon the
+     * {@link DispatcherMode}.
+     * @return {@link ExecutorService}
+     */
+    @NonNull
+    private ExecutorService createDispatcherExecutor() {
+        return switch(dispatcherMode) {
+            case CACHED_THREAD_POOL -> Executors.newCachedThreadPool();
+            case VIRTUAL_THREADS -> new InteractionDispatcher(maxConcurrentInteractions);
+        };
+    }
+
     /**
      * Creates and configures a {@link JDABuilder} based upon this class's configuration.
      * @param token The Discord bot token.
@@ -1,6 +1,55 @@
 package dev.alphaserpentis.coffeecore.data.entity;
 
+import io.reactivex.rxjava3.annotations.Nullable;
+
 /**
- * Empty class to be used as a common superclass for all entity data classes.
+ * The common superclass for all entity data classes.
+ * <p>
+ * Subclasses should call {@link #markDirty()} whenever their data changes so that the data handler writes the entity
+ * on the next flush.
  */
-public abstract class EntityData { }
+public abstract class EntityData {
+    /**
+     * Notified whenever the entity is marked dirty. This is set by the data handler that owns the entity.
+     */
+    private transient volatile Runnable changeListener;
+    /**
+     * Whether the entity changed since it was last written.
+     */
+    private transient volatile boolean dirty;
+
+    /**
+     * Marks the entity as changed and notifies the owning data handler.
+     */
+    protected void markDirty() {
+        Runnable listener = changeListener;
+
+        dirty = true;
+
+        if(listener != null)
+            listener.run();
+    }
+
+    /**
+     * Checks if the entity changed since it was last written.
+     * @return {@code true} if the entity is dirty, {@code false} otherwise.
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Clears the dirty flag. This is called by the data handler before the entity is written.
+     */
+    public void clearDirty() {
+        dirty = false;
+    }
+
+    /**
+     * Sets the listener notified when the entity is marked dirty.
+     * @param changeListener The listener, or {@code null} to stop notifying.
+     */
+    public void setChangeListener(@Nullable Runnable changeListener) {
+        this.changeListener = changeListener;
+    }
+}
@@ -20,6 +20,7 @@ public class ServerData extends EntityData {
 
     public void setOnlyEphemeral(boolean onlyEphemeral) {
         this.onlyEphemeral = onlyEphemeral;
+        markDirty();
     }
 
     public boolean getOnlyEphemeral() {
@@ -8,6 +8,7 @@ public class UserData extends EntityData {
 
     public void setShowFullStackTrace(boolean showFullStackTrace) {
         this.showFullStackTrace = showFullStackTrace;
+        markDirty();
     }
 
     public boolean getShowFullStackTrace() {
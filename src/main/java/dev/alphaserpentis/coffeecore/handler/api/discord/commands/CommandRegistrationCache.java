@@ -0,0 +1,212 @@
+package dev.alphaserpentis.coffeecore.handler.api.discord.commands;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A file that remembers the commands last registered in each scope (global or guild). Each scope keeps a fingerprint
+ * of its {@link CommandData} along with the IDs Discord assigned to its commands, so {@link CommandsHandler} can skip
+ * retrieving the commands of scopes that have not changed since the last launch.
+ * <p>
+ * The cache only knows what this bot registered. Commands changed outside the bot are not detected until the
+ * fingerprint of the scope changes or the cache is deleted.
+ */
+public class CommandRegistrationCache {
+    /**
+     * The scope of the global commands. Guild scopes use the guild's ID.
+     */
+    public static final String GLOBAL_SCOPE = "global";
+
+    private static final Type SCOPES_TYPE = new TypeToken<Map<String, ScopeEntry>>() {}.getType();
+    private static final Gson gson = new Gson();
+
+    private final Path path;
+    private final Map<String, ScopeEntry> scopes = new ConcurrentHashMap<>();
+    private volatile boolean modified = false;
+
+    /**
+     * The commands last registered in a scope.
+     * @param fingerprint The fingerprint of the scope's {@link CommandData}.
+     * @param commandIds The IDs of the scope's commands, mapped by their names. May be empty if they are unknown.
+     */
+    public record ScopeEntry(@NonNull String fingerprint, @NonNull Map<String, Long> commandIds) {}
+
+    /**
+     * Creates the cache. Nothing is read until {@link #load()} is called.
+     * @param path The path to the cache file.
+     */
+    public CommandRegistrationCache(@NonNull Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Reads the cache file, if it exists. A cache file that cannot be parsed is treated as empty.
+     * @throws IOException If the cache file could not be read.
+     */
+    public synchronized void load() throws IOException {
+        scopes.clear();
+        modified = false;
+
+        if(!Files.exists(path))
+            return;
+
+        try(Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            Map<String, ScopeEntry> read = gson.fromJson(reader, SCOPES_TYPE);
+
+            if(read != null)
+                scopes.putAll(read);
+        } catch(JsonParseException e) {
+            // Every scope will be registered again and the cache rewritten
+            scopes.clear();
+        }
+    }
+
+    /**
+     * Writes the cache file if anything changed since it was loaded or last saved.
+     * @throws IOException If the cache file could not be written.
+     */
+    public synchronized void save() throws IOException {
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+
+        if(!modified)
+            return;
+
+        try(Writer writer = Files.newBufferedWriter(temporaryPath, StandardCharsets.UTF_8)) {
+            gson.toJson(new TreeMap<>(scopes), SCOPES_TYPE, writer);
+        }
+
+        try {
+            Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch(AtomicMoveNotSupportedException e) {
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        modified = false;
+    }
+
+    /**
+     * Gets the commands last registered in the scope.
+     * @param scope The scope.
+     * @return The entry, or {@code null} if the scope is not cached.
+     */
+    @Nullable
+    public ScopeEntry get(@NonNull String scope) {
+        return scopes.get(scope);
+    }
+
+    /**
+     * Gets the commands last registered in the scope if they match the fingerprint.
+     * @param scope The scope.
+     * @param fingerprint The fingerprint of the scope's current {@link CommandData}.
+     * @return The entry, or {@code null} if the scope is not cached or its commands changed.
+     */
+    @Nullable
+    public ScopeEntry getIfMatches(@NonNull String scope, @NonNull String fingerprint) {
+        ScopeEntry entry = scopes.get(scope);
+
+        return entry != null && entry.fingerprint().equals(fingerprint) ? entry : null;
+    }
+
+    /**
+     * Remembers the commands registered in the scope.
+     * @param scope The scope.
+     * @param entry The commands registered in the scope.
+     */
+    public void put(@NonNull String scope, @NonNull ScopeEntry entry) {
+        if(!entry.equals(scopes.put(scope, entry)))
+            modified = true;
+    }
+
+    /**
+     * Forgets the scopes that are not in the provided set, such as guilds the bot has left.
+     * @param activeScopes The scopes to keep.
+     */
+    public void retainScopes(@NonNull Set<String> activeScopes) {
+        if(scopes.keySet().retainAll(activeScopes))
+            modified = true;
+    }
+
+    @NonNull
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Computes the fingerprint of a scope's commands. The fingerprint does not depend on the order of the commands.
+     * @param commands The commands of the scope.
+     * @return The SHA-256 of the commands' canonical JSON as a hex string.
+     */
+    @NonNull
+    public static String fingerprint(@NonNull Collection<? extends CommandData> commands) {
+        Map<String, Object> canonical = new TreeMap<>();
+        MessageDigest digest;
+
+        for(CommandData cmd: commands) {
+            canonical.put(cmd.getType() + ":" + cmd.getName(), canonicalize(cmd.toData()));
+        }
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        return HexFormat.of().formatHex(digest.digest(gson.toJson(canonical).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Converts the value into one whose JSON does not depend on the iteration order of its maps.
+     */
+    @Nullable
+    private static Object canonicalize(@Nullable Object value) {
+        if(value instanceof DataObject object)
+            return canonicalize(object.toMap());
+        if(value instanceof DataArray array)
+            return canonicalize(array.toList());
+
+        if(value instanceof Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<>();
+
+            map.forEach((key, nested) -> sorted.put(String.valueOf(key), canonicalize(nested)));
+            return sorted;
+        }
+
+        if(value instanceof Collection<?> collection) {
+            List<Object> list = new ArrayList<>(collection.size());
+
+            for(Object nested: collection) {
+                list.add(canonicalize(nested));
+            }
+
+            return list;
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,132 @@
+package dev.alphaserpentis.coffeecore.handler.api.discord.commands;
+
+import dev.alphaserpentis.coffeecore.commands.BotCommand;
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+import net.dv8tion.jda.api.interactions.commands.Command;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the commands registered to {@link CommandsHandler}. Changing the commands creates a new
+ * snapshot that replaces the previous one, so lookups and iteration never need to lock or copy.
+ * <p>
+ * The lists returned by this class are unmodifiable views that stay valid after the registry is replaced.
+ */
+public final class CommandRegistry {
+    /**
+     * The registry without any commands.
+     */
+    public static final CommandRegistry EMPTY = new CommandRegistry(Map.of());
+
+    private final Map<String, BotCommand<?, ?>> commands;
+    private final List<BotCommand<?, ?>> allCommands;
+    private final List<BotCommand<?, ?>> guildCommands;
+    private final Map<Command.Type, List<BotCommand<?, ?>>> commandsByType = new EnumMap<>(Command.Type.class);
+
+    private CommandRegistry(@NonNull Map<String, BotCommand<?, ?>> commands) {
+        List<BotCommand<?, ?>> all = new ArrayList<>(commands.values());
+        List<BotCommand<?, ?>> guild = new ArrayList<>();
+
+        all.sort((a, b) -> a.getName().compareTo(b.getName()));
+
+        for(BotCommand<?, ?> cmd: all) {
+            if(cmd.getCommandVisibility() == BotCommand.CommandVisibility.GUILD)
+                guild.add(cmd);
+
+            commandsByType.computeIfAbsent(cmd.getCommandType(), type -> new ArrayList<>()).add(cmd);
+        }
+
+        commandsByType.replaceAll((type, list) -> Collections.unmodifiableList(list));
+
+        this.commands = commands;
+        this.allCommands = Collections.unmodifiableList(all);
+        this.guildCommands = Collections.unmodifiableList(guild);
+    }
+
+    /**
+     * Gets a command by its name.
+     * @param name The name of the command
+     * @return The command, or {@code null} if no command has the name
+     */
+    @Nullable
+    public BotCommand<?, ?> get(@NonNull String name) {
+        return commands.get(name);
+    }
+
+    public boolean contains(@NonNull String name) {
+        return commands.containsKey(name);
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * Gets every command, sorted by name.
+     * @return An unmodifiable list of the commands
+     */
+    @NonNull
+    public List<BotCommand<?, ?>> getCommands() {
+        return allCommands;
+    }
+
+    /**
+     * Gets the commands with {@link BotCommand.CommandVisibility#GUILD} visibility, sorted by name.
+     * @return An unmodifiable list of the guild commands
+     */
+    @NonNull
+    public List<BotCommand<?, ?>> getGuildCommands() {
+        return guildCommands;
+    }
+
+    /**
+     * Gets the commands of a type, sorted by name.
+     * @param type The type of the commands
+     * @return An unmodifiable list of the commands of the type
+     */
+    @NonNull
+    public List<BotCommand<?, ?>> getCommands(@NonNull Command.Type type) {
+        return commandsByType.getOrDefault(type, List.of());
+    }
+
+    /**
+     * Creates a registry with the commands added, replacing the commands with the same names.
+     * @param added The commands to add
+     * @return The new registry
+     */
+    @NonNull
+    public CommandRegistry with(@NonNull Collection<? extends BotCommand<?, ?>> added) {
+        Map<String, BotCommand<?, ?>> copy = new HashMap<>(commands);
+
+        for(BotCommand<?, ?> cmd: added) {
+            copy.put(cmd.getName(), cmd);
+        }
+
+        return new CommandRegistry(Collections.unmodifiableMap(copy));
+    }
+
+    /**
+     * Creates a registry without the command.
+     * @param name The name of the command to remove
+     * @return The new registry, or this registry if it does not have the command
+     */
+    @NonNull
+    public CommandRegistry without(@NonNull String name) {
+        Map<String, BotCommand<?, ?>> copy;
+
+        if(!commands.containsKey(name))
+            return this;
+
+        copy = new HashMap<>(commands);
+        copy.remove(name);
+
+        return new CommandRegistry(Collections.unmodifiableMap(copy));
+    }
+}
@@ -1,10 +1,9 @@
 package dev.alphaserpentis.coffeecore.handler.api.discord.commands;
 
 import dev.alphaserpentis.coffeecore.commands.BotCommand;
-import dev.alphaserpentis.coffeecore.commands.ButtonCommand;
-import dev.alphaserpentis.coffeecore.commands.ModalCommand;
 import dev.alphaserpentis.coffeecore.core.CoffeeCore;
 import dev.alphaserpentis.coffeecore.hook.CommandHook;
+import dev.alphaserpentis.coffeecore.metrics.CommandMetrics;
 import io.reactivex.rxjava3.annotations.NonNull;
 import io.reactivex.rxjava3.annotations.Nullable;
 import net.dv8tion.jda.api.JDA;
@@ -20,16 +19,30 @@ import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
 import net.dv8tion.jda.api.exceptions.ErrorResponseException;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.utils.data.DataObject;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 /**
  * The handler for all the commands to be registered with the bot. This handles registration and execution of the
@@ -37,10 +50,33 @@ import java.util.function.Function;
  */
 public class CommandsHandler extends ListenerAdapter {
     /**
-     * The mapping of {@link BotCommand} that have been registered to the bot. This is used to check for commands that
-     * are already registered and update them if necessary.
+     * Enum used to determine how the commands of a scope (global or guild) are reconciled with Discord.
      */
-    protected final HashMap<String, BotCommand<?, ?>> mapOfCommands = new HashMap<>();
+    public enum SyncMode {
+        /**
+         * Upserts and deletes the commands one at a time.
+         */
+        INCREMENTAL,
+        /**
+         * Compares the commands against Discord and overwrites all of them in a single request only if they differ.
+         */
+        BULK_OVERWRITE
+    }
+
+    /**
+     * The default amount of scopes (global or guild) that commands are registered in at once.
+     */
+    public static final int DEFAULT_REGISTRATION_PARALLELISM = 8;
+    /**
+     * The snapshot of the {@link BotCommand} that have been registered to the bot. This is used to check for commands
+     * that are already registered and update them if necessary. The snapshot is replaced whenever the commands change,
+     * so it is read without locking.
+     */
+    protected volatile CommandRegistry commandRegistry = CommandRegistry.EMPTY;
+    /**
+     * Routes button and modal interactions to the commands that registered them.
+     */
+    protected final ComponentRouter componentRouter = new ComponentRouter();
     /**
      * The {@link ExecutorService} that will be used to run the commands.
      */
@@ -70,6 +106,33 @@ public class CommandsHandler extends ListenerAdapter {
      * </ul>
      */
     protected Function<Throwable, ?> handleRegistrationError;
+    /**
+     * The amount of scopes (global or guild) that commands are registered in at once.
+     */
+    protected int registrationParallelism = DEFAULT_REGISTRATION_PARALLELISM;
+    /**
+     * Notified as each scope finishes registering, every minute while scopes are still registering, and once more
+     * after every scope finished. Not notified if every scope was skipped through the {@link #registrationCache}.
+     */
+    protected Consumer<RegistrationProgress> registrationProgressListener;
+    /**
+     * How the commands of each scope are reconciled with Discord.
+     */
+    protected SyncMode syncMode = SyncMode.INCREMENTAL;
+    /**
+     * Remembers the commands registered in each scope across launches. Registration does not use a cache if this is
+     * {@code null}.
+     */
+    protected CommandRegistrationCache registrationCache;
+    /**
+     * Receives the measurements of the commands as they execute. Nothing is measured if this is {@code null}.
+     */
+    protected volatile CommandMetrics metrics;
+    private volatile boolean registrationCacheLoaded = false;
+    /**
+     * Serializes the changes to the {@link #commandRegistry}.
+     */
+    private final Object registryLock = new Object();
 
     public CommandsHandler(@NonNull ExecutorService executor) {
         this.executor = executor;
@@ -93,22 +156,138 @@ public class CommandsHandler extends ListenerAdapter {
         this.handleRegistrationError = handleRegistrationError;
     }
 
+    /**
+     * Sets the amount of scopes (global or guild) that commands are registered in at once. JDA still queues requests
+     * per Discord route bucket, so this bounds how many requests are in-flight rather than bypassing ratelimits.
+     * @param registrationParallelism The amount of scopes to register at once. Must be greater than 0.
+     * @throws IllegalArgumentException If {@code registrationParallelism} is less than 1.
+     */
+    public void setRegistrationParallelism(int registrationParallelism) {
+        if(registrationParallelism < 1)
+            throw new IllegalArgumentException("registrationParallelism must be greater than 0!");
+
+        this.registrationParallelism = registrationParallelism;
+    }
+
+    public void setRegistrationProgressListener(@NonNull Consumer<RegistrationProgress> registrationProgressListener) {
+        this.registrationProgressListener = registrationProgressListener;
+    }
+
+    public void setSyncMode(@NonNull SyncMode syncMode) {
+        this.syncMode = syncMode;
+    }
+
+    /**
+     * Sets the cache used to skip scopes whose commands have not changed since the last launch. The cache is loaded
+     * when the commands are registered.
+     * @param registrationCache The cache, or {@code null} to always retrieve the commands of every scope.
+     */
+    public void setRegistrationCache(@Nullable CommandRegistrationCache registrationCache) {
+        this.registrationCache = registrationCache;
+        this.registrationCacheLoaded = false;
+    }
+
+    /**
+     * Sets where the measurements of the commands are recorded, such as a
+     * {@link dev.alphaserpentis.coffeecore.metrics.DefaultCommandMetrics} whose snapshots can be exported.
+     * @param metrics The metrics, or {@code null} to stop measuring the commands.
+     */
+    public void setMetrics(@Nullable CommandMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public int getRegistrationParallelism() {
+        return registrationParallelism;
+    }
+
+    @NonNull
+    public ComponentRouter getComponentRouter() {
+        return componentRouter;
+    }
+
+    @NonNull
+    public SyncMode getSyncMode() {
+        return syncMode;
+    }
+
+    @Nullable
+    public CommandRegistrationCache getRegistrationCache() {
+        return registrationCache;
+    }
+
+    @Nullable
+    public CommandMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Provided a mapping of {@link BotCommand}, this will check for any commands that are already registered and update
      * them if necessary. If the command is not registered, it will register it. If the command is registered, but not
      * in the mapping, it will remove it.
+     * <p>
+     * The global commands and each guild's commands are registered concurrently, up to
+     * {@link #getRegistrationParallelism()} at once. This blocks until every scope finished.
+     * <p>
+     * If a {@link #getRegistrationCache()} is set, scopes whose commands match the ones registered on the last launch
+     * are skipped entirely and their command IDs are restored from the cache. A scope is cached once every request
+     * registering its commands succeeded, but only if its commands then match the ones registered with Discord. This
+     * is always the case when {@code updateCommands} is {@code true}. Otherwise, existing commands are left as they
+     * are, so the scope is only cached if they already matched.
      * @param mapOfCommands The mapping of commands to check and register
      * @param updateCommands Whether to update the commands if they are already registered
      */
     public void registerCommands(
             @NonNull HashMap<String, BotCommand<?, ?>> mapOfCommands,
             boolean updateCommands
+    ) {
+        registerCommands(mapOfCommands, updateCommands, getShards(), true, true);
+    }
+
+    /**
+     * Registers the commands in the guilds of the provided shards, and optionally the global commands. Used when shards
+     * start independently, in which case this is called as each shard becomes ready.
+     * <p>
+     * Scopes of other shards are kept in the {@link #getRegistrationCache()}.
+     * @param mapOfCommands The mapping of commands to check and register
+     * @param updateCommands Whether to update the commands if they are already registered
+     * @param shards The shards whose guilds to register the commands in
+     * @param registerGlobalCommands Whether to register the global commands
+     * @see #registerCommands(HashMap, boolean)
+     */
+    public void registerCommands(
+            @NonNull HashMap<String, BotCommand<?, ?>> mapOfCommands,
+            boolean updateCommands,
+            @NonNull List<JDA> shards,
+            boolean registerGlobalCommands
+    ) {
+        registerCommands(mapOfCommands, updateCommands, shards, registerGlobalCommands, false);
+    }
+
+    private void registerCommands(
+            @NonNull HashMap<String, BotCommand<?, ?>> mapOfCommands,
+            boolean updateCommands,
+            @NonNull List<JDA> shards,
+            boolean registerGlobalCommands,
+            boolean pruneRegistrationCache
     ) {
         HashMap<String, BotCommand<?, ?>> mapOfGlobalCommands = new HashMap<>();
         HashMap<String, BotCommand<?, ?>> mapOfGuildCommands = new HashMap<>();
-        List<JDA> shards = getShards();
 
-        this.mapOfCommands.putAll(mapOfCommands);
+        synchronized(registryLock) {
+            for(BotCommand<?, ?> cmd: mapOfCommands.values()) {
+                BotCommand<?, ?> previous = commandRegistry.get(cmd.getName());
+
+                if(previous != cmd) {
+                    if(previous != null)
+                        componentRouter.unregisterCommand(previous);
+
+                    cmd.compileHooks();
+                    componentRouter.registerCommand(cmd);
+                }
+            }
+
+            commandRegistry = commandRegistry.with(mapOfCommands.values());
+        }
 
         // Separate the global and guild commands
         for(Map.Entry<String, BotCommand<?, ?>> entry: mapOfCommands.entrySet()) {
@@ -121,13 +300,309 @@ public class CommandsHandler extends ListenerAdapter {
             }
         }
 
-        for(JDA shard: shards) {
-            registerGlobalCommands(shard, mapOfGlobalCommands, updateCommands);
+        List<Runnable> scopes = new ArrayList<>();
+        Set<String> activeScopes = new HashSet<>();
+
+        if(shards.isEmpty())
+            return;
+
+        loadRegistrationCache();
+
+        // Global commands belong to the application rather than a shard, so they only need to be registered once
+        if(registerGlobalCommands) {
+            activeScopes.add(CommandRegistrationCache.GLOBAL_SCOPE);
+            addGlobalScope(scopes, shards.get(0), mapOfGlobalCommands, updateCommands);
+        }
 
+        for(JDA shard: shards) {
             for(Guild guild: shard.getGuilds()) {
-                registerGuildCommands(guild, mapOfGuildCommands, updateCommands);
+                activeScopes.add(guild.getId());
+                addGuildScope(scopes, guild, mapOfGuildCommands, updateCommands);
             }
         }
+
+        if(!scopes.isEmpty())
+            runRegistrationScopes(scopes);
+
+        saveRegistrationCache(pruneRegistrationCache ? activeScopes : null);
+    }
+
+    /**
+     * Adds the registration of the global commands, unless they are unchanged since the last launch.
+     */
+    private void addGlobalScope(
+            @NonNull List<Runnable> scopes,
+            @NonNull JDA shard,
+            @NonNull HashMap<String, BotCommand<?, ?>> mapOfGlobalCommands,
+            boolean updateCommands
+    ) {
+        String fingerprint = registrationCache == null ? null : CommandRegistrationCache.fingerprint(
+                mapOfGlobalCommands.values().stream().map(BotCommand::getCommandData).toList()
+        );
+
+        if(fingerprint != null) {
+            var cached = registrationCache.getIfMatches(CommandRegistrationCache.GLOBAL_SCOPE, fingerprint);
+
+            if(cached != null) {
+                cached.commandIds().forEach((name, id) -> {
+                    BotCommand<?, ?> botCmd = mapOfGlobalCommands.get(name);
+
+                    if(botCmd != null)
+                        botCmd.setGlobalCommandId(id);
+                });
+                return;
+            }
+        }
+
+        scopes.add(() -> {
+            List<CommandData> desiredCommands = mapOfGlobalCommands.values().stream()
+                    .map(BotCommand::getCommandData)
+                    .toList();
+            List<CompletableFuture<Void>> requests = List.of();
+            boolean matchesFingerprint;
+
+            if(syncMode == SyncMode.BULK_OVERWRITE) {
+                List<Command> remoteCommands = syncGlobalCommands(shard, mapOfGlobalCommands, updateCommands);
+
+                matchesFingerprint = updateCommands || isInSync(remoteCommands, desiredCommands, true, false);
+            } else {
+                List<Command> remoteCommands = shard.retrieveCommands().complete();
+
+                matchesFingerprint = updateCommands || isInSync(remoteCommands, desiredCommands, true, false);
+                requests = registerGlobalCommands(
+                        shard,
+                        mapOfGlobalCommands,
+                        updateCommands,
+                        new ArrayList<>(remoteCommands)
+                );
+            }
+
+            awaitRequests(requests, fingerprint == null || !matchesFingerprint ? null : () -> cacheScope(
+                    CommandRegistrationCache.GLOBAL_SCOPE,
+                    fingerprint,
+                    mapOfGlobalCommands,
+                    cmd -> {
+                        long id = cmd.getGlobalCommandId();
+
+                        return id == 0 ? -1 : id;
+                    }
+            ));
+        });
+    }
+
+    /**
+     * Adds the registration of the guild's commands, unless they are unchanged since the last launch.
+     */
+    private void addGuildScope(
+            @NonNull List<Runnable> scopes,
+            @NonNull Guild guild,
+            @NonNull HashMap<String, BotCommand<?, ?>> mapOfGuildCommands,
+            boolean updateCommands
+    ) {
+        String fingerprint = registrationCache == null ? null : CommandRegistrationCache.fingerprint(
+                mapOfGuildCommands.values().stream()
+                        .filter(cmd -> isGuildEligibleForCommand(guild, cmd))
+                        .map(BotCommand::getCommandData)
+                        .toList()
+        );
+
+        if(fingerprint != null) {
+            var cached = registrationCache.getIfMatches(guild.getId(), fingerprint);
+
+            if(cached != null) {
+                cached.commandIds().forEach((name, id) -> {
+                    BotCommand<?, ?> botCmd = mapOfGuildCommands.get(name);
+
+                    if(botCmd != null)
+                        botCmd.setGuildCommandId(guild.getIdLong(), id);
+                });
+                return;
+            }
+        }
+
+        scopes.add(() -> {
+            Map<String, BotCommand<?, ?>> eligibleCommands = new HashMap<>();
+            List<CompletableFuture<Void>> requests = List.of();
+            List<CommandData> desiredCommands;
+            boolean matchesFingerprint;
+
+            mapOfGuildCommands.forEach((name, botCmd) -> {
+                if(isGuildEligibleForCommand(guild, botCmd))
+                    eligibleCommands.put(name, botCmd);
+            });
+            desiredCommands = eligibleCommands.values().stream().map(BotCommand::getCommandData).toList();
+
+            if(syncMode == SyncMode.BULK_OVERWRITE) {
+                List<Command> remoteCommands = syncGuildCommands(guild, mapOfGuildCommands, updateCommands);
+
+                matchesFingerprint = updateCommands || isInSync(remoteCommands, desiredCommands, true, true);
+            } else {
+                List<Command> remoteCommands = guild.retrieveCommands().complete();
+
+                matchesFingerprint = updateCommands || isInSync(remoteCommands, desiredCommands, true, true);
+                requests = registerGuildCommands(
+                        guild,
+                        mapOfGuildCommands,
+                        updateCommands,
+                        new ArrayList<>(remoteCommands)
+                );
+            }
+
+            awaitRequests(requests, fingerprint == null || !matchesFingerprint ? null : () -> cacheScope(
+                    guild.getId(),
+                    fingerprint,
+                    eligibleCommands,
+                    cmd -> cmd.getGuildCommandId(guild)
+            ));
+        });
+    }
+
+    /**
+     * Waits for the requests registering a scope's commands, then runs the action if every request succeeded.
+     * @param requests The requests registering the scope's commands
+     * @param onSuccess Runs once every request succeeded, or {@code null} to only wait
+     * @throws RuntimeException The failure of the first request that failed
+     */
+    private void awaitRequests(@NonNull List<CompletableFuture<Void>> requests, @Nullable Runnable onSuccess) {
+        CompletableFuture<Void> all = CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new));
+
+        try {
+            (onSuccess == null ? all : all.thenRun(onSuccess)).join();
+        } catch(CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Reports the failure of each request to {@link #handleRegistrationError(Throwable)}.
+     * @param requests The requests
+     */
+    private void reportFailures(@NonNull List<CompletableFuture<Void>> requests) {
+        for(CompletableFuture<Void> request: requests) {
+            request.exceptionally(e -> {
+                handleRegistrationError(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Caches the IDs of a scope's commands, but only if every command has a known ID. Cached scopes are not retrieved
+     * on the next launch, so a command missing from the entry would be left without an ID. Commands whose
+     * {@link BotCommand#updateCommandAsync(Guild)} completes before their ID is set have no ID yet, in which case the
+     * scope is cached on a later launch instead.
+     * @param scope The scope
+     * @param fingerprint The fingerprint of the scope's commands, which the commands registered with Discord match
+     * @param commands The scope's commands, mapped by their names
+     * @param idOf Gets the ID of a command in the scope, or {@code -1} if it is unknown
+     */
+    private void cacheScope(
+            @NonNull String scope,
+            @NonNull String fingerprint,
+            @NonNull Map<String, BotCommand<?, ?>> commands,
+            @NonNull ToLongFunction<BotCommand<?, ?>> idOf
+    ) {
+        Map<String, Long> commandIds = new HashMap<>();
+
+        for(Map.Entry<String, BotCommand<?, ?>> entry: commands.entrySet()) {
+            long id = idOf.applyAsLong(entry.getValue());
+
+            if(id == -1)
+                return;
+
+            commandIds.put(entry.getKey(), id);
+        }
+
+        registrationCache.put(scope, new CommandRegistrationCache.ScopeEntry(fingerprint, commandIds));
+    }
+
+    private synchronized void loadRegistrationCache() {
+        // The cache is only read on the first registration, as later registrations would discard what it gained since
+        if(registrationCache == null || registrationCacheLoaded)
+            return;
+
+        registrationCacheLoaded = true;
+
+        try {
+            registrationCache.load();
+        } catch(IOException e) {
+            handleRegistrationError(e);
+        }
+    }
+
+    private void saveRegistrationCache(@Nullable Set<String> activeScopes) {
+        if(registrationCache == null)
+            return;
+
+        try {
+            if(activeScopes != null)
+                registrationCache.retainScopes(activeScopes);
+
+            registrationCache.save();
+        } catch(IOException e) {
+            handleRegistrationError(e);
+        }
+    }
+
+    /**
+     * Runs the registration of each scope with bounded parallelism and reports the progress, including a final report
+     * once every scope finished.
+     * @param scopes The registration of each scope
+     */
+    protected void runRegistrationScopes(@NonNull List<Runnable> scopes) {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(registrationParallelism, scopes.size()));
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        long start = System.nanoTime();
+
+        for(Runnable scope: scopes) {
+            pool.execute(() -> {
+                try {
+                    scope.run();
+                } catch(Exception e) {
+                    failed.incrementAndGet();
+                    handleRegistrationError(e);
+                } finally {
+                    reportRegistrationProgress(
+                            new RegistrationProgress(
+                                    completed.incrementAndGet(),
+                                    scopes.size(),
+                                    failed.get(),
+                                    Duration.ofNanos(System.nanoTime() - start)
+                            )
+                    );
+                }
+            });
+        }
+
+        pool.shutdown();
+
+        try {
+            while(!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                reportRegistrationProgress(
+                        new RegistrationProgress(
+                                completed.get(),
+                                scopes.size(),
+                                failed.get(),
+                                Duration.ofNanos(System.nanoTime() - start)
+                        )
+                );
+            }
+        } catch(InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        // Scopes may finish out of order, so this is the only report made after every scope finished
+        reportRegistrationProgress(
+                new RegistrationProgress(
+                        completed.get(),
+                        scopes.size(),
+                        failed.get(),
+                        Duration.ofNanos(System.nanoTime() - start)
+                )
+        );
     }
 
     /**
@@ -136,7 +611,7 @@ public class CommandsHandler extends ListenerAdapter {
      * @param guildId The ID of the guild to deregister the commands from
      */
     public void deregisterCommands(long guildId) {
-        getGuildCommands().forEach(cmd -> {
+        commandRegistry.getGuildCommands().forEach(cmd -> {
             try {
                 cmd.removeGuildCommandId(guildId);
             } catch(ErrorResponseException e) {
@@ -152,28 +627,26 @@ public class CommandsHandler extends ListenerAdapter {
      */
     public void upsertGuildCommandsToGuild(@NonNull List<BotCommand<?, ?>> cmds, @NonNull Guild guild) {
         cmds.stream().filter(cmd -> isGuildEligibleForCommand(guild, cmd)).forEach(
-                cmd -> {
-                    try {
-                        cmd.updateCommand(guild);
-                    } catch(ErrorResponseException e) {
-                        handleRegistrationError(e);
-                    }
-                }
+                cmd -> reportFailures(List.of(cmd.updateCommandAsync(guild)))
         );
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public void onSlashCommandInteraction(@NonNull SlashCommandInteractionEvent event) {
+        long receivedAt = System.nanoTime();
+
         executor.submit(() -> {
+            recordDispatch(event.getName(), receivedAt);
+
             try {
                 var cmd = Objects.requireNonNull(
                         (BotCommand<?, SlashCommandInteractionEvent>) getCommand(event.getName())
                 );
-                Message msg = cmd.handleReply(event, cmd);
 
-                executePostExecutionHook(cmd, event, msg);
+                replyAndExecutePostExecutionHook(cmd, event);
             } catch(Exception e) {
+                recordError(event.getName());
                 handleInteractionError(e);
             }
         });
@@ -182,15 +655,19 @@ public class CommandsHandler extends ListenerAdapter {
     @Override
     @SuppressWarnings("unchecked")
     public void onUserContextInteraction(@NonNull UserContextInteractionEvent event) {
+        long receivedAt = System.nanoTime();
+
         executor.submit(() -> {
+            recordDispatch(event.getName(), receivedAt);
+
             try {
                 var cmd = Objects.requireNonNull(
                         (BotCommand<?, UserContextInteractionEvent>) getCommand(event.getName())
                 );
-                Message msg = cmd.handleReply(event, cmd);
 
-                executePostExecutionHook(cmd, event, msg);
+                replyAndExecutePostExecutionHook(cmd, event);
             } catch(Exception e) {
+                recordError(event.getName());
                 handleInteractionError(e);
             }
         });
@@ -199,15 +676,19 @@ public class CommandsHandler extends ListenerAdapter {
     @Override
     @SuppressWarnings("unchecked")
     public void onMessageContextInteraction(@NonNull MessageContextInteractionEvent event) {
+        long receivedAt = System.nanoTime();
+
         executor.submit(() -> {
+            recordDispatch(event.getName(), receivedAt);
+
             try {
                 var cmd = Objects.requireNonNull(
                         (BotCommand<?, MessageContextInteractionEvent>) getCommand(event.getName())
                 );
-                Message msg = cmd.handleReply(event, cmd);
 
-                executePostExecutionHook(cmd, event, msg);
+                replyAndExecutePostExecutionHook(cmd, event);
             } catch(Exception e) {
+                recordError(event.getName());
                 handleInteractionError(e);
             }
         });
@@ -215,16 +696,25 @@ public class CommandsHandler extends ListenerAdapter {
 
     @Override
     public void onButtonInteraction(@NonNull ButtonInteractionEvent event) {
+        long receivedAt = System.nanoTime();
+
         executor.submit(() -> {
+            String buttonId = event.getComponentId();
+            var route = componentRouter.resolveButton(buttonId);
+
             try {
-                String buttonId = Objects.requireNonNull(event.getButton().getId());
-                var cmd = Objects.requireNonNull(
-                        (ButtonCommand<?, ?>) getCommand(buttonId.substring(0, buttonId.indexOf("_")))
-                );
-                var optional = cmd.runButtonInteraction(event).orElse(null);
+                Objects.requireNonNull(route);
+                recordDispatch(route.command().getName(), receivedAt);
 
-                executePostExecutionHook(cmd, event, optional);
+                long start = System.nanoTime();
+                var optional = route.handle(event, buttonId).orElse(null);
+
+                recordExecution(route.command().getName(), start);
+                executePostExecutionHook(route.command(), event, optional);
             } catch(Exception e) {
+                if(route != null)
+                    recordError(route.command().getName());
+
                 handleInteractionError(e);
             }
         });
@@ -232,55 +722,118 @@ public class CommandsHandler extends ListenerAdapter {
 
     @Override
     public void onModalInteraction(@NonNull ModalInteractionEvent event) {
+        long receivedAt = System.nanoTime();
+
         executor.submit(() -> {
+            String modalId = event.getModalId();
+            var route = componentRouter.resolveModal(modalId);
+
             try {
-                String modalId = Objects.requireNonNull(event.getModalId());
-                var cmd = Objects.requireNonNull(
-                        (BotCommand<?, ?>) getCommand(modalId.substring(0, modalId.indexOf("_")))
-                );
-                var optional = ((ModalCommand) cmd).runModalInteraction(event);
+                Objects.requireNonNull(route);
+                recordDispatch(route.command().getName(), receivedAt);
+
+                long start = System.nanoTime();
+                var optional = route.handle(event, modalId);
 
-                executePostExecutionHook(cmd, event, optional);
+                recordExecution(route.command().getName(), start);
+                executePostExecutionHook(route.command(), event, optional);
             } catch(Exception e) {
+                if(route != null)
+                    recordError(route.command().getName());
+
                 handleInteractionError(e);
             }
         });
     }
 
     /**
-     * Gets a {@link BotCommand} from the {@link #mapOfCommands}.
+     * Adds a command while the bot is running, replacing the command with the same name, and registers it with Discord
+     * in every scope (global or guild) it belongs in. If it replaces a command, the replaced command is deleted from
+     * the scopes the new command does not belong in.
+     * <p>
+     * Interactions that are already running keep using the command they started with.
+     * @param cmd The command to add
+     */
+    public void putCommand(@NonNull BotCommand<?, ?> cmd) {
+        BotCommand<?, ?> previous = swapCommand(cmd.getName(), cmd);
+        List<JDA> shards = getShards();
+
+        if(previous != null && previous != cmd)
+            deleteCommandFromDiscord(shards, previous, cmd);
+
+        if(cmd.getCommandVisibility() == BotCommand.CommandVisibility.GLOBAL) {
+            if(!shards.isEmpty())
+                reportFailures(List.of(cmd.updateCommandAsync(shards.get(0))));
+        } else {
+            for(JDA shard: shards) {
+                for(Guild guild: shard.getGuilds()) {
+                    if(isGuildEligibleForCommand(guild, cmd))
+                        reportFailures(List.of(cmd.updateCommandAsync(guild)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a command while the bot is running and deletes it from Discord.
+     * <p>
+     * Interactions that are already running keep using the command they started with.
+     * @param name The name of the command to remove
+     * @return The removed command, or {@code null} if no command has the name
+     */
+    @Nullable
+    public BotCommand<?, ?> removeCommand(@NonNull String name) {
+        BotCommand<?, ?> removed = swapCommand(name, null);
+
+        if(removed != null)
+            deleteCommandFromDiscord(getShards(), removed, null);
+
+        return removed;
+    }
+
+    /**
+     * Gets a {@link BotCommand} from the {@link #commandRegistry}.
      * @param name The name of the command to get
      * @return BotCommand or {@code null} if the command is not found
      */
     @Nullable
     public BotCommand<?, ?> getCommand(@NonNull String name) {
-        return mapOfCommands.get(name);
+        return commandRegistry.get(name);
     }
 
     /**
-     * Gets a list of all the commands that are registered.
-     * <br>
-     * <b>Recommended to cache the result of this method.</b>
+     * Gets the current snapshot of the registered commands. The snapshot does not change when commands are added or
+     * removed afterward.
+     * @return {@link CommandRegistry}
+     */
+    @NonNull
+    public CommandRegistry getCommandRegistry() {
+        return commandRegistry;
+    }
+
+    /**
+     * Gets a copy of the list of all the commands that are registered, sorted by name.
      * @return An {@link ArrayList} of {@link BotCommand} that are registered
+     * @deprecated This copies the commands on every call. Use {@link CommandRegistry#getCommands()} of
+     * {@link #getCommandRegistry()} instead!
      */
     @NonNull
+    @Deprecated
     public ArrayList<BotCommand<?, ?>> getCommands() {
-        return new ArrayList<>(mapOfCommands.values());
+        return new ArrayList<>(commandRegistry.getCommands());
     }
 
     /**
-     * Gets a list of the guild commands that are registered. May return a non-null empty list.
-     * <br>
-     * <b>Recommended to cache the result of this method.</b>
+     * Gets a copy of the list of the guild commands that are registered, sorted by name. May return a non-null empty
+     * list.
      * @return An {@link ArrayList} of {@link BotCommand} that are registered as guild commands
+     * @deprecated This copies the commands on every call. Use {@link CommandRegistry#getGuildCommands()} of
+     * {@link #getCommandRegistry()} instead!
      */
     @NonNull
+    @Deprecated
     public ArrayList<BotCommand<?, ?>> getGuildCommands() {
-        return new ArrayList<>(
-                mapOfCommands.values().stream().filter(
-                        cmd -> cmd.getCommandVisibility() == BotCommand.CommandVisibility.GUILD
-                ).toList()
-        );
+        return new ArrayList<>(commandRegistry.getGuildCommands());
     }
 
     /**
@@ -295,19 +848,113 @@ public class CommandsHandler extends ListenerAdapter {
                 && (cmd.getGuildsToRegisterIn().isEmpty() || cmd.getGuildsToRegisterIn().contains(guild.getIdLong()));
     }
 
+    /**
+     * Replaces the command with the name in the {@link #commandRegistry}.
+     * @param name The name of the command
+     * @param cmd The new command, or {@code null} to remove the command
+     * @return The previous command, or {@code null} if there was none
+     */
+    @Nullable
+    private BotCommand<?, ?> swapCommand(@NonNull String name, @Nullable BotCommand<?, ?> cmd) {
+        synchronized(registryLock) {
+            BotCommand<?, ?> previous = commandRegistry.get(name);
+
+            if(previous == cmd)
+                return previous;
+
+            if(previous != null)
+                componentRouter.unregisterCommand(previous);
+
+            if(cmd != null) {
+                if(core != null)
+                    cmd.setCore(core);
+
+                cmd.compileHooks();
+                componentRouter.registerCommand(cmd);
+                commandRegistry = commandRegistry.with(List.of(cmd));
+            } else {
+                commandRegistry = commandRegistry.without(name);
+            }
+
+            return previous;
+        }
+    }
+
+    /**
+     * Deletes a command from the scopes its replacement does not belong in.
+     * @param shards The shards to delete the command with
+     * @param cmd The command that was removed or replaced
+     * @param replacement The command replacing it, or {@code null} if it was removed
+     */
+    private void deleteCommandFromDiscord(
+            @NonNull List<JDA> shards,
+            @NonNull BotCommand<?, ?> cmd,
+            @Nullable BotCommand<?, ?> replacement
+    ) {
+        if(shards.isEmpty())
+            return;
+
+        // Upserting a command of another type creates a new command rather than replacing this one
+        boolean sameType = replacement != null && replacement.getCommandType() == cmd.getCommandType();
+
+        if(cmd.getCommandVisibility() == BotCommand.CommandVisibility.GLOBAL) {
+            boolean replacedGlobally = sameType
+                    && replacement.getCommandVisibility() == BotCommand.CommandVisibility.GLOBAL;
+
+            if(!replacedGlobally && cmd.getGlobalCommandId() != 0)
+                shards.get(0).deleteCommandById(cmd.getGlobalCommandId()).queue(null, this::handleRegistrationError);
+
+            return;
+        }
+
+        cmd.getGuildCommandIdMap().forEach((guildId, commandId) -> {
+            for(JDA shard: shards) {
+                Guild guild = shard.getGuildById(guildId);
+
+                if(guild == null)
+                    continue;
+
+                if(!sameType || !isGuildEligibleForCommand(guild, replacement))
+                    guild.deleteCommandById(commandId).queue(null, this::handleRegistrationError);
+
+                break;
+            }
+        });
+    }
+
     protected void registerGlobalCommands(
             @NonNull JDA shard,
             @NonNull HashMap<String, BotCommand<?, ?>> mapOfGlobalCommands,
             boolean updateCommands
     ) {
-        List<Command> listOfActiveGlobalCommands = shard.retrieveCommands().complete();
+        reportFailures(
+                registerGlobalCommands(shard, mapOfGlobalCommands, updateCommands, shard.retrieveCommands().complete())
+        );
+    }
+
+    /**
+     * Registers the global commands against the global commands that were already retrieved from Discord.
+     * @param shard The shard to register the commands with
+     * @param mapOfGlobalCommands The mapping of global commands
+     * @param updateCommands Whether to update the commands if they are already registered
+     * @param listOfActiveGlobalCommands The global commands registered with Discord. This list is modified.
+     * @return The requests that upsert and delete the commands, which may still be in-flight
+     */
+    @NonNull
+    protected List<CompletableFuture<Void>> registerGlobalCommands(
+            @NonNull JDA shard,
+            @NonNull HashMap<String, BotCommand<?, ?>> mapOfGlobalCommands,
+            boolean updateCommands,
+            @NonNull List<Command> listOfActiveGlobalCommands
+    ) {
+        List<CompletableFuture<Void>> requests = new ArrayList<>();
         List<String> detectedGlobalCommandNames = new ArrayList<>();
 
         // Checks for the detected global commands
         for(Iterator<Command> it = listOfActiveGlobalCommands.iterator(); it.hasNext(); ) {
             Command cmd = it.next();
 
-            if(mapOfCommands.containsKey(cmd.getName())) {
+            if(commandRegistry.contains(cmd.getName())) {
                 BotCommand<?, ?> botCmd = mapOfGlobalCommands.get(cmd.getName());
 
                 if(botCmd == null)
@@ -315,7 +962,7 @@ public class CommandsHandler extends ListenerAdapter {
 
                 botCmd.setGlobalCommandId(cmd.getIdLong());
                 if(updateCommands)
-                    botCmd.updateCommand(shard);
+                    requests.add(botCmd.updateCommandAsync(shard));
 
                 detectedGlobalCommandNames.add(cmd.getName());
 
@@ -325,13 +972,7 @@ public class CommandsHandler extends ListenerAdapter {
 
         // Fills in any gaps or removes any global commands
         // Removes unused global commands
-        listOfActiveGlobalCommands.forEach(cmd -> {
-            try{
-                shard.deleteCommandById(cmd.getId()).complete();
-            } catch(ErrorResponseException e) {
-                handleRegistrationError(e);
-            }
-        });
+        listOfActiveGlobalCommands.forEach(cmd -> requests.add(shard.deleteCommandById(cmd.getId()).submit()));
 
         if(detectedGlobalCommandNames.size() < mapOfGlobalCommands.size()) { // Adds new global commands
             List<String> missingCommands = new ArrayList<>(mapOfGlobalCommands.keySet());
@@ -339,12 +980,14 @@ public class CommandsHandler extends ListenerAdapter {
             missingCommands.removeAll(detectedGlobalCommandNames);
 
             for(String cmdName: missingCommands) {
-                mapOfGlobalCommands.get(cmdName).updateCommand(shard);
+                requests.add(mapOfGlobalCommands.get(cmdName).updateCommandAsync(shard));
             }
         }
 
         listOfActiveGlobalCommands.clear();
         detectedGlobalCommandNames.clear();
+
+        return requests;
     }
 
     protected void registerGuildCommands(
@@ -352,22 +995,44 @@ public class CommandsHandler extends ListenerAdapter {
             @NonNull HashMap<String, BotCommand<?, ?>> mapOfGuildCommands,
             boolean updateCommands
     ) {
-        List<Command> listOfActiveGuildCommands = guild.retrieveCommands().complete();
+        reportFailures(
+                registerGuildCommands(guild, mapOfGuildCommands, updateCommands, guild.retrieveCommands().complete())
+        );
+    }
+
+    /**
+     * Registers the guild's commands against the guild's commands that were already retrieved from Discord.
+     * @param guild The guild to register the commands in
+     * @param mapOfGuildCommands The mapping of guild commands
+     * @param updateCommands Whether to update the commands if they are already registered
+     * @param listOfActiveGuildCommands The guild's commands registered with Discord. This list is modified.
+     * @return The requests that upsert and delete the commands, which may still be in-flight
+     */
+    @NonNull
+    protected List<CompletableFuture<Void>> registerGuildCommands(
+            @NonNull Guild guild,
+            @NonNull HashMap<String, BotCommand<?, ?>> mapOfGuildCommands,
+            boolean updateCommands,
+            @NonNull List<Command> listOfActiveGuildCommands
+    ) {
+        List<CompletableFuture<Void>> requests = new ArrayList<>();
         List<String> detectedGuildCommandNames = new ArrayList<>();
         List<String> ignoredGuildCommandNames = new ArrayList<>();
 
         for(Iterator<Command> it = listOfActiveGuildCommands.iterator(); it.hasNext(); ) {
             Command cmd = it.next();
 
-            if(mapOfCommands.containsKey(cmd.getName())) {
+            if(commandRegistry.contains(cmd.getName())) {
                 BotCommand<?, ?> botCmd = mapOfGuildCommands.get(cmd.getName());
 
                 if(botCmd == null)
                     continue;
 
                 if(isGuildEligibleForCommand(guild, botCmd)) {
+                    botCmd.setGuildCommandId(guild.getIdLong(), cmd.getIdLong());
+
                     if(updateCommands)
-                        botCmd.updateCommand(guild);
+                        requests.add(botCmd.updateCommandAsync(guild));
 
                     detectedGuildCommandNames.add(cmd.getName());
 
@@ -382,13 +1047,7 @@ public class CommandsHandler extends ListenerAdapter {
 
         // Fills in any gaps or removes any guild commands
         // Removes unused guild commands
-        listOfActiveGuildCommands.forEach(cmd -> {
-            try{
-                guild.deleteCommandById(mapOfGuildCommands.get(cmd.getName()).getGuildCommandId(guild)).complete();
-            } catch(ErrorResponseException e) {
-                handleRegistrationError(e);
-            }
-        });
+        listOfActiveGuildCommands.forEach(cmd -> requests.add(guild.deleteCommandById(cmd.getIdLong()).submit()));
 
         if(detectedGuildCommandNames.size() < mapOfGuildCommands.size()) { // Adds new guild commands
             List<String> missingCommands = new ArrayList<>(mapOfGuildCommands.keySet());
@@ -397,25 +1056,173 @@ public class CommandsHandler extends ListenerAdapter {
             missingCommands.removeAll(ignoredGuildCommandNames);
 
             for(String cmdName: missingCommands) {
-                mapOfGuildCommands.get(cmdName).updateCommand(guild);
+                requests.add(mapOfGuildCommands.get(cmdName).updateCommandAsync(guild));
             }
         }
 
         listOfActiveGuildCommands.clear();
         detectedGuildCommandNames.clear();
+
+        return requests;
+    }
+
+    /**
+     * Overwrites the global commands with the {@link BotCommand#getCommandData()} of every global command, but only if
+     * they differ from the commands registered with Discord.
+     * @param shard The shard to register the commands with
+     * @param mapOfGlobalCommands The mapping of global commands
+     * @param updateCommands Whether to compare the full command data, or only which commands are registered
+     * @return The global commands registered with Discord after the sync
+     */
+    @NonNull
+    protected List<Command> syncGlobalCommands(
+            @NonNull JDA shard,
+            @NonNull HashMap<String, BotCommand<?, ?>> mapOfGlobalCommands,
+            boolean updateCommands
+    ) {
+        List<Command> remoteCommands = shard.retrieveCommands().complete();
+        List<CommandData> desiredCommands = mapOfGlobalCommands.values().stream()
+                .map(BotCommand::getCommandData)
+                .toList();
+
+        if(!isInSync(remoteCommands, desiredCommands, updateCommands, false))
+            remoteCommands = shard.updateCommands().addCommands(desiredCommands).complete();
+
+        for(Command cmd: remoteCommands) {
+            BotCommand<?, ?> botCmd = mapOfGlobalCommands.get(cmd.getName());
+
+            if(botCmd != null)
+                botCmd.setGlobalCommandId(cmd.getIdLong());
+        }
+
+        return remoteCommands;
+    }
+
+    /**
+     * Overwrites the guild's commands with the {@link BotCommand#getCommandData()} of every guild command the guild is
+     * eligible for, but only if they differ from the commands registered with Discord.
+     * @param guild The guild to register the commands in
+     * @param mapOfGuildCommands The mapping of guild commands
+     * @param updateCommands Whether to compare the full command data, or only which commands are registered
+     * @return The guild's commands registered with Discord after the sync
+     */
+    @NonNull
+    protected List<Command> syncGuildCommands(
+            @NonNull Guild guild,
+            @NonNull HashMap<String, BotCommand<?, ?>> mapOfGuildCommands,
+            boolean updateCommands
+    ) {
+        List<Command> remoteCommands = guild.retrieveCommands().complete();
+        List<CommandData> desiredCommands = mapOfGuildCommands.values().stream()
+                .filter(cmd -> isGuildEligibleForCommand(guild, cmd))
+                .map(BotCommand::getCommandData)
+                .toList();
+
+        if(!isInSync(remoteCommands, desiredCommands, updateCommands, true))
+            remoteCommands = guild.updateCommands().addCommands(desiredCommands).complete();
+
+        for(Command cmd: remoteCommands) {
+            BotCommand<?, ?> botCmd = mapOfGuildCommands.get(cmd.getName());
+
+            if(botCmd != null)
+                botCmd.setGuildCommandId(guild.getIdLong(), cmd.getIdLong());
+        }
+
+        return remoteCommands;
+    }
+
+    /**
+     * Checks if the commands registered with Discord match the desired commands.
+     * @param remoteCommands The commands registered with Discord
+     * @param desiredCommands The commands that should be registered
+     * @param compareData Whether to compare the full command data, or only the names and types
+     * @param guildScope Whether the commands are guild commands. Guild commands ignore the DM permission.
+     * @return {@code true} if nothing needs to be overwritten, {@code false} otherwise
+     */
+    protected boolean isInSync(
+            @NonNull List<Command> remoteCommands,
+            @NonNull List<CommandData> desiredCommands,
+            boolean compareData,
+            boolean guildScope
+    ) {
+        List<CommandData> remoteData = remoteCommands.stream().map(CommandData::fromCommand).toList();
+
+        if(remoteCommands.size() != desiredCommands.size())
+            return false;
+
+        return toComparableCommands(remoteData, compareData, guildScope)
+                .equals(toComparableCommands(desiredCommands, compareData, guildScope));
+    }
+
+    @NonNull
+    private static Map<String, Object> toComparableCommands(
+            @NonNull Collection<CommandData> commands,
+            boolean compareData,
+            boolean guildScope
+    ) {
+        Map<String, Object> comparable = new HashMap<>();
+
+        for(CommandData cmd: commands) {
+            String key = cmd.getType() + ":" + cmd.getName();
+
+            if(compareData) {
+                DataObject data = cmd.toData();
+
+                if(guildScope)
+                    data.remove("dm_permission");
+
+                comparable.put(key, data.toMap());
+            } else {
+                comparable.put(key, Boolean.TRUE);
+            }
+        }
+
+        return comparable;
+    }
+
+    /**
+     * Replies to the command without blocking the calling thread, then runs the post-execution hooks on the
+     * {@link #executor} once the reply has been sent.
+     * @param cmd The command that was triggered
+     * @param event The event that triggered the command
+     * @param <E> The type of {@link GenericCommandInteractionEvent}
+     */
+    protected <E extends GenericCommandInteractionEvent> void replyAndExecutePostExecutionHook(
+            @NonNull BotCommand<?, E> cmd,
+            @NonNull E event
+    ) {
+        // Deferred replies are acknowledged while the command runs, so the reply starts before handleReplyAsync returns
+        long sentAt = System.nanoTime();
+        CompletableFuture<Message> reply = cmd.handleReplyAsync(event, cmd);
+
+        reply
+                .thenApply(msg -> {
+                    recordReply(cmd.getName(), sentAt);
+                    return msg;
+                })
+                .thenAcceptAsync(msg -> executePostExecutionHook(cmd, event, msg), executor)
+                .exceptionally(e -> {
+                    recordError(cmd.getName());
+                    handleInteractionError(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                    return null;
+                });
     }
 
     protected void executePostExecutionHook(
             @NonNull BotCommand<?, ?> cmd,
             @NonNull GenericCommandInteractionEvent event,
-            @NonNull Message msg
+            @Nullable Message msg
     ) {
-        var hooks = cmd.getCommandHooks()
-                .stream()
-                .filter(hook -> hook.getTypeOfHook() == CommandHook.Type.POST_EXECUTION)
-                .toList();
+        long start = System.nanoTime();
+
+        for(CommandHook hook: cmd.getPostExecutionHooks()) {
+            if(hook.isAsync())
+                executeAsyncHook(cmd, () -> hook.execute(cmd, event, msg));
+            else
+                hook.execute(cmd, event, msg);
+        }
 
-        hooks.forEach(hook -> hook.execute(cmd, event, msg));
+        recordPostExecutionHooks(cmd, start);
     }
 
     protected void executePostExecutionHook(
@@ -423,12 +1230,74 @@ public class CommandsHandler extends ListenerAdapter {
             @NonNull GenericInteractionCreateEvent event,
             @Nullable Object data
     ) {
-        var hooks = cmd.getCommandHooks()
-                .stream()
-                .filter(hook -> hook.getTypeOfHook() == CommandHook.Type.POST_EXECUTION)
-                .toList();
+        long start = System.nanoTime();
+
+        for(CommandHook hook: cmd.getPostExecutionHooks()) {
+            if(hook.isAsync())
+                executeAsyncHook(cmd, () -> hook.execute(cmd, event, data));
+            else
+                hook.execute(cmd, event, data);
+        }
+
+        recordPostExecutionHooks(cmd, start);
+    }
+
+    /**
+     * Runs a hook on the {@link #executor} without waiting for it to finish.
+     * @param cmd The command the hook belongs to
+     * @param hook The execution of the hook
+     */
+    private void executeAsyncHook(@NonNull BotCommand<?, ?> cmd, @NonNull Runnable hook) {
+        executor.execute(() -> {
+            try {
+                hook.run();
+            } catch(Exception e) {
+                recordError(cmd.getName());
+                handleInteractionError(e);
+            }
+        });
+    }
+
+    /**
+     * Records an interaction being dispatched to a command and how long it waited on the {@link #executor}.
+     * @param command The name of the command
+     * @param receivedAt The {@link System#nanoTime()} the interaction was received at
+     */
+    private void recordDispatch(@NonNull String command, long receivedAt) {
+        CommandMetrics metrics = this.metrics;
+
+        if(metrics != null) {
+            metrics.recordInvocation(command);
+            metrics.recordQueueWait(command, System.nanoTime() - receivedAt);
+        }
+    }
+
+    private void recordExecution(@NonNull String command, long start) {
+        CommandMetrics metrics = this.metrics;
+
+        if(metrics != null)
+            metrics.recordExecution(command, System.nanoTime() - start);
+    }
+
+    private void recordReply(@NonNull String command, long sentAt) {
+        CommandMetrics metrics = this.metrics;
 
-        hooks.forEach(hook -> hook.execute(cmd, event, data));
+        if(metrics != null)
+            metrics.recordReply(command, System.nanoTime() - sentAt);
+    }
+
+    private void recordPostExecutionHooks(@NonNull BotCommand<?, ?> cmd, long start) {
+        CommandMetrics metrics = this.metrics;
+
+        if(metrics != null && cmd.getPostExecutionHooks().length != 0)
+            metrics.recordHooks(cmd.getName(), CommandHook.Type.POST_EXECUTION, System.nanoTime() - start);
+    }
+
+    private void recordError(@NonNull String command) {
+        CommandMetrics metrics = this.metrics;
+
+        if(metrics != null)
+            metrics.recordError(command);
     }
 
     /**
@@ -448,9 +1317,23 @@ public class CommandsHandler extends ListenerAdapter {
      */
     @SuppressWarnings("UnusedReturnValue, UnusedParameters")
     protected Optional<?> handleRegistrationError(@NonNull Throwable e) {
+        if(handleRegistrationError == null) {
+            e.printStackTrace();
+            return Optional.empty();
+        }
+
         return Optional.ofNullable(handleRegistrationError.apply(e));
     }
 
+    /**
+     * Reports the progress of registering commands to the {@link #registrationProgressListener}, if any.
+     * @param progress The progress
+     */
+    protected void reportRegistrationProgress(@NonNull RegistrationProgress progress) {
+        if(registrationProgressListener != null)
+            registrationProgressListener.accept(progress);
+    }
+
     /**
      * Returns a list of JDA instances that are being used by the bot.
      * @return An immutable list of JDA instances
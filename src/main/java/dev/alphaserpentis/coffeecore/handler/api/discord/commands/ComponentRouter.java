@@ -0,0 +1,287 @@
+package dev.alphaserpentis.coffeecore.handler.api.discord.commands;
+
+import dev.alphaserpentis.coffeecore.commands.BotCommand;
+import dev.alphaserpentis.coffeecore.commands.ButtonCommand;
+import dev.alphaserpentis.coffeecore.commands.ComponentHandler;
+import dev.alphaserpentis.coffeecore.commands.ModalCommand;
+import dev.alphaserpentis.coffeecore.util.StringRegionMap;
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+import net.dv8tion.jda.api.events.interaction.GenericInteractionCreateEvent;
+import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Routes button and modal interactions to the command and handler they belong to.
+ * <p>
+ * Component IDs are encoded as {@code <command>_<key>}, optionally followed by {@code :<payload>} to carry state. Keys
+ * cannot contain {@link #PAYLOAD_SEPARATOR}, as everything after it is the payload. An ID
+ * is first matched against the handlers registered for a (command, key) pair, then against the commands themselves,
+ * in which case {@link ButtonCommand#runButtonInteraction(ButtonInteractionEvent)} or
+ * {@link ModalCommand#runModalInteraction(ModalInteractionEvent)} handles it. Lookups match regions of the ID, so
+ * routing does not allocate.
+ * <p>
+ * Registering replaces the routing tables rather than modifying them, so interactions can be routed concurrently.
+ */
+public class ComponentRouter {
+    /**
+     * Separates the command's name from the key of the component.
+     */
+    public static final char KEY_SEPARATOR = '_';
+    /**
+     * Separates the route of the component from its payload.
+     */
+    public static final char PAYLOAD_SEPARATOR = ':';
+    /**
+     * The maximum length of a component ID allowed by Discord.
+     */
+    public static final int MAX_ID_LENGTH = 100;
+
+    private final RouteTable<ButtonInteractionEvent> buttons = new RouteTable<>();
+    private final RouteTable<ModalInteractionEvent> modals = new RouteTable<>();
+
+    /**
+     * A resolved route of a component.
+     * @param command The command the component belongs to.
+     * @param handler The handler of the component.
+     * @param <E> The type of event that triggers the component.
+     */
+    public record Route<E extends GenericInteractionCreateEvent>(
+            @NonNull BotCommand<?, ?> command,
+            @NonNull ComponentHandler<E> handler
+    ) {
+        /**
+         * Handles the interaction.
+         * @param event The event that triggered the component.
+         * @param componentId The ID of the component.
+         * @return An optional object after the interaction. This may be empty.
+         */
+        @NonNull
+        public Optional<?> handle(@NonNull E event, @NonNull String componentId) {
+            return handler.handle(event, payloadOf(componentId));
+        }
+    }
+
+    /**
+     * Registers the command's buttons and modals. Handlers that the command declared for its keys are registered too.
+     * @param cmd The command.
+     */
+    public void registerCommand(@NonNull BotCommand<?, ?> cmd) {
+        if(cmd instanceof ButtonCommand<?, ?> buttonCmd) {
+            buttons.putCommand(cmd, (event, payload) -> buttonCmd.runButtonInteraction(event));
+
+            for(Map.Entry<String, ComponentHandler<ButtonInteractionEvent>> entry:
+                    buttonCmd.getButtonHandlers().entrySet()) {
+                registerButton(cmd, entry.getKey(), entry.getValue());
+            }
+        }
+
+        if(cmd instanceof ModalCommand modalCmd) {
+            modals.putCommand(cmd, (event, payload) -> modalCmd.runModalInteraction(event));
+
+            for(Map.Entry<String, ComponentHandler<ModalInteractionEvent>> entry:
+                    modalCmd.getModalHandlers().entrySet()) {
+                registerModal(cmd, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Unregisters the command's buttons and modals, including the handlers registered for its keys.
+     * @param cmd The command.
+     */
+    public void unregisterCommand(@NonNull BotCommand<?, ?> cmd) {
+        buttons.removeCommand(cmd);
+        modals.removeCommand(cmd);
+    }
+
+    /**
+     * Registers the handler of a button.
+     * @param cmd The command the button belongs to.
+     * @param key The key of the button.
+     * @param handler The handler of the button.
+     */
+    public void registerButton(
+            @NonNull BotCommand<?, ?> cmd,
+            @NonNull String key,
+            @NonNull ComponentHandler<ButtonInteractionEvent> handler
+    ) {
+        buttons.putRoute(encode(cmd.getName(), key), new Route<>(cmd, handler));
+    }
+
+    /**
+     * Registers the handler of a modal.
+     * @param cmd The command the modal belongs to.
+     * @param key The key of the modal.
+     * @param handler The handler of the modal.
+     */
+    public void registerModal(
+            @NonNull BotCommand<?, ?> cmd,
+            @NonNull String key,
+            @NonNull ComponentHandler<ModalInteractionEvent> handler
+    ) {
+        modals.putRoute(encode(cmd.getName(), key), new Route<>(cmd, handler));
+    }
+
+    /**
+     * Resolves the route of a button.
+     * @param componentId The ID of the button.
+     * @return The route, or {@code null} if no command handles the button.
+     */
+    @Nullable
+    public Route<ButtonInteractionEvent> resolveButton(@NonNull String componentId) {
+        return buttons.resolve(componentId);
+    }
+
+    /**
+     * Resolves the route of a modal.
+     * @param modalId The ID of the modal.
+     * @return The route, or {@code null} if no command handles the modal.
+     */
+    @Nullable
+    public Route<ModalInteractionEvent> resolveModal(@NonNull String modalId) {
+        return modals.resolve(modalId);
+    }
+
+    /**
+     * Encodes the ID of a component.
+     * @param name The name of the command.
+     * @param key The key of the component. It must not contain {@link #PAYLOAD_SEPARATOR}.
+     * @return The component ID.
+     * @throws IllegalArgumentException If the key contains {@link #PAYLOAD_SEPARATOR} or the ID is longer than
+     * {@link #MAX_ID_LENGTH}.
+     */
+    @NonNull
+    public static String encode(@NonNull String name, @NonNull String key) {
+        return checkLength(name + KEY_SEPARATOR + checkKey(key));
+    }
+
+    /**
+     * Encodes the ID of a component that carries a payload.
+     * @param name The name of the command.
+     * @param key The key of the component. It must not contain {@link #PAYLOAD_SEPARATOR}.
+     * @param payload The payload.
+     * @return The component ID.
+     * @throws IllegalArgumentException If the key contains {@link #PAYLOAD_SEPARATOR} or the ID is longer than
+     * {@link #MAX_ID_LENGTH}.
+     */
+    @NonNull
+    public static String encode(@NonNull String name, @NonNull String key, @NonNull String payload) {
+        return checkLength(name + KEY_SEPARATOR + checkKey(key) + PAYLOAD_SEPARATOR + payload);
+    }
+
+    /**
+     * Checks that the key of a component can be told apart from its payload.
+     * @param key The key of the component.
+     * @return The key.
+     * @throws IllegalArgumentException If the key contains {@link #PAYLOAD_SEPARATOR}.
+     */
+    @NonNull
+    public static String checkKey(@NonNull String key) {
+        if(key.indexOf(PAYLOAD_SEPARATOR) >= 0)
+            throw new IllegalArgumentException("The key " + key + " must not contain " + PAYLOAD_SEPARATOR);
+
+        return key;
+    }
+
+    /**
+     * Gets the key of a component ID, without the payload it may carry.
+     * @param name The name of the command the component belongs to.
+     * @param componentId The component ID.
+     * @return The key.
+     */
+    @NonNull
+    public static String keyOf(@NonNull String name, @NonNull String componentId) {
+        int start = name.length() + 1;
+        int separator = componentId.indexOf(PAYLOAD_SEPARATOR, start);
+
+        return componentId.substring(start, separator < 0 ? componentId.length() : separator);
+    }
+
+    /**
+     * Gets the payload carried by a component ID.
+     * @param componentId The component ID.
+     * @return The payload, or an empty string if the ID does not carry one.
+     */
+    @NonNull
+    public static String payloadOf(@NonNull String componentId) {
+        int separator = componentId.indexOf(PAYLOAD_SEPARATOR);
+
+        return separator < 0 ? "" : componentId.substring(separator + 1);
+    }
+
+    @NonNull
+    private static String checkLength(@NonNull String componentId) {
+        if(componentId.length() > MAX_ID_LENGTH)
+            throw new IllegalArgumentException(
+                    "Component IDs cannot be longer than " + MAX_ID_LENGTH + " characters: " + componentId
+            );
+
+        return componentId;
+    }
+
+    /**
+     * The routes of one kind of component.
+     */
+    private static class RouteTable<E extends GenericInteractionCreateEvent> {
+        /**
+         * Routes of (command, key) pairs, mapped by {@code <command>_<key>}.
+         */
+        private volatile StringRegionMap<Route<E>> routes = new StringRegionMap<>();
+        /**
+         * Routes of whole commands, mapped by the commands' names.
+         */
+        private volatile StringRegionMap<Route<E>> commands = new StringRegionMap<>();
+
+        @Nullable
+        private Route<E> resolve(@NonNull String componentId) {
+            int separator = componentId.indexOf(PAYLOAD_SEPARATOR);
+            Route<E> route = routes.get(componentId, 0, separator < 0 ? componentId.length() : separator);
+            StringRegionMap<Route<E>> commands = this.commands;
+
+            if(route != null)
+                return route;
+
+            // Command names may contain the key separator, so try every occurrence of it
+            for(int i = componentId.indexOf(KEY_SEPARATOR); i >= 0; i = componentId.indexOf(KEY_SEPARATOR, i + 1)) {
+                route = commands.get(componentId, 0, i);
+
+                if(route != null)
+                    return route;
+            }
+
+            return null;
+        }
+
+        private synchronized void putRoute(@NonNull String routeId, @NonNull Route<E> route) {
+            StringRegionMap<Route<E>> copy = new StringRegionMap<>(routes);
+
+            copy.put(routeId, route);
+            routes = copy;
+        }
+
+        private synchronized void putCommand(@NonNull BotCommand<?, ?> cmd, @NonNull ComponentHandler<E> handler) {
+            StringRegionMap<Route<E>> copy = new StringRegionMap<>(commands);
+
+            copy.put(cmd.getName(), new Route<>(cmd, handler));
+            commands = copy;
+        }
+
+        private synchronized void removeCommand(@NonNull BotCommand<?, ?> cmd) {
+            StringRegionMap<Route<E>> routesCopy = new StringRegionMap<>();
+            StringRegionMap<Route<E>> commandsCopy = new StringRegionMap<>(commands);
+
+            routes.forEach((routeId, route) -> {
+                if(route.command() != cmd)
+                    routesCopy.put(routeId, route);
+            });
+            commandsCopy.remove(cmd.getName());
+
+            routes = routesCopy;
+            commands = commandsCopy;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package dev.alphaserpentis.coffeecore.handler.api.discord.commands;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link ExecutorService} for {@link CommandsHandler} that runs each interaction on its own virtual thread while
+ * capping how many interactions may be in-flight at once. Interactions over the cap wait for a permit instead of
+ * spawning more work.
+ * <p>
+ * Virtual threads require Java 21+. On older runtimes, this falls back to a pool of platform threads sized to the
+ * in-flight cap, which provides the same bound.
+ */
+public class InteractionDispatcher extends AbstractExecutorService {
+    /**
+     * The default amount of interactions that may be in-flight at once.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT_INTERACTIONS = 512;
+
+    /**
+     * The underlying executor that runs the interactions.
+     */
+    private final ExecutorService delegate;
+    /**
+     * Permits for in-flight interactions. This is {@code null} if the fallback pool is in use as it bounds itself.
+     */
+    private final Semaphore inFlightPermits;
+    /**
+     * The maximum amount of interactions that may be in-flight at once.
+     */
+    private final int maxInFlightInteractions;
+
+    public InteractionDispatcher() {
+        this(DEFAULT_MAX_IN_FLIGHT_INTERACTIONS);
+    }
+
+    /**
+     * Creates a dispatcher with the specified in-flight bound.
+     * @param maxInFlightInteractions The maximum amount of interactions that may run at once. Must be greater than 0.
+     * @throws IllegalArgumentException If {@code maxInFlightInteractions} is less than 1.
+     */
+    public InteractionDispatcher(int maxInFlightInteractions) {
+        if(maxInFlightInteractions < 1)
+            throw new IllegalArgumentException("maxInFlightInteractions must be greater than 0!");
+
+        ExecutorService virtualExecutor = createVirtualThreadExecutor();
+
+        this.maxInFlightInteractions = maxInFlightInteractions;
+
+        if(virtualExecutor != null) {
+            delegate = virtualExecutor;
+            inFlightPermits = new Semaphore(maxInFlightInteractions);
+        } else {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    maxInFlightInteractions,
+                    maxInFlightInteractions,
+                    60,
+                    TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>()
+            );
+
+            pool.allowCoreThreadTimeOut(true);
+            delegate = pool;
+            inFlightPermits = null;
+        }
+    }
+
+    /**
+     * Checks if the interactions are being run on virtual threads.
+     * @return {@code true} if virtual threads are in use, {@code false} if the platform thread fallback is in use.
+     */
+    public boolean isUsingVirtualThreads() {
+        return inFlightPermits != null;
+    }
+
+    public int getMaxInFlightInteractions() {
+        return maxInFlightInteractions;
+    }
+
+    /**
+     * Gets the amount of interactions currently running.
+     * @return The amount of interactions currently running.
+     */
+    public int getInFlightInteractions() {
+        if(inFlightPermits != null)
+            return maxInFlightInteractions - inFlightPermits.availablePermits();
+        else
+            return ((ThreadPoolExecutor) delegate).getActiveCount();
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        if(inFlightPermits == null) {
+            delegate.execute(command);
+            return;
+        }
+
+        delegate.execute(() -> {
+            // Parking a virtual thread here is cheap, so the gateway thread is never blocked by the cap
+            inFlightPermits.acquireUninterruptibly();
+
+            try {
+                command.run();
+            } finally {
+                inFlightPermits.release();
+            }
+        });
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    @NonNull
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Creates a virtual thread-per-task executor if the runtime supports it. This is looked up reflectively as Coffee
+     * Core targets Java 17.
+     * @return The executor, or {@code null} if virtual threads are unavailable.
+     */
+    @Nullable
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch(ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+}
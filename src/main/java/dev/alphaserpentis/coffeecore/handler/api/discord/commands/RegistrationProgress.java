@@ -0,0 +1,23 @@
+package dev.alphaserpentis.coffeecore.handler.api.discord.commands;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.time.Duration;
+
+/**
+ * The progress of registering commands with Discord. A scope is either the global commands or a single guild's
+ * commands.
+ * @param completedScopes The amount of scopes that finished, including those that failed.
+ * @param totalScopes The total amount of scopes to register.
+ * @param failedScopes The amount of scopes that failed.
+ * @param elapsed The time since the registration started.
+ */
+public record RegistrationProgress(int completedScopes, int totalScopes, int failedScopes, @NonNull Duration elapsed) {
+    /**
+     * Checks if every scope finished.
+     * @return {@code true} if the registration is done, {@code false} otherwise.
+     */
+    public boolean isDone() {
+        return completedScopes >= totalScopes;
+    }
+}
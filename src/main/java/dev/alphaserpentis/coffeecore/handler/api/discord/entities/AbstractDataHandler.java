@@ -8,8 +8,14 @@ import dev.alphaserpentis.coffeecore.data.entity.EntityType;
 import dev.alphaserpentis.coffeecore.data.entity.ServerData;
 import dev.alphaserpentis.coffeecore.data.entity.UserData;
 import dev.alphaserpentis.coffeecore.helper.ContainerHelper;
+import dev.alphaserpentis.coffeecore.persistence.EntityDataPersistence;
+import dev.alphaserpentis.coffeecore.persistence.MappedEntityMap;
+import dev.alphaserpentis.coffeecore.util.ConcurrentLongObjectMap;
+import dev.alphaserpentis.coffeecore.util.LongLongHashMap;
+import dev.alphaserpentis.coffeecore.util.LongObjectMap;
 import io.reactivex.rxjava3.annotations.NonNull;
 import io.reactivex.rxjava3.annotations.Nullable;
+import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 
@@ -17,16 +23,21 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongPredicate;
 
 /**
  * The abstract class that handles {@link EntityData}.
@@ -64,11 +75,29 @@ public abstract class AbstractDataHandler<T extends EntityData> extends Listener
      * {@link UserData} ("user") by default
      */
     protected List<EntityType> entityTypes;
+    /**
+     * The storage backend for the entity data. If {@code null}, the whole entity data file is rewritten as JSON on
+     * every update.
+     */
+    protected EntityDataPersistence<T> persistence = null;
+    /**
+     * The IDs of the entities changed since the last flush, mapped by entity type ID.
+     */
+    private final Map<String, Set<Long>> changedEntities = new ConcurrentHashMap<>();
+    /**
+     * Whether an update was requested without specifying which entities changed.
+     */
+    private final AtomicBoolean fullFlushRequired = new AtomicBoolean(false);
     /**
      * The mapping of entity IDs to {@link EntityData}.
      * <p>
      * Mapping is structured based on a string-based identifier from the entity type to allow for different types of
      * entities to be stored.
+     * <p>
+     * The mappings of entity IDs are converted to thread-safe {@link LongObjectMap}s once during initialization, as
+     * interactions read and write them concurrently. They can still be read as a {@link Map}. Mappings added afterward
+     * must already be thread-safe {@link LongObjectMap}s, such as {@link ConcurrentLongObjectMap}. Prefer
+     * {@link #getEntities(String)} to look up entities without boxing their IDs.
      */
     public Map<String, Map<Long, T>> entityDataHashMap = new HashMap<>();
 
@@ -103,28 +132,92 @@ public abstract class AbstractDataHandler<T extends EntityData> extends Listener
             @NonNull CoffeeCore core,
             @NonNull ScheduledExecutorService executor
     ) {
+        init(core, executor);
+        reconcileGuilds(container.getGuilds(), id -> true);
+    }
+
+    /**
+     * Initializes the data handler without reconciling the guild data with the guilds the bot is in. Used when shards
+     * start independently, in which case {@link #reconcileGuilds(JDA)} is called as each shard becomes ready.
+     * @param core The {@link CoffeeCore} instance.
+     * @param executor The executor to asynchronously update the entity data file.
+     */
+    public void init(@NonNull CoffeeCore core, @NonNull ScheduledExecutorService executor) {
         this.executor = executor;
         this.core = core;
         this.entityDataHashMap = Objects.requireNonNullElse(entityDataHashMap, new HashMap<>());
 
         // Check if the entity structures have been added
         for(EntityType entityType: entityTypes) {
-            entityDataHashMap.computeIfAbsent(entityType.getId(), id -> new HashMap<>());
+            entityDataHashMap.computeIfAbsent(entityType.getId(), id -> new ConcurrentLongObjectMap<>());
         }
 
-        List<Guild> guilds = container.getGuilds();
-        ArrayList<Long> serversActuallyJoined = new ArrayList<>(guilds.size());
-        Map<Long, T> guildData = entityDataHashMap.get("guild");
+        // Converted before any interaction is dispatched, so the mapping is only read from then on
+        entityDataHashMap.replaceAll(
+                (type, entities) -> entities instanceof ConcurrentLongObjectMap || entities instanceof MappedEntityMap
+                        ? entities
+                        : new ConcurrentLongObjectMap<>(entities)
+        );
+
+        for(String type: List.copyOf(entityDataHashMap.keySet())) {
+            LongObjectMap<T> entities = getEntities(type);
+
+            // Lazily decoded entities are tracked once they are decoded, so they are not all decoded up front
+            if(entities instanceof MappedEntityMap<T> mapped)
+                mapped.setDecodeListener((id, data) -> trackEntity(type, id, data));
+            else
+                entities.forEachEntry((id, data) -> trackEntity(type, id, data));
+        }
+    }
+
+    /**
+     * Reconciles the guild data with the guilds of a shard that became ready. Guilds without data are given new data,
+     * and data of guilds that belong to the shard but that the bot is no longer in is removed.
+     * <p>
+     * The shard's interactions may already be dispatched while this runs, so guild data is only created through
+     * {@link LongObjectMap#computeIfAbsent(long, java.util.function.LongFunction)}, which is atomic with the creation
+     * of entities in {@link DataHandler#getEntityData(String, long)}.
+     * @param shard The shard that became ready.
+     */
+    public void reconcileGuilds(@NonNull JDA shard) {
+        JDA.ShardInfo shardInfo = shard.getShardInfo();
+
+        reconcileGuilds(
+                shard.getGuilds(),
+                id -> (id >>> 22) % shardInfo.getShardTotal() == shardInfo.getShardId()
+        );
+    }
+
+    /**
+     * Reconciles the guild data with the guilds the bot is in.
+     * @param guilds The guilds the bot is in.
+     * @param isOwnGuild Whether the guild data with the provided ID belongs to {@code guilds}' shard.
+     */
+    protected synchronized void reconcileGuilds(@NonNull List<Guild> guilds, @NonNull LongPredicate isOwnGuild) {
+        LongLongHashMap serversActuallyJoined = new LongLongHashMap(guilds.size());
+        LongObjectMap<T> guildData = getEntities("guild");
 
         for(Guild g: guilds) {
-            guildData.computeIfAbsent(g.getIdLong(), id -> createNewEntityData("guild"));
-            serversActuallyJoined.add(g.getIdLong());
+            guildData.computeIfAbsent(g.getIdLong(), id -> {
+                T data = createNewEntityData("guild");
+
+                trackEntity("guild", id, data);
+                markEntityChanged("guild", id);
+                return data;
+            });
+
+            serversActuallyJoined.put(g.getIdLong(), 1);
         }
 
         // Check if the bot left a server but data wasn't cleared
-        guildData.keySet().removeIf(id -> !serversActuallyJoined.contains(id));
+        for(long id: guildData.keys()) {
+            if(isOwnGuild.test(id) && !serversActuallyJoined.containsKey(id)) {
+                guildData.remove(id);
+                markEntityChanged("guild", id);
+            }
+        }
 
-        updateEntityData();
+        scheduleFlush();
     }
 
     /**
@@ -135,7 +228,27 @@ public abstract class AbstractDataHandler<T extends EntityData> extends Listener
      */
     @Nullable
     public T getEntityData(@NonNull String mapId, long id) {
-        return entityDataHashMap.get(mapId).get(id);
+        return getEntities(mapId).get(id);
+    }
+
+    /**
+     * Gets the mapping of entity IDs to {@link EntityData} of an entity type.
+     * @param entityType The identifier of the entity type.
+     * @return {@link LongObjectMap} of entity IDs to {@link EntityData}
+     * @throws IllegalArgumentException If there is no mapping for the entity type.
+     * @throws IllegalStateException If the data handler was not initialized yet, so the mapping is not a
+     * {@link LongObjectMap}.
+     */
+    @NonNull
+    public LongObjectMap<T> getEntities(@NonNull String entityType) {
+        Map<Long, T> entities = entityDataHashMap.get(entityType);
+
+        if(entities instanceof LongObjectMap<T> map)
+            return map;
+        if(entities == null)
+            throw new IllegalArgumentException("Invalid entity type: " + entityType);
+
+        throw new IllegalStateException("The entities of " + entityType + " are not converted until init is called");
     }
 
     /**
@@ -183,10 +296,63 @@ public abstract class AbstractDataHandler<T extends EntityData> extends Listener
         return entityTypes;
     }
 
+    /**
+     * Gets the storage backend for the entity data.
+     * @return {@link EntityDataPersistence}, or {@code null} if the entity data is written as a single JSON file.
+     */
+    @Nullable
+    public EntityDataPersistence<T> getPersistence() {
+        return persistence;
+    }
+
     /**
      * Tells the executor to update the entity data file after some time.
+     * <p>
+     * As it is unknown which entities changed, this writes all the entities. Prefer
+     * {@link #updateEntityData(String, long)} when the changed entity is known.
      */
     public void updateEntityData() {
+        fullFlushRequired.set(true);
+        scheduleFlush();
+    }
+
+    /**
+     * Tells the executor to write the specified entity after some time. If the entity is no longer mapped, it will be
+     * removed from storage.
+     * @param entityType The identifier of the entity type.
+     * @param id The ID of the entity (server/user).
+     */
+    public void updateEntityData(@NonNull String entityType, long id) {
+        markEntityChanged(entityType, id);
+        scheduleFlush();
+    }
+
+    /**
+     * Makes the data handler write the entity whenever it is marked dirty through {@link EntityData#markDirty()}.
+     * <p>
+     * Entities loaded before {@link #init(ContainerHelper, CoffeeCore, ScheduledExecutorService)} are tracked
+     * automatically. Entities added to {@link #entityDataHashMap} afterward must be tracked through this method.
+     * @param entityType The identifier of the entity type.
+     * @param id The ID of the entity (server/user).
+     * @param data The entity data.
+     */
+    protected void trackEntity(@NonNull String entityType, long id, @NonNull T data) {
+        data.setChangeListener(() -> updateEntityData(entityType, id));
+    }
+
+    /**
+     * Marks the entity as changed so that it is written on the next flush.
+     * @param entityType The identifier of the entity type.
+     * @param id The ID of the entity (server/user).
+     */
+    protected void markEntityChanged(@NonNull String entityType, long id) {
+        changedEntities.computeIfAbsent(entityType, type -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    /**
+     * Schedules a flush of the entity data, debouncing flushes that are requested close together.
+     */
+    protected void scheduleFlush() {
         long timeBetweenUpdate = (System.currentTimeMillis() / 1000) - lastUpdate;
         ScheduledFuture<?> future = getScheduledFuture();
 
@@ -194,12 +360,70 @@ public abstract class AbstractDataHandler<T extends EntityData> extends Listener
             return;
 
         scheduledFuture = executor.schedule(
-                () -> writeToJSON(entityDataHashMap),
+                this::flushEntityData,
                 10,
                 TimeUnit.SECONDS
         );
     }
 
+    /**
+     * Writes the entity data. Without a {@link EntityDataPersistence}, this rewrites the entity data file. Otherwise,
+     * only the dirty entities are handed to the backend.
+     */
+    protected void flushEntityData() {
+        Map<String, Set<Long>> changes;
+
+        if(persistence == null) {
+            drainChangedEntities();
+            writeToJSON(entityDataHashMap);
+            return;
+        }
+
+        changes = drainChangedEntities();
+
+        try {
+            persistence.flush(entityDataHashMap, changes);
+
+            lastUpdate = System.currentTimeMillis() / 1000;
+        } catch(IOException e) {
+            // The drained changes are lost, so the next flush must write everything
+            fullFlushRequired.set(true);
+            handleEntityDataException(e);
+        }
+    }
+
+    /**
+     * Removes and returns the entities changed since the last flush.
+     * @return The changed entities mapped by entity type ID, or {@code null} if everything must be written.
+     */
+    @Nullable
+    private Map<String, Set<Long>> drainChangedEntities() {
+        Map<String, Set<Long>> drained = new HashMap<>();
+
+        for(Map.Entry<String, Set<Long>> entry: changedEntities.entrySet()) {
+            Map<Long, T> entities = entityDataHashMap.get(entry.getKey());
+            Set<Long> ids = new HashSet<>();
+            Iterator<Long> iterator = entry.getValue().iterator();
+
+            while(iterator.hasNext()) {
+                long id = iterator.next();
+                T data = entities == null ? null : entities.get(id);
+
+                // Cleared before writing so that a change made while writing marks the entity dirty again
+                if(data != null)
+                    data.clearDirty();
+
+                ids.add(id);
+                iterator.remove();
+            }
+
+            if(!ids.isEmpty())
+                drained.put(entry.getKey(), ids);
+        }
+
+        return fullFlushRequired.getAndSet(false) ? null : drained;
+    }
+
     /**
      * Writes the specified data to the entity data file.
      * @param data The data to write.
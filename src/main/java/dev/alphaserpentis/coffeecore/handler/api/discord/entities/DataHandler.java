@@ -3,15 +3,19 @@ package dev.alphaserpentis.coffeecore.handler.api.discord.entities;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 import dev.alphaserpentis.coffeecore.commands.BotCommand;
 import dev.alphaserpentis.coffeecore.data.entity.EntityData;
 import dev.alphaserpentis.coffeecore.data.entity.ServerData;
 import dev.alphaserpentis.coffeecore.data.entity.UserData;
+import dev.alphaserpentis.coffeecore.persistence.EntityDataPersistence;
 import dev.alphaserpentis.coffeecore.serialization.EntityDataDeserializer;
+import dev.alphaserpentis.coffeecore.serialization.EntityDataTypeAdapter;
 import io.reactivex.rxjava3.annotations.NonNull;
 import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
 import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.Reader;
 import java.nio.file.Files;
@@ -28,9 +32,29 @@ import java.util.Objects;
  */
 public class DataHandler<T extends EntityData> extends AbstractDataHandler<T> {
     /**
-     * Cached guild commands. <b>This expects that the commands do not change after caching</b>
+     * Initializes the data handler, streaming the entity data file with {@link EntityDataTypeAdapter}.
+     * @param path The path to the entity data file.
+     * @throws IOException If the bot fails to read the entity data file.
      */
-    private List<BotCommand<?, ?>> cachedGuildCommands = null;
+    public DataHandler(@NonNull Path path) throws IOException {
+        super(path);
+
+        try(JsonReader reader = new JsonReader(Files.newBufferedReader(path))) {
+            boolean empty = true;
+
+            try {
+                reader.peek();
+                empty = false;
+                entityDataHashMap = new EntityDataTypeAdapter<T>(getEntityTypes()).read(reader);
+            } catch(EOFException e) {
+                // An empty file has no entity data yet
+                if(!empty)
+                    throw e;
+
+                entityDataHashMap = new HashMap<>();
+            }
+        }
+    }
 
     /**
      * Initializes the data handler.
@@ -46,24 +70,40 @@ public class DataHandler<T extends EntityData> extends AbstractDataHandler<T> {
     ) throws IOException {
         super(path);
         Gson gson;
-        Reader reader;
 
         jsonDeserializer.setDataHandler(this);
         gson = new GsonBuilder()
                 .registerTypeAdapter(typeToken.getType(), jsonDeserializer)
                 .create();
-        reader = Files.newBufferedReader(path);
-        entityDataHashMap = Objects.requireNonNullElse(
-                gson.fromJson(reader, typeToken.getType()),
-                new HashMap<>()
-        );
+        try(Reader reader = Files.newBufferedReader(path)) {
+            entityDataHashMap = Objects.requireNonNullElse(
+                    gson.fromJson(reader, typeToken.getType()),
+                    new HashMap<>()
+            );
+        }
+    }
+
+    /**
+     * Initializes the data handler with a storage backend, which only writes the entities that changed.
+     * @param path The path to the entity data file.
+     * @param persistence The {@link EntityDataPersistence} to load and write the entity data with.
+     * @throws IOException If the bot fails to read the entity data.
+     */
+    public DataHandler(
+            @NonNull Path path,
+            @NonNull EntityDataPersistence<T> persistence
+    ) throws IOException {
+        super(path);
+
+        this.persistence = persistence;
+        entityDataHashMap = persistence.load(getEntityTypes());
     }
 
     /**
      * Gets the specified entity data.
      * <p>
      * <b>Implementation Note:</b> This method will create a new instance of the specified {@link EntityData} type if
-     * the entity data does not exist.
+     * the entity data does not exist. Concurrent calls for the same entity get the same instance.
      * @param entityType The identifier to check which mapping to use.
      * @param id The ID of the entity (server/user).
      * @return The entity data.
@@ -71,14 +111,12 @@ public class DataHandler<T extends EntityData> extends AbstractDataHandler<T> {
     @Override
     @NonNull
     public T getEntityData(@NonNull String entityType, long id) {
-        T data = entityDataHashMap.get(entityType).get(id);
+        return getEntities(entityType).computeIfAbsent(id, key -> {
+            T data = createNewEntityData(entityType);
 
-        if(data == null) {
-            data = createNewEntityData(entityType);
-            entityDataHashMap.get(entityType).put(id, data);
-        }
-
-        return data;
+            trackEntity(entityType, key, data);
+            return data;
+        });
     }
 
     /**
@@ -114,23 +152,27 @@ public class DataHandler<T extends EntityData> extends AbstractDataHandler<T> {
 
     @Override
     public void onGuildJoin(@NonNull GuildJoinEvent event) {
-        entityDataHashMap.get("guilds").put(event.getGuild().getIdLong(), createNewEntityData("guild"));
+        T data = createNewEntityData("guild");
+
+        trackEntity("guild", event.getGuild().getIdLong(), data);
+        getEntities("guild").put(event.getGuild().getIdLong(), data);
         getCore().getCommandsHandler().upsertGuildCommandsToGuild(getCachedGuildCommands(), event.getGuild());
-        updateEntityData();
+        updateEntityData("guild", event.getGuild().getIdLong());
     }
 
     @Override
     public void onGuildLeave(@NonNull GuildLeaveEvent event) {
-        entityDataHashMap.get("guilds").remove(event.getGuild().getIdLong());
+        getEntities("guild").remove(event.getGuild().getIdLong());
         getCore().getCommandsHandler().deregisterCommands(event.getGuild().getIdLong());
-        updateEntityData();
+        updateEntityData("guild", event.getGuild().getIdLong());
     }
 
+    /**
+     * Gets the guild commands from the current snapshot of the registered commands. This does not copy them.
+     * @return The guild commands
+     */
     @NonNull
     protected List<BotCommand<?, ?>> getCachedGuildCommands() {
-        return Objects.requireNonNullElseGet(cachedGuildCommands, () -> {
-            cachedGuildCommands = getCore().getCommandsHandler().getGuildCommands();
-            return cachedGuildCommands;
-        });
+        return getCore().getCommandsHandler().getCommandRegistry().getGuildCommands();
     }
 }
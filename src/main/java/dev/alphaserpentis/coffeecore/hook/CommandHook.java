@@ -11,7 +11,7 @@ import net.dv8tion.jda.api.events.interaction.command.GenericCommandInteractionE
 import java.util.Optional;
 
 /**
- * A hook that can be run before or after a <b>DEFERRED</b> command is executed.
+ * A hook that can be run before or after a command is executed, whether its reply is deferred or not.
  */
 @Experimental
 public abstract class CommandHook {
@@ -30,8 +30,10 @@ public abstract class CommandHook {
      * Executes the hook and optionally returns a command response
      * @param cmd The command that was triggered
      * @param event The event that triggered the command
-     * @param msg The message that was sent
-     * @return Optional of CommandResponse to override the command response AND skip command execution
+     * @param msg The message that was sent. This may be {@code null} if no hook of the command requires it.
+     * @return Optional of CommandResponse to override the command response AND skip command execution. For
+     * {@link Type#PRE_EXECUTION} hooks, the interaction is replied to with it directly, without being deferred, and
+     * the hooks after this one are skipped.
      */
     @NonNull
     public Optional<?> execute(
@@ -63,4 +65,37 @@ public abstract class CommandHook {
     public Type getTypeOfHook() {
         return type;
     }
+
+    /**
+     * Whether this hook needs the {@link Message} that was sent by the command. Only applies to
+     * {@link Type#POST_EXECUTION} hooks.
+     * <p>
+     * Non-deferred replies do not return their {@link Message}, so it must be retrieved with an additional request.
+     * That request is skipped if no hook of the command needs it, in which case {@code msg} will be {@code null}.
+     * Override this to return {@code false} if the hook does not use {@code msg}.
+     * @return {@code true} if the message is needed, {@code false} otherwise
+     */
+    public boolean isMessageRequired() {
+        return true;
+    }
+
+    /**
+     * The order this hook runs in among the hooks of the same {@link Type}. Hooks with a lower order run first, and
+     * hooks with the same order run in the order they were added to the command.
+     * @return The order of the hook. Defaults to {@code 0}.
+     */
+    public int getOrder() {
+        return 0;
+    }
+
+    /**
+     * Whether this hook can run asynchronously from the other hooks. Only applies to {@link Type#POST_EXECUTION} hooks,
+     * as the responses of {@link Type#PRE_EXECUTION} hooks are needed before the command executes.
+     * <p>
+     * Asynchronous hooks are started in order, but the hooks after them do not wait for them to finish.
+     * @return {@code true} if the hook can run asynchronously, {@code false} otherwise. Defaults to {@code false}.
+     */
+    public boolean isAsync() {
+        return false;
+    }
 }
@@ -0,0 +1,381 @@
+package dev.alphaserpentis.coffeecore.hook.defaults;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import dev.alphaserpentis.coffeecore.util.HashedTimerWheel;
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.attribute.IGuildChannelContainer;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildMessageChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import net.dv8tion.jda.api.sharding.ShardManager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes messages once they expire. Pending deletions are held in a {@link HashedTimerWheel}, so waiting for a message
+ * to expire does not hold onto a thread. The messages of a channel that expire in the same tick are deleted together
+ * with {@link MessageChannel#purgeMessagesById(long...)}, which bulk deletes them when the bot is allowed to.
+ * <p>
+ * Pending deletions can optionally be persisted with {@link #enablePersistence(Path)} so they survive restarts.
+ * Ephemeral messages can only be deleted through their interaction, so they are never persisted.
+ * <p>
+ * The wheel and its thread are only started once the first message is scheduled, so bots that never expire messages
+ * do not pay for them.
+ */
+public class MessageExpirationScheduler implements AutoCloseable {
+    public static final Duration DEFAULT_TICK_DURATION = Duration.ofMillis(250);
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+    /**
+     * The minimum time between writes of the persisted expirations.
+     */
+    private static final long PERSIST_INTERVAL_MILLIS = 5000;
+    private static final Type EXPIRATIONS_TYPE = new TypeToken<List<Expiration>>() {}.getType();
+    private static final Gson gson = new Gson();
+
+    private final IGuildChannelContainer container;
+    private final Duration tickDuration;
+    private final int wheelSize;
+    /**
+     * The wheel of the pending deletions, created on the first schedule.
+     */
+    private volatile HashedTimerWheel<PendingDeletion> wheel = null;
+    private volatile boolean closed = false;
+    private final Map<Long, HashedTimerWheel.Timeout<PendingDeletion>> pending = new ConcurrentHashMap<>();
+    private volatile Path persistencePath = null;
+    private volatile boolean modified = false;
+    private long lastPersisted = 0;
+
+    /**
+     * A message that will be deleted.
+     * @param channelId The ID of the message's channel.
+     * @param messageId The ID of the message.
+     * @param expiresAt When the message expires, in epoch milliseconds.
+     */
+    public record Expiration(long channelId, long messageId, long expiresAt) {}
+
+    /**
+     * @param channel The channel of the message, or {@code null} to look it up from the container.
+     * @param message The message if it can only be deleted through itself, such as ephemeral messages.
+     */
+    private record PendingDeletion(
+            @NonNull Expiration expiration,
+            @Nullable MessageChannel channel,
+            @Nullable Message message
+    ) {}
+
+    /**
+     * Creates the scheduler with the default tick duration and wheel size.
+     * @param container The container to look up the channels of persisted expirations from.
+     */
+    public MessageExpirationScheduler(@NonNull IGuildChannelContainer container) {
+        this(container, DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * Creates the scheduler.
+     * @param container The container to look up the channels of persisted expirations from.
+     * @param tickDuration How precisely messages are deleted.
+     * @param wheelSize The amount of buckets of the timer wheel.
+     */
+    public MessageExpirationScheduler(
+            @NonNull IGuildChannelContainer container,
+            @NonNull Duration tickDuration,
+            int wheelSize
+    ) {
+        this.container = container;
+        this.tickDuration = tickDuration;
+        this.wheelSize = wheelSize;
+    }
+
+    /**
+     * Schedules the message to be deleted after the delay, replacing its previously scheduled deletion.
+     * @param msg The message.
+     * @param delay The delay.
+     * @param unit The unit of the delay.
+     */
+    public void schedule(@NonNull Message msg, long delay, @NonNull TimeUnit unit) {
+        Expiration expiration = new Expiration(
+                msg.getChannelIdLong(),
+                msg.getIdLong(),
+                System.currentTimeMillis() + unit.toMillis(delay)
+        );
+
+        schedule(new PendingDeletion(expiration, msg.getChannel(), msg.isEphemeral() ? msg : null));
+    }
+
+    /**
+     * Cancels the scheduled deletion of the message.
+     * @param messageId The ID of the message.
+     * @return {@code true} if a deletion was cancelled, {@code false} otherwise.
+     */
+    public boolean cancel(long messageId) {
+        HashedTimerWheel.Timeout<PendingDeletion> timeout = pending.remove(messageId);
+
+        if(timeout == null)
+            return false;
+
+        timeout.cancel();
+        modified = true;
+        return true;
+    }
+
+    /**
+     * Gets the amount of messages waiting to be deleted.
+     * @return The amount of pending deletions.
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Persists the pending expirations to the file, and schedules the expirations already in it. Expirations that
+     * passed while the bot was offline are deleted right away, so this should be called once the channels are cached.
+     * Expirations whose channel cannot be resolved are reported and dropped. A file that cannot be parsed is treated
+     * as empty.
+     * @param path The path to the file.
+     * @throws IOException If the file could not be read.
+     */
+    public void enablePersistence(@NonNull Path path) throws IOException {
+        List<Expiration> read = null;
+
+        if(Files.exists(path)) {
+            try(Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                read = gson.fromJson(reader, EXPIRATIONS_TYPE);
+            } catch(JsonParseException ignored) {
+                // The expirations are lost, and the file is rewritten on the next tick
+            }
+        }
+
+        persistencePath = path;
+        modified = true;
+
+        if(read != null) {
+            for(Expiration expiration: read) {
+                schedule(new PendingDeletion(expiration, null, null));
+            }
+        }
+    }
+
+    @Nullable
+    public Path getPersistencePath() {
+        return persistencePath;
+    }
+
+    /**
+     * Stops deleting messages. If persistence is enabled, the pending expirations are written so they are scheduled
+     * again on the next launch. Otherwise, they are lost.
+     */
+    @Override
+    public void close() {
+        HashedTimerWheel<PendingDeletion> wheel;
+
+        synchronized(this) {
+            closed = true;
+            wheel = this.wheel;
+        }
+
+        if(wheel != null)
+            wheel.close();
+
+        if(persistencePath != null)
+            persistQuietly();
+    }
+
+    private void schedule(@NonNull PendingDeletion deletion) {
+        long delay = deletion.expiration().expiresAt() - System.currentTimeMillis();
+        HashedTimerWheel.Timeout<PendingDeletion> previous = pending.put(
+                deletion.expiration().messageId(),
+                wheel().schedule(deletion, delay, TimeUnit.MILLISECONDS)
+        );
+
+        if(previous != null)
+            previous.cancel();
+
+        modified = true;
+    }
+
+    /**
+     * Gets the wheel, starting it if nothing was scheduled yet.
+     * @throws IllegalStateException If the scheduler is closed.
+     */
+    @NonNull
+    private HashedTimerWheel<PendingDeletion> wheel() {
+        HashedTimerWheel<PendingDeletion> wheel = this.wheel;
+
+        if(wheel != null)
+            return wheel;
+
+        synchronized(this) {
+            if(closed)
+                throw new IllegalStateException("The scheduler is closed");
+
+            if(this.wheel == null)
+                this.wheel = new HashedTimerWheel<>(
+                        tickDuration,
+                        wheelSize,
+                        "CoffeeCore-MessageExpiration",
+                        this::onTick
+                );
+
+            return this.wheel;
+        }
+    }
+
+    private void onTick(@NonNull List<PendingDeletion> expired) {
+        if(!expired.isEmpty())
+            deleteExpired(expired);
+
+        if(persistencePath != null && modified
+                && System.currentTimeMillis() - lastPersisted >= PERSIST_INTERVAL_MILLIS)
+            persistQuietly();
+    }
+
+    /**
+     * Deletes the expired messages, grouping them by their channel.
+     */
+    private void deleteExpired(@NonNull List<PendingDeletion> expired) {
+        Map<Long, List<PendingDeletion>> byChannel = new LinkedHashMap<>();
+
+        for(PendingDeletion deletion: expired) {
+            pending.computeIfPresent(
+                    deletion.expiration().messageId(),
+                    (id, timeout) -> timeout.getItem() == deletion ? null : timeout
+            );
+
+            if(deletion.message() != null) {
+                deletion.message().delete().submit().exceptionally(MessageExpirationScheduler::handleFailure);
+                continue;
+            }
+
+            byChannel.computeIfAbsent(deletion.expiration().channelId(), id -> new ArrayList<>()).add(deletion);
+        }
+
+        modified = true;
+
+        for(List<PendingDeletion> deletions: byChannel.values()) {
+            MessageChannel channel = resolveChannel(deletions.get(0));
+            long[] messageIds;
+
+            // Only restored expirations have no channel yet. It was deleted, the bot lost access to it, or it is not
+            // cached yet, so the messages are reported instead of being dropped silently
+            if(channel == null) {
+                handleFailure(
+                        new IllegalStateException(
+                                "Could not delete " + deletions.size() + " expired message(s) as channel "
+                                        + deletions.get(0).expiration().channelId() + " could not be resolved"
+                        )
+                );
+                continue;
+            }
+
+            if(deletions.size() == 1) {
+                channel.deleteMessageById(deletions.get(0).expiration().messageId())
+                        .submit()
+                        .exceptionally(MessageExpirationScheduler::handleFailure);
+                continue;
+            }
+
+            messageIds = new long[deletions.size()];
+
+            for(int i = 0; i < messageIds.length; i++) {
+                messageIds[i] = deletions.get(i).expiration().messageId();
+            }
+
+            for(CompletableFuture<Void> future: channel.purgeMessagesById(messageIds)) {
+                future.exceptionally(MessageExpirationScheduler::handleFailure);
+            }
+        }
+    }
+
+    @Nullable
+    private MessageChannel resolveChannel(@NonNull PendingDeletion deletion) {
+        long channelId = deletion.expiration().channelId();
+        MessageChannel channel;
+
+        if(deletion.channel() != null)
+            return deletion.channel();
+
+        channel = container.getChannelById(GuildMessageChannel.class, channelId);
+
+        if(channel != null)
+            return channel;
+
+        if(container instanceof JDA j)
+            return j.getPrivateChannelById(channelId);
+        else if(container instanceof ShardManager sm)
+            return sm.getPrivateChannelById(channelId);
+        else
+            return null;
+    }
+
+    /**
+     * Writes the pending expirations, logging instead of throwing if they could not be written.
+     */
+    private synchronized void persistQuietly() {
+        Path path = persistencePath;
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        List<Expiration> expirations = new ArrayList<>(pending.size());
+
+        modified = false;
+        lastPersisted = System.currentTimeMillis();
+
+        for(HashedTimerWheel.Timeout<PendingDeletion> timeout: pending.values()) {
+            if(timeout.getItem().message() == null)
+                expirations.add(timeout.getItem().expiration());
+        }
+
+        try {
+            try(Writer writer = Files.newBufferedWriter(temporaryPath, StandardCharsets.UTF_8)) {
+                gson.toJson(expirations, EXPIRATIONS_TYPE, writer);
+            }
+
+            try {
+                Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch(AtomicMoveNotSupportedException e) {
+                Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch(IOException e) {
+            modified = true;
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Logs the failure of a deletion, ignoring messages and channels that Discord reported as already deleted.
+     */
+    @Nullable
+    private static Void handleFailure(@NonNull Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause() : throwable;
+
+        if(cause instanceof ErrorResponseException e && (e.getErrorResponse() == ErrorResponse.UNKNOWN_MESSAGE
+                || e.getErrorResponse() == ErrorResponse.UNKNOWN_CHANNEL))
+            return null;
+
+        cause.printStackTrace();
+        return null;
+    }
+}
@@ -12,10 +12,29 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * Default implementation to make messages expire. Does not delete messages triggered by UI elements like buttons.
+ * <p>
+ * Messages are handed to a {@link MessageExpirationScheduler}, which deletes them without blocking a thread while
+ * they wait to expire.
  */
 public class MessageExpireHook extends CommandHook {
+    private final MessageExpirationScheduler scheduler;
+
+    /**
+     * Creates the hook with the {@link MessageExpirationScheduler} of the command's
+     * {@link dev.alphaserpentis.coffeecore.core.CoffeeCore}.
+     */
     public MessageExpireHook() {
+        this(null);
+    }
+
+    /**
+     * Creates the hook with a {@link MessageExpirationScheduler}.
+     * @param scheduler The scheduler, or {@code null} to use the one of the command's
+     * {@link dev.alphaserpentis.coffeecore.core.CoffeeCore}.
+     */
+    public MessageExpireHook(@Nullable MessageExpirationScheduler scheduler) {
         super(Type.POST_EXECUTION);
+        this.scheduler = scheduler;
     }
 
     @Override
@@ -25,15 +44,20 @@ public class MessageExpireHook extends CommandHook {
             @NonNull GenericCommandInteractionEvent event,
             @Nullable Message msg
     ) {
-        if(msg != null) deleteMessage(cmd.getMessageExpirationLength(), msg);
+        if(msg != null) deleteMessage(cmd, msg);
 
         return Optional.empty();
     }
 
-    private void deleteMessage(long timeToExpire, @NonNull Message msg) {
-        msg
-                .delete()
-                .delay(timeToExpire, TimeUnit.SECONDS)
-                .complete();
+    private void deleteMessage(@NonNull BotCommand<?, ?> cmd, @NonNull Message msg) {
+        MessageExpirationScheduler scheduler = this.scheduler;
+
+        if(scheduler == null && cmd.getCore() != null)
+            scheduler = cmd.getCore().getMessageExpirationScheduler();
+
+        if(scheduler != null)
+            scheduler.schedule(msg, cmd.getMessageExpirationLength(), TimeUnit.SECONDS);
+        else
+            msg.delete().queueAfter(cmd.getMessageExpirationLength(), TimeUnit.SECONDS);
     }
 }
@@ -3,19 +3,21 @@ package dev.alphaserpentis.coffeecore.hook.defaults;
 import dev.alphaserpentis.coffeecore.commands.BotCommand;
 import dev.alphaserpentis.coffeecore.data.bot.CommandResponse;
 import dev.alphaserpentis.coffeecore.hook.CommandHook;
+import dev.alphaserpentis.coffeecore.metrics.CommandMetrics;
+import dev.alphaserpentis.coffeecore.ratelimit.RatelimitPolicy;
 import io.reactivex.rxjava3.annotations.NonNull;
 import io.reactivex.rxjava3.annotations.Nullable;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.events.interaction.command.GenericCommandInteractionEvent;
 
-import java.time.Instant;
 import java.util.Optional;
 
 /**
  * Default implementation to handle ratelimits automatically
  * <p>
- * This hook does <b>NOT</b> set the ratelimit for the user. It only checks if the user is ratelimited.
+ * This hook admits the invocation through the command's {@link RatelimitPolicy}. Capacity-based policies (e.g., token
+ * buckets) consume here, while the default cooldown is only set once the command has executed.
  */
 public class RatelimitHook extends CommandHook {
     public RatelimitHook() {
@@ -30,10 +32,18 @@ public class RatelimitHook extends CommandHook {
             @Nullable Message ignored
     ) {
         long userId = event.getUser().getIdLong();
-        long ratelimitTime = cmd.getRatelimitMap().getOrDefault(userId, 0L);
+        long guildId = event.getGuild() == null ? 0 : event.getGuild().getIdLong();
+        long retryAt = cmd.getRatelimitPolicy().tryAcquire(userId, guildId, System.currentTimeMillis());
 
-        if(ratelimitTime > Instant.now().getEpochSecond()) {
-            return Optional.of(new CommandResponse<>(cmd.isOnlyEphemeral(), generateEmbed(ratelimitTime).build()));
+        if(retryAt != RatelimitPolicy.ALLOWED) {
+            CommandMetrics metrics = cmd.getMetrics();
+
+            if(metrics != null)
+                metrics.recordRatelimited(cmd.getName());
+
+            return Optional.of(
+                    new CommandResponse<>(cmd.isOnlyEphemeral(), generateEmbed(retryAt / 1000).build())
+            );
         }
 
         return Optional.empty();
@@ -0,0 +1,67 @@
+package dev.alphaserpentis.coffeecore.metrics;
+
+import dev.alphaserpentis.coffeecore.hook.CommandHook;
+import io.reactivex.rxjava3.annotations.NonNull;
+
+/**
+ * Receives measurements of the commands executed by
+ * {@link dev.alphaserpentis.coffeecore.handler.api.discord.commands.CommandsHandler}. Implementations must be
+ * thread-safe and fast as they are called on the threads that run the interactions.
+ * <p>
+ * Every measurement is keyed by the name of the command, including those of button and modal interactions, which are
+ * keyed by the command that registered the component. Durations are in nanoseconds.
+ * @see DefaultCommandMetrics
+ */
+public interface CommandMetrics {
+    /**
+     * Records an interaction being dispatched to a command.
+     * @param command The name of the command
+     */
+    void recordInvocation(@NonNull String command);
+
+    /**
+     * Records how long an interaction waited on the executor before it started running.
+     * @param command The name of the command
+     * @param nanos The time between the interaction being received and it starting to run
+     */
+    void recordQueueWait(@NonNull String command, long nanos);
+
+    /**
+     * Records how long the command took to build its response, such as
+     * {@link dev.alphaserpentis.coffeecore.commands.BotCommand#runCommand(long,
+     * net.dv8tion.jda.api.events.interaction.command.GenericCommandInteractionEvent)} or the handling of a button.
+     * @param command The name of the command
+     * @param nanos The time the command ran for
+     */
+    void recordExecution(@NonNull String command, long nanos);
+
+    /**
+     * Records how long replying to the command took, from the reply being started until Discord accepted it. This
+     * includes building the response, which is also recorded by {@link #recordExecution(String, long)}, as deferred
+     * replies are acknowledged while the command runs.
+     * @param command The name of the command
+     * @param nanos The time between the reply being started and it completing
+     */
+    void recordReply(@NonNull String command, long nanos);
+
+    /**
+     * Records how long a chain of hooks took. Asynchronous {@link CommandHook.Type#POST_EXECUTION} hooks are not
+     * included as the chain does not wait for them.
+     * @param command The name of the command
+     * @param type The type of the hooks
+     * @param nanos The time the hooks ran for
+     */
+    void recordHooks(@NonNull String command, @NonNull CommandHook.Type type, long nanos);
+
+    /**
+     * Records an error in the command or while replying to it.
+     * @param command The name of the command
+     */
+    void recordError(@NonNull String command);
+
+    /**
+     * Records an invocation rejected by the command's ratelimit.
+     * @param command The name of the command
+     */
+    void recordRatelimited(@NonNull String command);
+}
@@ -0,0 +1,27 @@
+package dev.alphaserpentis.coffeecore.metrics;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+
+/**
+ * The measurements of a command since it was first recorded. Durations are in nanoseconds.
+ * @param command The name of the command.
+ * @param invocations The amount of interactions dispatched to the command.
+ * @param errors The amount of errors in the command or while replying to it.
+ * @param ratelimited The amount of invocations rejected by the command's ratelimit.
+ * @param queueWait The time interactions waited on the executor.
+ * @param execution The time the command took to build its response.
+ * @param reply The time from the reply being started until Discord accepted it.
+ * @param preExecutionHooks The time the pre-execution hooks took.
+ * @param postExecutionHooks The time the post-execution hooks took.
+ */
+public record CommandMetricsSnapshot(
+        @NonNull String command,
+        long invocations,
+        long errors,
+        long ratelimited,
+        @NonNull HistogramSnapshot queueWait,
+        @NonNull HistogramSnapshot execution,
+        @NonNull HistogramSnapshot reply,
+        @NonNull HistogramSnapshot preExecutionHooks,
+        @NonNull HistogramSnapshot postExecutionHooks
+) {}
@@ -0,0 +1,126 @@
+package dev.alphaserpentis.coffeecore.metrics;
+
+import dev.alphaserpentis.coffeecore.hook.CommandHook;
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The default {@link CommandMetrics}. Each command's counts are kept in {@link LongAdder}s and its durations in
+ * {@link LatencyHistogram}s, so recording never takes a lock. Commands are tracked from their first measurement and
+ * are kept even after they are removed from the bot.
+ * <p>
+ * Measurements are cumulative. Take a {@link #snapshot()} periodically to push them elsewhere, such as a monitoring
+ * system.
+ */
+public class DefaultCommandMetrics implements CommandMetrics {
+    private final Map<String, CommandStats> commands = new ConcurrentHashMap<>();
+
+    /**
+     * The measurements of a single command.
+     */
+    private static final class CommandStats {
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder ratelimited = new LongAdder();
+        private final LatencyHistogram queueWait = new LatencyHistogram();
+        private final LatencyHistogram execution = new LatencyHistogram();
+        private final LatencyHistogram reply = new LatencyHistogram();
+        private final LatencyHistogram preExecutionHooks = new LatencyHistogram();
+        private final LatencyHistogram postExecutionHooks = new LatencyHistogram();
+
+        @NonNull
+        private CommandMetricsSnapshot snapshot(@NonNull String command) {
+            return new CommandMetricsSnapshot(
+                    command,
+                    invocations.sum(),
+                    errors.sum(),
+                    ratelimited.sum(),
+                    queueWait.snapshot(),
+                    execution.snapshot(),
+                    reply.snapshot(),
+                    preExecutionHooks.snapshot(),
+                    postExecutionHooks.snapshot()
+            );
+        }
+    }
+
+    @Override
+    public void recordInvocation(@NonNull String command) {
+        statsOf(command).invocations.increment();
+    }
+
+    @Override
+    public void recordQueueWait(@NonNull String command, long nanos) {
+        statsOf(command).queueWait.record(nanos);
+    }
+
+    @Override
+    public void recordExecution(@NonNull String command, long nanos) {
+        statsOf(command).execution.record(nanos);
+    }
+
+    @Override
+    public void recordReply(@NonNull String command, long nanos) {
+        statsOf(command).reply.record(nanos);
+    }
+
+    @Override
+    public void recordHooks(@NonNull String command, @NonNull CommandHook.Type type, long nanos) {
+        CommandStats stats = statsOf(command);
+
+        if(type == CommandHook.Type.PRE_EXECUTION)
+            stats.preExecutionHooks.record(nanos);
+        else
+            stats.postExecutionHooks.record(nanos);
+    }
+
+    @Override
+    public void recordError(@NonNull String command) {
+        statsOf(command).errors.increment();
+    }
+
+    @Override
+    public void recordRatelimited(@NonNull String command) {
+        statsOf(command).ratelimited.increment();
+    }
+
+    /**
+     * Gets the measurements of every command that was recorded, sorted by name.
+     * @return An unmodifiable {@link List} of {@link CommandMetricsSnapshot}
+     */
+    @NonNull
+    public List<CommandMetricsSnapshot> snapshot() {
+        return commands.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparing(CommandMetricsSnapshot::command))
+                .toList();
+    }
+
+    /**
+     * Gets the measurements of a command.
+     * @param command The name of the command
+     * @return {@link CommandMetricsSnapshot}, or {@code null} if nothing was recorded for the command
+     */
+    @Nullable
+    public CommandMetricsSnapshot snapshot(@NonNull String command) {
+        CommandStats stats = commands.get(command);
+
+        return stats == null ? null : stats.snapshot(command);
+    }
+
+    /**
+     * Gets the measurements of a command, creating them on its first measurement.
+     */
+    @NonNull
+    private CommandStats statsOf(@NonNull String command) {
+        CommandStats stats = commands.get(command);
+
+        return stats != null ? stats : commands.computeIfAbsent(command, name -> new CommandStats());
+    }
+}
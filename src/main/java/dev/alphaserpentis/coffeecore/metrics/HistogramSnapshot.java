@@ -0,0 +1,100 @@
+package dev.alphaserpentis.coffeecore.metrics;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.time.Duration;
+
+/**
+ * An immutable copy of a {@link LatencyHistogram}. All values are in nanoseconds and cover everything recorded since
+ * the histogram was created.
+ */
+public class HistogramSnapshot {
+    private final long[] counts;
+    private final long count;
+    private final long total;
+    private final long max;
+
+    HistogramSnapshot(@NonNull long[] counts, long count, long total, long max) {
+        this.counts = counts;
+        this.count = count;
+        this.total = total;
+        this.max = max;
+    }
+
+    /**
+     * Gets the amount of values recorded.
+     * @return The amount of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the sum of the values recorded.
+     * @return The sum in nanoseconds
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the highest value recorded.
+     * @return The highest value in nanoseconds, or {@code 0} if nothing was recorded
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the mean of the values recorded.
+     * @return The mean in nanoseconds, or {@code 0} if nothing was recorded
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * Gets the value that the percentile of recorded values are at or below, within the precision of the histogram.
+     * @param percentile The percentile, from {@code 0} to {@code 100}
+     * @return The value in nanoseconds, or {@code 0} if nothing was recorded
+     * @throws IllegalArgumentException If {@code percentile} is not between {@code 0} and {@code 100}
+     */
+    public long getValueAtPercentile(double percentile) {
+        if(percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("percentile must be between 0 and 100!");
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+
+        if(count == 0)
+            return 0;
+
+        for(int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+
+            if(seen >= rank)
+                return Math.min(LatencyHistogram.highestValueIn(i), max);
+        }
+
+        return max;
+    }
+
+    /**
+     * Gets the value that the percentile of recorded values are at or below as a {@link Duration}.
+     * @param percentile The percentile, from {@code 0} to {@code 100}
+     * @return {@link Duration}
+     * @see #getValueAtPercentile(double)
+     */
+    @NonNull
+    public Duration getDurationAtPercentile(double percentile) {
+        return Duration.ofNanos(getValueAtPercentile(percentile));
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramSnapshot{count=" + count
+                + ", p50=" + getValueAtPercentile(50)
+                + ", p99=" + getValueAtPercentile(99)
+                + ", max=" + max + "}";
+    }
+}
@@ -0,0 +1,88 @@
+package dev.alphaserpentis.coffeecore.metrics;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations in nanoseconds. Like HdrHistogram, values are counted in buckets that split every
+ * power of two into 32 linear sub-buckets, so every recorded value is kept within about 3% of its true value while
+ * the histogram stays a fixed size.
+ * <p>
+ * Recording only increments atomic counters and never blocks. Values above {@link #MAX_TRACKABLE_VALUE} are counted in
+ * the highest bucket, though {@link HistogramSnapshot#getMax()} still reports the true maximum.
+ */
+public class LatencyHistogram {
+    /**
+     * The amount of bits of each value that select its sub-bucket.
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /**
+     * The highest value that is counted in its own bucket, a little over an hour in nanoseconds.
+     */
+    public static final long MAX_TRACKABLE_VALUE = (1L << 42) - 1;
+    /**
+     * The amount of buckets, derived from the index of {@link #MAX_TRACKABLE_VALUE}.
+     */
+    static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value.
+     * @param nanos The duration in nanoseconds. Negative values are recorded as {@code 0}.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        long currentMax = max.get();
+
+        counts.incrementAndGet(bucketIndex(Math.min(value, MAX_TRACKABLE_VALUE)));
+        total.add(value);
+
+        while(value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Copies the recorded values. Values recorded while the snapshot is taken may or may not be included.
+     * @return {@link HistogramSnapshot}
+     */
+    @NonNull
+    public HistogramSnapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long count = 0;
+
+        for(int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+
+        return new HistogramSnapshot(copy, count, total.sum(), max.get());
+    }
+
+    /**
+     * Gets the bucket a value is counted in. Values below {@code 2 * SUB_BUCKET_COUNT} get a bucket each, and every
+     * higher power of two is split into {@link #SUB_BUCKET_COUNT} buckets by the bits below its highest bit.
+     */
+    static int bucketIndex(long value) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * Gets the highest value that is counted in a bucket.
+     */
+    static long highestValueIn(int index) {
+        int shift = Math.max(0, (index >>> SUB_BUCKET_BITS) - 1);
+        long subBucket = index - ((long) shift << SUB_BUCKET_BITS);
+
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
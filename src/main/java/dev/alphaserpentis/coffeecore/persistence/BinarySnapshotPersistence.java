@@ -0,0 +1,320 @@
+package dev.alphaserpentis.coffeecore.persistence;
+
+import dev.alphaserpentis.coffeecore.data.entity.EntityData;
+import dev.alphaserpentis.coffeecore.data.entity.EntityType;
+import dev.alphaserpentis.coffeecore.util.LongObjectHashMap;
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An {@link EntityDataPersistence} that stores the entity data in a compact binary snapshot read through a
+ * memory-mapped file. Loading only maps the file and hands out {@link MappedEntityMap}s, which decode an entity the
+ * first time it is accessed. Entities that are never accessed stay off-heap.
+ * <p>
+ * The snapshot starts with a header of a magic number, the format version, and the amount of entity types. Each entity
+ * type then has a section of its name, the amount of entities, the length of their data, an index of
+ * {@code (id, offset, length)} entries sorted by ID, and the encoded entities.
+ * <p>
+ * Every flush rewrites the snapshot, but untouched entities are copied as-is without being decoded. Entities are
+ * encoded with the {@link EntityDataCodec} of their type, which defaults to {@link EntityDataCodecs#forType(EntityType)}.
+ * Snapshots are limited to 2 GiB as that is the most a single mapping can hold.
+ * @param <T> The type of {@link EntityData} to persist.
+ */
+public class BinarySnapshotPersistence<T extends EntityData> implements EntityDataPersistence<T> {
+    /**
+     * The magic number at the start of the snapshot ("CCES").
+     */
+    static final int MAGIC = 0x43434553;
+    /**
+     * The version of the snapshot format.
+     */
+    static final int VERSION = 1;
+
+    private final Path path;
+    private final Map<String, EntityDataCodec<? extends T>> codecs = new HashMap<>();
+
+    /**
+     * Creates the backend.
+     * @param path The path to the snapshot.
+     */
+    public BinarySnapshotPersistence(@NonNull Path path) {
+        this.path = path;
+    }
+
+    @NonNull
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Sets the codec of the entity type, replacing the default codec.
+     * @param entityType The identifier of the entity type.
+     * @param codec The codec to encode and decode the entity type with.
+     * @return {@link BinarySnapshotPersistence}
+     */
+    @NonNull
+    public synchronized BinarySnapshotPersistence<T> setCodec(
+            @NonNull String entityType,
+            @NonNull EntityDataCodec<? extends T> codec
+    ) {
+        codecs.put(entityType, codec);
+        return this;
+    }
+
+    @Override
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public synchronized Map<String, Map<Long, T>> load(@NonNull List<EntityType> entityTypes) throws IOException {
+        Map<String, Map<Long, T>> data = new HashMap<>();
+        ByteBuffer buffer = map();
+
+        for(EntityType entityType: entityTypes) {
+            codecs.putIfAbsent(entityType.getId(), (EntityDataCodec<? extends T>) EntityDataCodecs.forType(entityType));
+        }
+
+        if(buffer != null) {
+            for(Section section: readSections(buffer)) {
+                EntityDataCodec<? extends T> codec = codecs.get(section.type());
+
+                if(codec == null)
+                    throw new IOException("Invalid entity type: " + section.type());
+
+                data.put(
+                        section.type(),
+                        new MappedEntityMap<>(codec, buffer, section.indexOffset(), section.count())
+                );
+            }
+        }
+
+        for(EntityType entityType: entityTypes) {
+            data.computeIfAbsent(entityType.getId(), type -> new MappedEntityMap<>(codecs.get(type)));
+        }
+
+        return data;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized void flush(
+            @NonNull Map<String, Map<Long, T>> data,
+            @Nullable Map<String, Set<Long>> changedEntities
+    ) throws IOException {
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        List<Section> sections = new ArrayList<>(data.size());
+        ByteBuffer buffer;
+
+        if(changedEntities != null && changedEntities.values().stream().allMatch(Set::isEmpty))
+            return;
+
+        try(
+                FileChannel channel = FileChannel.open(
+                        temporaryPath,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING
+                );
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16)
+                )
+        ) {
+            long position = Integer.BYTES * 3;
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(data.size());
+
+            for(Map.Entry<String, Map<Long, T>> entry: data.entrySet()) {
+                position = writeSection(out, position, entry.getKey(), entry.getValue(), sections);
+            }
+
+            if(position > Integer.MAX_VALUE)
+                throw new IOException("Snapshot is too large to be memory-mapped: " + position + " bytes");
+
+            out.flush();
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch(AtomicMoveNotSupportedException e) {
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        buffer = map();
+
+        if(buffer == null)
+            throw new IOException("Snapshot disappeared after being written: " + path);
+
+        for(Section section: sections) {
+            if(data.get(section.type()) instanceof MappedEntityMap<?> mapped)
+                ((MappedEntityMap<T>) mapped).rebind(buffer, section.indexOffset(), section.count());
+        }
+    }
+
+    private record Section(@NonNull String type, int indexOffset, int count) {}
+
+    /**
+     * Writes the section of an entity type. A {@link MappedEntityMap} is locked while its section is written, while
+     * other maps are copied first as they may be modified concurrently.
+     * @return The position after the section.
+     */
+    @SuppressWarnings("unchecked")
+    private long writeSection(
+            @NonNull DataOutputStream out,
+            long position,
+            @NonNull String type,
+            @NonNull Map<Long, T> map,
+            @NonNull List<Section> sections
+    ) throws IOException {
+        EntityDataCodec<T> codec = (EntityDataCodec<T>) codecs.get(type);
+        MappedEntityMap<T> mapped = map instanceof MappedEntityMap<T> m ? m : null;
+        Map<Long, T> entities = mapped != null ? mapped : new LongObjectHashMap<>(map);
+        byte[] name = type.getBytes(StandardCharsets.UTF_8);
+
+        if(codec == null)
+            throw new IOException("Invalid entity type: " + type);
+
+        synchronized(entities) {
+            long[] ids = mapped != null ? mapped.keys() : sortedKeys(entities);
+            byte[][] encoded = new byte[ids.length][];
+            int[] lengths = new int[ids.length];
+            long indexOffset = position + Short.BYTES + name.length + Integer.BYTES + Long.BYTES;
+            long offset = indexOffset + (long) ids.length * MappedEntityMap.INDEX_ENTRY_SIZE;
+            long dataLength = 0;
+
+            for(int i = 0; i < ids.length; i++) {
+                T value = mapped != null ? mapped.getDecoded(ids[i]) : entities.get(ids[i]);
+
+                if(value != null) {
+                    encoded[i] = encode(codec, value);
+                    lengths[i] = encoded[i].length;
+                } else {
+                    lengths[i] = mapped.getEncoded(ids[i]).remaining();
+                }
+
+                dataLength += lengths[i];
+            }
+
+            out.writeShort(name.length);
+            out.write(name);
+            out.writeInt(ids.length);
+            out.writeLong(dataLength);
+
+            for(int i = 0; i < ids.length; i++) {
+                out.writeLong(ids[i]);
+                out.writeLong(offset);
+                out.writeInt(lengths[i]);
+                offset += lengths[i];
+            }
+
+            for(int i = 0; i < ids.length; i++) {
+                if(encoded[i] != null) {
+                    out.write(encoded[i]);
+                } else {
+                    // Copy the untouched entity without decoding it
+                    ByteBuffer raw = mapped.getEncoded(ids[i]);
+                    byte[] bytes = new byte[raw.remaining()];
+
+                    raw.get(bytes);
+                    out.write(bytes);
+                }
+            }
+
+            // Snapshots over 2 GiB are rejected before the sections are used
+            sections.add(new Section(type, (int) indexOffset, ids.length));
+
+            return offset;
+        }
+    }
+
+    @NonNull
+    private static <T extends EntityData> byte[] encode(@NonNull EntityDataCodec<T> codec, @NonNull T value)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        codec.encode(value, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    @NonNull
+    private static long[] sortedKeys(@NonNull Map<Long, ?> entities) {
+        long[] keys = new long[entities.size()];
+        int i = 0;
+
+        for(long id: entities.keySet()) {
+            keys[i++] = id;
+        }
+
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    @NonNull
+    private static List<Section> readSections(@NonNull ByteBuffer buffer) throws IOException {
+        List<Section> sections = new ArrayList<>();
+        int position = Integer.BYTES * 3;
+        int typeCount;
+
+        if(buffer.getInt(0) != MAGIC)
+            throw new IOException("Not a binary entity data snapshot");
+        if(buffer.getInt(Integer.BYTES) != VERSION)
+            throw new IOException("Unsupported snapshot version: " + buffer.getInt(Integer.BYTES));
+
+        typeCount = buffer.getInt(Integer.BYTES * 2);
+
+        for(int i = 0; i < typeCount; i++) {
+            int nameLength = Short.toUnsignedInt(buffer.getShort(position));
+            byte[] name = new byte[nameLength];
+            int count;
+            long dataLength;
+
+            buffer.get(position + Short.BYTES, name);
+            position += Short.BYTES + nameLength;
+            count = buffer.getInt(position);
+            dataLength = buffer.getLong(position + Integer.BYTES);
+            position += Integer.BYTES + Long.BYTES;
+
+            sections.add(new Section(new String(name, StandardCharsets.UTF_8), position, count));
+            position = Math.toIntExact(position + (long) count * MappedEntityMap.INDEX_ENTRY_SIZE + dataLength);
+        }
+
+        return sections;
+    }
+
+    /**
+     * Maps the snapshot into memory.
+     * @return The mapped snapshot, or {@code null} if there is no snapshot.
+     */
+    @Nullable
+    private ByteBuffer map() throws IOException {
+        if(!Files.exists(path) || Files.size(path) == 0)
+            return null;
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Snapshot is too large to be memory-mapped: " + channel.size() + " bytes");
+
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
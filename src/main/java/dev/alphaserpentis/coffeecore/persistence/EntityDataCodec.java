@@ -0,0 +1,31 @@
+package dev.alphaserpentis.coffeecore.persistence;
+
+import dev.alphaserpentis.coffeecore.data.entity.EntityData;
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes and decodes an {@link EntityData} type for {@link BinarySnapshotPersistence}.
+ * @param <T> The type of {@link EntityData} to encode and decode.
+ * @see EntityDataCodecs
+ */
+public interface EntityDataCodec<T extends EntityData> {
+    /**
+     * Encodes the entity.
+     * @param data The entity data to encode.
+     * @param output The output to write the encoded entity to.
+     * @throws IOException If the output could not be written to.
+     */
+    void encode(@NonNull T data, @NonNull DataOutput output) throws IOException;
+
+    /**
+     * Decodes an entity.
+     * @param buffer The buffer holding exactly the encoded entity, positioned at its start.
+     * @return The decoded entity data.
+     */
+    @NonNull
+    T decode(@NonNull ByteBuffer buffer);
+}
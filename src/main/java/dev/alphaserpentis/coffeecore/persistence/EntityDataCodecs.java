@@ -0,0 +1,100 @@
+package dev.alphaserpentis.coffeecore.persistence;
+
+import com.google.gson.Gson;
+import dev.alphaserpentis.coffeecore.data.entity.EntityData;
+import dev.alphaserpentis.coffeecore.data.entity.EntityType;
+import dev.alphaserpentis.coffeecore.data.entity.ServerData;
+import dev.alphaserpentis.coffeecore.data.entity.UserData;
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The built-in {@link EntityDataCodec}s.
+ */
+public final class EntityDataCodecs {
+    /**
+     * Encodes {@link ServerData} as a single byte.
+     */
+    public static final EntityDataCodec<ServerData> SERVER_DATA = new EntityDataCodec<>() {
+        @Override
+        public void encode(@NonNull ServerData data, @NonNull DataOutput output) throws IOException {
+            output.writeBoolean(data.getOnlyEphemeral());
+        }
+
+        @Override
+        @NonNull
+        public ServerData decode(@NonNull ByteBuffer buffer) {
+            return new ServerData(buffer.get() != 0);
+        }
+    };
+    /**
+     * Encodes {@link UserData} as a single byte.
+     */
+    public static final EntityDataCodec<UserData> USER_DATA = new EntityDataCodec<>() {
+        @Override
+        public void encode(@NonNull UserData data, @NonNull DataOutput output) throws IOException {
+            output.writeBoolean(data.getShowFullStackTrace());
+        }
+
+        @Override
+        @NonNull
+        public UserData decode(@NonNull ByteBuffer buffer) {
+            UserData data = new UserData();
+
+            data.setShowFullStackTrace(buffer.get() != 0);
+            data.clearDirty();
+            return data;
+        }
+    };
+
+    private static final Gson GSON = new Gson();
+
+    private EntityDataCodecs() {}
+
+    /**
+     * Creates a codec that encodes the entity as UTF-8 JSON. This works for any {@link EntityData} subclass.
+     * @param entityDataClass The class of the entity data.
+     * @return The codec.
+     * @param <T> The type of {@link EntityData}.
+     */
+    @NonNull
+    public static <T extends EntityData> EntityDataCodec<T> json(@NonNull Class<T> entityDataClass) {
+        return new EntityDataCodec<>() {
+            @Override
+            public void encode(@NonNull T data, @NonNull DataOutput output) throws IOException {
+                byte[] json = GSON.toJson(data, entityDataClass).getBytes(StandardCharsets.UTF_8);
+
+                output.write(json);
+            }
+
+            @Override
+            @NonNull
+            public T decode(@NonNull ByteBuffer buffer) {
+                return GSON.fromJson(StandardCharsets.UTF_8.decode(buffer).toString(), entityDataClass);
+            }
+        };
+    }
+
+    /**
+     * Gets the default codec for the entity type. {@link ServerData} and {@link UserData} use their compact codecs,
+     * while any other class (including their subclasses) is encoded as JSON.
+     * @param entityType The entity type.
+     * @return The codec.
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public static EntityDataCodec<? extends EntityData> forType(@NonNull EntityType entityType) {
+        Class<?> entityDataClass = entityType.getEntityDataClass();
+
+        if(entityDataClass == ServerData.class)
+            return SERVER_DATA;
+        else if(entityDataClass == UserData.class)
+            return USER_DATA;
+        else
+            return json((Class<? extends EntityData>) entityDataClass);
+    }
+}
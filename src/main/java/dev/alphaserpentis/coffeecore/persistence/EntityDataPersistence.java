@@ -0,0 +1,50 @@
+package dev.alphaserpentis.coffeecore.persistence;
+
+import dev.alphaserpentis.coffeecore.data.entity.EntityData;
+import dev.alphaserpentis.coffeecore.data.entity.EntityType;
+import dev.alphaserpentis.coffeecore.handler.api.discord.entities.AbstractDataHandler;
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A storage backend for the entity data of an {@link AbstractDataHandler}.
+ * <p>
+ * Unlike rewriting the whole entity data file, a backend is told which entities changed since the last flush so it
+ * can write only those.
+ * @param <T> The type of {@link EntityData} to persist.
+ */
+public interface EntityDataPersistence<T extends EntityData> {
+    /**
+     * Loads the entity data from storage.
+     * @param entityTypes The entity types that may be loaded.
+     * @return The mapping of entity type IDs to the mapping of entity IDs to {@link EntityData}.
+     * @throws IOException If the entity data could not be read.
+     */
+    @NonNull
+    Map<String, Map<Long, T>> load(@NonNull List<EntityType> entityTypes) throws IOException;
+
+    /**
+     * Writes the changed entities to storage.
+     * <p>
+     * An entity that is listed as changed but is no longer in {@code data} has been removed.
+     * @param data The current entity data.
+     * @param changedEntities The IDs of the changed entities mapped by entity type ID, or {@code null} if it is unknown
+     *                        what changed and everything must be written.
+     * @throws IOException If the entity data could not be written.
+     */
+    void flush(
+            @NonNull Map<String, Map<Long, T>> data,
+            @Nullable Map<String, Set<Long>> changedEntities
+    ) throws IOException;
+
+    /**
+     * Releases any resources held by the backend.
+     * @throws IOException If the resources could not be released.
+     */
+    default void close() throws IOException {}
+}
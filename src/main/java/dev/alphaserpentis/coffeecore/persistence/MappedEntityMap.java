@@ -0,0 +1,411 @@
+package dev.alphaserpentis.coffeecore.persistence;
+
+import dev.alphaserpentis.coffeecore.data.entity.EntityData;
+import dev.alphaserpentis.coffeecore.util.LongLongHashMap;
+import dev.alphaserpentis.coffeecore.util.LongObjectHashMap;
+import dev.alphaserpentis.coffeecore.util.LongObjectMap;
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongFunction;
+
+/**
+ * A map of entity IDs to {@link EntityData} backed by a section of a memory-mapped snapshot written by
+ * {@link BinarySnapshotPersistence}. Entities are decoded the first time they are accessed, so entities that are never
+ * accessed stay off-heap. Decoded, added, and removed entities are kept on-heap in an overlay on top of the snapshot.
+ * <p>
+ * Iterating over the keys does not decode any entities, while reading the values does.
+ * @param <T> The type of {@link EntityData}.
+ */
+public class MappedEntityMap<T extends EntityData> extends AbstractMap<Long, T> implements LongObjectMap<T> {
+    /**
+     * The size of an index entry: the entity ID, the offset of its data, and the length of its data.
+     */
+    static final int INDEX_ENTRY_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES;
+
+    private final EntityDataCodec<? extends T> codec;
+    /**
+     * Entities that were decoded or put. These take precedence over the snapshot.
+     */
+    private final LongObjectHashMap<T> overlay = new LongObjectHashMap<>();
+    /**
+     * IDs of entities in the snapshot that were removed, mapped to {@code 1}.
+     */
+    private final LongLongHashMap removed = new LongLongHashMap();
+    private ByteBuffer buffer;
+    private int indexOffset;
+    private int count;
+    /**
+     * The amount of entities in the overlay that are not in the snapshot.
+     */
+    private int overlayOnly = 0;
+    private LongObjectConsumer<T> decodeListener;
+
+    /**
+     * Creates a map without a snapshot.
+     * @param codec The codec to decode entities with.
+     */
+    public MappedEntityMap(@NonNull EntityDataCodec<? extends T> codec) {
+        this(codec, null, 0, 0);
+    }
+
+    /**
+     * Creates a map backed by a section of a snapshot.
+     * @param codec The codec to decode entities with.
+     * @param buffer The snapshot.
+     * @param indexOffset The offset of the section's index within the snapshot.
+     * @param count The amount of entities in the section.
+     */
+    MappedEntityMap(
+            @NonNull EntityDataCodec<? extends T> codec,
+            @Nullable ByteBuffer buffer,
+            int indexOffset,
+            int count
+    ) {
+        this.codec = codec;
+        this.buffer = buffer;
+        this.indexOffset = indexOffset;
+        this.count = count;
+    }
+
+    /**
+     * Sets the listener notified whenever an entity is decoded from the snapshot.
+     * @param decodeListener The listener, or {@code null} to stop notifying.
+     */
+    public synchronized void setDecodeListener(@Nullable LongObjectConsumer<T> decodeListener) {
+        this.decodeListener = decodeListener;
+    }
+
+    /**
+     * Gets the amount of entities that are on-heap.
+     * @return The amount of decoded or added entities.
+     */
+    public synchronized int getDecodedCount() {
+        return overlay.size();
+    }
+
+    @Override
+    public synchronized int size() {
+        return count - removed.size() + overlayOnly;
+    }
+
+    @Override
+    public synchronized boolean containsKey(long key) {
+        return overlay.containsKey(key) || (!removed.containsKey(key) && indexOf(key) >= 0);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long id && containsKey(id.longValue());
+    }
+
+    @Override
+    @Nullable
+    public synchronized T get(long key) {
+        T data = overlay.get(key);
+        int index;
+
+        if(data != null || removed.containsKey(key) || (index = indexOf(key)) < 0)
+            return data;
+
+        data = decode(index);
+        overlay.put(key, data);
+
+        if(decodeListener != null)
+            decodeListener.accept(key, data);
+
+        return data;
+    }
+
+    @Override
+    @Nullable
+    public T get(Object key) {
+        return key instanceof Long id ? get(id.longValue()) : null;
+    }
+
+    @Override
+    @Nullable
+    public synchronized T put(long key, @NonNull T value) {
+        T previous = get(key);
+
+        if(overlay.put(key, value) == null && indexOf(key) < 0)
+            overlayOnly++;
+
+        removed.remove(key);
+        return previous;
+    }
+
+    @Override
+    @Nullable
+    public T put(@NonNull Long key, @NonNull T value) {
+        return put(key.longValue(), value);
+    }
+
+    @Override
+    @NonNull
+    public synchronized T computeIfAbsent(long key, @NonNull LongFunction<? extends T> mappingFunction) {
+        T current = get(key);
+
+        if(current == null) {
+            current = mappingFunction.apply(key);
+            put(key, current);
+        }
+
+        return current;
+    }
+
+    @Override
+    @Nullable
+    public synchronized T remove(long key) {
+        T previous = get(key);
+
+        if(previous != null)
+            removeKey(key);
+
+        return previous;
+    }
+
+    @Override
+    @Nullable
+    public T remove(Object key) {
+        return key instanceof Long id ? remove(id.longValue()) : null;
+    }
+
+    @Override
+    public synchronized void forEachEntry(@NonNull LongObjectConsumer<? super T> consumer) {
+        for(long id: keys()) {
+            consumer.accept(id, get(id));
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        overlay.clear();
+        removed.clear();
+        buffer = null;
+        count = 0;
+        overlayOnly = 0;
+    }
+
+    @Override
+    @NonNull
+    public Set<Entry<Long, T>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            @NonNull
+            public Iterator<Entry<Long, T>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return MappedEntityMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * Gets the IDs of all the entities in ascending order without decoding them.
+     * @return The sorted IDs.
+     */
+    @Override
+    @NonNull
+    public synchronized long[] keys() {
+        long[] keys = new long[size()];
+        int i = 0;
+
+        for(int index = 0; index < count; index++) {
+            long id = idAt(index);
+
+            if(!removed.containsKey(id))
+                keys[i++] = id;
+        }
+
+        for(long id: overlay.keys()) {
+            if(indexOf(id) < 0)
+                keys[i++] = id;
+        }
+
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    /**
+     * Gets the entity if it is on-heap.
+     * @param id The ID of the entity.
+     * @return The entity, or {@code null} if it is only in the snapshot.
+     */
+    @Nullable
+    synchronized T getDecoded(long id) {
+        return overlay.get(id);
+    }
+
+    /**
+     * Gets the encoded entity from the snapshot without decoding it.
+     * @param id The ID of the entity.
+     * @return A buffer holding exactly the encoded entity, or {@code null} if it is not in the snapshot.
+     */
+    @Nullable
+    synchronized ByteBuffer getEncoded(long id) {
+        int index = indexOf(id);
+
+        return index < 0 ? null : slice(index);
+    }
+
+    /**
+     * Moves the map onto a new snapshot. Entities in the overlay stay on-heap.
+     * @param buffer The new snapshot.
+     * @param indexOffset The offset of the section's index within the new snapshot.
+     * @param count The amount of entities in the section.
+     */
+    synchronized void rebind(@NonNull ByteBuffer buffer, int indexOffset, int count) {
+        LongLongHashMap stillRemoved = new LongLongHashMap();
+
+        this.buffer = buffer;
+        this.indexOffset = indexOffset;
+        this.count = count;
+
+        // Entities removed after the section was written are still in the new snapshot
+        removed.forEach((id, ignored) -> {
+            if(indexOf(id) >= 0)
+                stillRemoved.put(id, 1);
+        });
+        removed.clear();
+        stillRemoved.forEach(removed::put);
+
+        overlayOnly = 0;
+
+        for(long id: overlay.keys()) {
+            if(indexOf(id) < 0)
+                overlayOnly++;
+        }
+    }
+
+    /**
+     * Removes the entity without decoding it.
+     * @param id The ID of the entity.
+     */
+    private synchronized void removeKey(long id) {
+        boolean inOverlay = overlay.remove(id) != null;
+
+        if(indexOf(id) >= 0)
+            removed.put(id, 1);
+        else if(inOverlay)
+            overlayOnly--;
+    }
+
+    private long idAt(int index) {
+        return buffer.getLong(indexOffset + index * INDEX_ENTRY_SIZE);
+    }
+
+    private int indexOf(long id) {
+        int low = 0;
+        int high = count - 1;
+
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = idAt(mid);
+
+            if(midId < id)
+                low = mid + 1;
+            else if(midId > id)
+                high = mid - 1;
+            else
+                return mid;
+        }
+
+        return -1;
+    }
+
+    @NonNull
+    private ByteBuffer slice(int index) {
+        int entry = indexOffset + index * INDEX_ENTRY_SIZE;
+        int offset = (int) buffer.getLong(entry + Long.BYTES);
+        int length = buffer.getInt(entry + Long.BYTES + Long.BYTES);
+
+        return buffer.slice(offset, length);
+    }
+
+    @NonNull
+    private T decode(int index) {
+        return codec.decode(slice(index));
+    }
+
+    /**
+     * Iterates over a copy of the IDs taken when the iterator was created, in ascending order.
+     */
+    private class EntryIterator implements Iterator<Entry<Long, T>> {
+        private final long[] keys = keys();
+        private int next = 0;
+        private long last;
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        @NonNull
+        public Entry<Long, T> next() {
+            if(!hasNext())
+                throw new NoSuchElementException();
+
+            last = keys[next++];
+
+            return new LazyEntry(last);
+        }
+
+        @Override
+        public void remove() {
+            if(next == 0)
+                throw new IllegalStateException();
+
+            removeKey(last);
+        }
+    }
+
+    /**
+     * An entry that decodes its value when it is first read.
+     */
+    private class LazyEntry implements Entry<Long, T> {
+        private final long id;
+
+        private LazyEntry(long id) {
+            this.id = id;
+        }
+
+        @Override
+        @NonNull
+        public Long getKey() {
+            return id;
+        }
+
+        @Override
+        public T getValue() {
+            return get(id);
+        }
+
+        @Override
+        public T setValue(T value) {
+            return put(id, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Entry<?, ?> e && getKey().equals(e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(id) ^ Objects.hashCode(getValue());
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package dev.alphaserpentis.coffeecore.persistence;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import dev.alphaserpentis.coffeecore.data.entity.EntityData;
+import dev.alphaserpentis.coffeecore.data.entity.EntityType;
+import dev.alphaserpentis.coffeecore.util.LongObjectHashMap;
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An {@link EntityDataPersistence} that appends changed entities to a write-ahead log and periodically compacts the
+ * log into a snapshot. A flush costs as much as the entities that changed, not as much as all the entities.
+ * <p>
+ * Both files hold one JSON record per line. The first line is a header with the snapshot's generation, and the log is
+ * only replayed on top of the snapshot of the same generation. A record either holds an entity's full state or marks
+ * it as removed, so replaying it more than once is harmless. A torn record at the end of the log (e.g., from a crash
+ * while appending) is discarded and triggers a compaction on the next flush.
+ * @param <T> The type of {@link EntityData} to persist.
+ */
+public class WriteAheadLogPersistence<T extends EntityData> implements EntityDataPersistence<T> {
+    /**
+     * The default minimum amount of log records before the log is compacted into the snapshot.
+     */
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 10_000;
+    private static final String GENERATION_KEY = "generation";
+    private static final String TYPE_KEY = "type";
+    private static final String ID_KEY = "id";
+    private static final String DATA_KEY = "data";
+
+    private final Gson gson = new Gson();
+    private final Path snapshotPath;
+    private final Path logPath;
+    private final int compactionThreshold;
+    private final Map<String, EntityType> entityTypes = new HashMap<>();
+    private FileChannel logChannel;
+    private long generation = 0;
+    private int logRecords = 0;
+    private boolean compactionRequired = false;
+
+    /**
+     * Creates the backend with the log stored next to the snapshot with a {@code .wal} extension.
+     * @param snapshotPath The path to the snapshot.
+     */
+    public WriteAheadLogPersistence(@NonNull Path snapshotPath) {
+        this(
+                snapshotPath,
+                snapshotPath.resolveSibling(snapshotPath.getFileName() + ".wal"),
+                DEFAULT_COMPACTION_THRESHOLD
+        );
+    }
+
+    /**
+     * Creates the backend.
+     * @param snapshotPath The path to the snapshot.
+     * @param logPath The path to the write-ahead log.
+     * @param compactionThreshold The minimum amount of log records before the log is compacted. The log is compacted
+     *                            once it holds more records than both this and the amount of entities.
+     */
+    public WriteAheadLogPersistence(@NonNull Path snapshotPath, @NonNull Path logPath, int compactionThreshold) {
+        if(compactionThreshold < 1)
+            throw new IllegalArgumentException("compactionThreshold must be greater than 0!");
+
+        this.snapshotPath = snapshotPath;
+        this.logPath = logPath;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    @NonNull
+    public Path getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    @NonNull
+    public Path getLogPath() {
+        return logPath;
+    }
+
+    /**
+     * Gets the amount of records appended to the log since the last compaction.
+     * @return The amount of log records.
+     */
+    public synchronized int getLogRecords() {
+        return logRecords;
+    }
+
+    @Override
+    @NonNull
+    public synchronized Map<String, Map<Long, T>> load(@NonNull List<EntityType> entityTypes) throws IOException {
+        Map<String, Map<Long, T>> data = new HashMap<>();
+
+        for(EntityType entityType: entityTypes) {
+            this.entityTypes.put(entityType.getId(), entityType);
+            data.put(entityType.getId(), new LongObjectHashMap<>());
+        }
+
+        if(Files.exists(snapshotPath)) {
+            ReplayResult snapshot = replay(snapshotPath, data, false);
+
+            generation = Math.max(snapshot.generation(), 0);
+        }
+
+        if(Files.exists(logPath)) {
+            ReplayResult log = null;
+
+            if(readGeneration(logPath) == generation)
+                log = replay(logPath, data, true);
+
+            if(log == null || log.torn()) {
+                compactionRequired = true;
+            } else {
+                logRecords = log.records();
+            }
+        }
+
+        return data;
+    }
+
+    @Override
+    public synchronized void flush(
+            @NonNull Map<String, Map<Long, T>> data,
+            @Nullable Map<String, Set<Long>> changedEntities
+    ) throws IOException {
+        if(changedEntities == null || compactionRequired) {
+            compact(data);
+            return;
+        }
+
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        Writer writer = new OutputStreamWriter(batch, StandardCharsets.UTF_8);
+        int records = 0;
+
+        for(Map.Entry<String, Set<Long>> entry: changedEntities.entrySet()) {
+            Map<Long, T> entities = data.get(entry.getKey());
+
+            for(long id: entry.getValue()) {
+                writeRecord(writer, entry.getKey(), id, entities == null ? null : entities.get(id));
+                records++;
+            }
+        }
+
+        if(records == 0)
+            return;
+
+        writer.flush();
+        append(ByteBuffer.wrap(batch.toByteArray()));
+        logRecords += records;
+
+        if(logRecords > Math.max(compactionThreshold, countEntities(data)))
+            compact(data);
+    }
+
+    /**
+     * Writes all the entities into a new snapshot and empties the log.
+     * @param data The current entity data.
+     * @throws IOException If the snapshot or log could not be written.
+     */
+    public synchronized void compact(@NonNull Map<String, Map<Long, T>> data) throws IOException {
+        Path temporaryPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        long nextGeneration = generation + 1;
+
+        try(
+                FileChannel channel = FileChannel.open(
+                        temporaryPath,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING
+                );
+                Writer writer = new OutputStreamWriter(
+                        new BufferedOutputStream(Channels.newOutputStream(channel)),
+                        StandardCharsets.UTF_8
+                )
+        ) {
+            writeHeader(writer, nextGeneration);
+
+            for(Map.Entry<String, Map<Long, T>> entry: data.entrySet()) {
+                for(Map.Entry<Long, T> entity: entry.getValue().entrySet()) {
+                    writeRecord(writer, entry.getKey(), entity.getKey(), entity.getValue());
+                }
+            }
+
+            writer.flush();
+            channel.force(true);
+        }
+
+        try {
+            Files.move(
+                    temporaryPath,
+                    snapshotPath,
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING
+            );
+        } catch(AtomicMoveNotSupportedException e) {
+            Files.move(temporaryPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        // The old log's generation no longer matches the snapshot's, so crashing before it is emptied is harmless
+        generation = nextGeneration;
+        openLog().truncate(0);
+        logRecords = 0;
+        compactionRequired = false;
+        appendHeader();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if(logChannel != null) {
+            logChannel.close();
+            logChannel = null;
+        }
+    }
+
+    private record ReplayResult(long generation, int records, boolean torn) {}
+
+    @NonNull
+    @SuppressWarnings("unchecked")
+    private ReplayResult replay(
+            @NonNull Path path,
+            @NonNull Map<String, Map<Long, T>> data,
+            boolean tolerateTornTail
+    ) throws IOException {
+        long fileGeneration = -1;
+        int records = 0;
+
+        try(BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+
+            while((line = reader.readLine()) != null) {
+                JsonObject record;
+
+                lineNumber++;
+
+                if(line.isBlank())
+                    continue;
+
+                try {
+                    record = JsonParser.parseString(line).getAsJsonObject();
+                } catch(JsonParseException | IllegalStateException e) {
+                    if(tolerateTornTail && reader.readLine() == null)
+                        return new ReplayResult(fileGeneration, records, true);
+
+                    throw new IOException("Corrupted record at line " + lineNumber + " of " + path, e);
+                }
+
+                if(record.has(GENERATION_KEY)) {
+                    fileGeneration = record.get(GENERATION_KEY).getAsLong();
+                    continue;
+                }
+
+                String type = record.get(TYPE_KEY).getAsString();
+                EntityType entityType = entityTypes.get(type);
+                JsonElement entityData = record.get(DATA_KEY);
+                long id = record.get(ID_KEY).getAsLong();
+
+                if(entityType == null)
+                    throw new IOException("Invalid entity type: " + type);
+
+                if(entityData == null) {
+                    data.get(type).remove(id);
+                } else {
+                    data.get(type).put(id, (T) gson.fromJson(entityData, entityType.getEntityDataClass()));
+                }
+
+                records++;
+            }
+        }
+
+        return new ReplayResult(fileGeneration, records, false);
+    }
+
+    private long readGeneration(@NonNull Path path) throws IOException {
+        try(BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            JsonObject header;
+
+            if(line == null)
+                return -1;
+
+            try {
+                header = JsonParser.parseString(line).getAsJsonObject();
+            } catch(JsonParseException | IllegalStateException e) {
+                return -1;
+            }
+
+            return header.has(GENERATION_KEY) ? header.get(GENERATION_KEY).getAsLong() : -1;
+        }
+    }
+
+    private void writeHeader(@NonNull Writer writer, long generation) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+
+        json.beginObject().name(GENERATION_KEY).value(generation).endObject().flush();
+        writer.write('\n');
+    }
+
+    private void writeRecord(@NonNull Writer writer, @NonNull String type, long id, @Nullable T entity)
+            throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+
+        json.beginObject().name(TYPE_KEY).value(type).name(ID_KEY).value(id);
+
+        if(entity != null) {
+            json.name(DATA_KEY);
+            gson.toJson(entity, entity.getClass(), json);
+        }
+
+        json.endObject().flush();
+        writer.write('\n');
+    }
+
+    private void appendHeader() throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        Writer writer = new OutputStreamWriter(header, StandardCharsets.UTF_8);
+
+        writeHeader(writer, generation);
+        writer.flush();
+        append(ByteBuffer.wrap(header.toByteArray()));
+    }
+
+    private void append(@NonNull ByteBuffer buffer) throws IOException {
+        FileChannel channel = openLog();
+
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        channel.force(false);
+    }
+
+    @NonNull
+    private FileChannel openLog() throws IOException {
+        if(logChannel == null) {
+            logChannel = FileChannel.open(
+                    logPath,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND
+            );
+
+            if(logChannel.size() == 0)
+                appendHeader();
+        }
+
+        return logChannel;
+    }
+
+    private static int countEntities(@NonNull Map<String, ? extends Map<Long, ?>> data) {
+        int count = 0;
+
+        for(Map<Long, ?> entities: data.values()) {
+            count += entities.size();
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,55 @@
+package dev.alphaserpentis.coffeecore.ratelimit;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.time.Duration;
+
+/**
+ * A fixed per-user cooldown that begins once the command has executed. This is the policy used by default with
+ * {@link dev.alphaserpentis.coffeecore.commands.BotCommand.BotCommandOptions#setRatelimitLength(long)}.
+ */
+public class CooldownRatelimitPolicy implements RatelimitPolicy {
+    private final RatelimitStore store;
+    private final long cooldownMillis;
+
+    public CooldownRatelimitPolicy(@NonNull Duration cooldown) {
+        this(new DefaultRatelimitStore(), cooldown);
+    }
+
+    public CooldownRatelimitPolicy(@NonNull RatelimitStore store, @NonNull Duration cooldown) {
+        this.store = store;
+        this.cooldownMillis = cooldown.toMillis();
+    }
+
+    @Override
+    public long tryAcquire(long userId, long guildId, long now) {
+        return peek(userId, guildId, now);
+    }
+
+    @Override
+    public long peek(long userId, long guildId, long now) {
+        long expiresAt = store.get(userId);
+
+        return expiresAt > now ? expiresAt : ALLOWED;
+    }
+
+    @Override
+    public void onExecuted(long userId, long guildId, long now) {
+        store.putIfAbsent(userId, now + cooldownMillis);
+    }
+
+    @Override
+    public void forgive(long userId, long guildId, long now) {
+        store.remove(userId);
+    }
+
+    @Override
+    @NonNull
+    public RatelimitStore getStore() {
+        return store;
+    }
+
+    public long getCooldownMillis() {
+        return cooldownMillis;
+    }
+}
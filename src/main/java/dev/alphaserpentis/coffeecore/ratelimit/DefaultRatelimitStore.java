@@ -0,0 +1,292 @@
+package dev.alphaserpentis.coffeecore.ratelimit;
+
+import dev.alphaserpentis.coffeecore.util.LongLongHashMap;
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * The default {@link RatelimitStore}. Expiries are kept in primitive {@code long → long} maps split into segments, each
+ * guarded by its own lock, so nothing is boxed and threads working on different IDs rarely contend.
+ * <p>
+ * Expired ratelimits are evicted by a hashed timer wheel with one-second ticks. Every segment schedules its keys into
+ * the slot of the second they expire in and sweeps the slots that have passed whenever it is accessed. A key is
+ * unscheduled whenever it is removed or rescheduled, so every key is in at most one slot. Memory is therefore bounded
+ * by the amount of ratelimits that are active, not by the amount of IDs ever seen.
+ */
+public class DefaultRatelimitStore implements RatelimitStore {
+    /**
+     * The default amount of slots (seconds) in the timer wheel.
+     */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+    private static final int DEFAULT_SEGMENTS = 16;
+    private static final int INITIAL_SLOT_CAPACITY = 8;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final int wheelMask;
+
+    /**
+     * A portion of the store guarded by its own lock.
+     */
+    private static final class Segment {
+        private final LongLongHashMap expiries = new LongLongHashMap();
+        private final long[][] slots;
+        private final int[] slotSizes;
+        /**
+         * The last second that was swept.
+         */
+        private long lastTick;
+
+        private Segment(int wheelSize, long lastTick) {
+            this.slots = new long[wheelSize][];
+            this.slotSizes = new int[wheelSize];
+            this.lastTick = lastTick;
+        }
+    }
+
+    public DefaultRatelimitStore() {
+        this(DEFAULT_SEGMENTS, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * Creates a store with the specified amount of segments and timer wheel slots.
+     * @param segments The amount of segments. This is rounded up to a power of two.
+     * @param wheelSize The amount of one-second slots in the timer wheel. This is rounded up to a power of two.
+     */
+    public DefaultRatelimitStore(int segments, int wheelSize) {
+        int segmentCount = roundToPowerOfTwo(segments);
+        int slotCount = roundToPowerOfTwo(wheelSize);
+        long lastTick = currentTimeMillis() / 1000 - 1;
+
+        this.segments = new Segment[segmentCount];
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+        this.wheelMask = slotCount - 1;
+
+        for(int i = 0; i < segmentCount; i++) {
+            this.segments[i] = new Segment(slotCount, lastTick);
+        }
+    }
+
+    @Override
+    public long get(long key) {
+        Segment segment = segmentFor(key);
+        long now = currentTimeMillis();
+
+        synchronized(segment) {
+            advance(segment, now);
+
+            return getActive(segment, key, now);
+        }
+    }
+
+    @Override
+    public void put(long key, long expiresAt) {
+        Segment segment = segmentFor(key);
+        long now = currentTimeMillis();
+
+        synchronized(segment) {
+            advance(segment, now);
+            set(segment, key, expiresAt, now);
+        }
+    }
+
+    @Override
+    public long putIfAbsent(long key, long expiresAt) {
+        Segment segment = segmentFor(key);
+        long now = currentTimeMillis();
+
+        synchronized(segment) {
+            advance(segment, now);
+
+            long current = getActive(segment, key, now);
+
+            if(current == NONE)
+                set(segment, key, expiresAt, now);
+
+            return current;
+        }
+    }
+
+    @Override
+    public boolean replace(long key, long expectedExpiresAt, long expiresAt) {
+        Segment segment = segmentFor(key);
+        long now = currentTimeMillis();
+
+        synchronized(segment) {
+            advance(segment, now);
+
+            if(getActive(segment, key, now) != expectedExpiresAt)
+                return false;
+
+            set(segment, key, expiresAt, now);
+            return true;
+        }
+    }
+
+    @Override
+    public void remove(long key) {
+        Segment segment = segmentFor(key);
+
+        synchronized(segment) {
+            evict(segment, key);
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+
+        for(Segment segment: segments) {
+            synchronized(segment) {
+                size += segment.expiries.size();
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Gets the current time. Overridable to control the clock.
+     * @return UNIX time in milliseconds.
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private long getActive(@NonNull Segment segment, long key, long now) {
+        long expiresAt = segment.expiries.get(key);
+
+        if(expiresAt != NONE && expiresAt <= now) {
+            evict(segment, key);
+            return NONE;
+        }
+
+        return expiresAt;
+    }
+
+    private void set(@NonNull Segment segment, long key, long expiresAt, long now) {
+        if(expiresAt <= now) {
+            evict(segment, key);
+            return;
+        }
+
+        long previous = segment.expiries.put(key, expiresAt);
+
+        if(previous != NONE) {
+            // The key is already scheduled in this slot
+            if(slotOf(previous) == slotOf(expiresAt))
+                return;
+
+            unschedule(segment, key, slotOf(previous));
+        }
+
+        schedule(segment, key, slotOf(expiresAt));
+    }
+
+    /**
+     * Removes a key and unschedules it from the slot it expires in.
+     * @param segment The segment of the key.
+     * @param key The key.
+     */
+    private void evict(@NonNull Segment segment, long key) {
+        long expiresAt = segment.expiries.remove(key);
+
+        if(expiresAt != NONE)
+            unschedule(segment, key, slotOf(expiresAt));
+    }
+
+    private void schedule(@NonNull Segment segment, long key, int slot) {
+        long[] keys = segment.slots[slot];
+        int size = segment.slotSizes[slot];
+
+        if(keys == null) {
+            keys = segment.slots[slot] = new long[INITIAL_SLOT_CAPACITY];
+        } else if(size == keys.length) {
+            keys = segment.slots[slot] = Arrays.copyOf(keys, size << 1);
+        }
+
+        keys[size] = key;
+        segment.slotSizes[slot] = size + 1;
+    }
+
+    private void unschedule(@NonNull Segment segment, long key, int slot) {
+        long[] keys = segment.slots[slot];
+        int size = segment.slotSizes[slot];
+
+        for(int i = 0; i < size; i++) {
+            if(keys[i] == key) {
+                keys[i] = keys[--size];
+                segment.slotSizes[slot] = size;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sweeps every slot whose second has fully passed since the last sweep.
+     * @param segment The segment to sweep.
+     * @param now The current time in milliseconds.
+     */
+    private void advance(@NonNull Segment segment, long now) {
+        long end = now / 1000 - 1;
+        long tick = segment.lastTick;
+
+        if(end <= tick)
+            return;
+
+        // Every slot only needs to be swept once if the segment has been idle for a whole revolution
+        if(end - tick > wheelMask + 1)
+            tick = end - wheelMask - 1;
+
+        while(tick < end) {
+            sweep(segment, (int) (++tick & wheelMask), now);
+        }
+
+        segment.lastTick = end;
+    }
+
+    private void sweep(@NonNull Segment segment, int slot, long now) {
+        long[] keys = segment.slots[slot];
+        int size = segment.slotSizes[slot];
+        int kept = 0;
+
+        if(keys == null)
+            return;
+
+        for(int i = 0; i < size; i++) {
+            long key = keys[i];
+            long expiresAt = segment.expiries.get(key);
+
+            if(expiresAt == NONE)
+                continue;
+
+            if(expiresAt <= now) {
+                segment.expiries.remove(key);
+                continue;
+            }
+
+            // Keys due in a later revolution stay
+            keys[kept++] = key;
+        }
+
+        segment.slotSizes[slot] = kept;
+
+        // Give back memory after a burst
+        if(kept < keys.length >>> 2 && keys.length > INITIAL_SLOT_CAPACITY)
+            segment.slots[slot] = kept == 0 ? null : Arrays.copyOf(keys, Math.max(INITIAL_SLOT_CAPACITY, kept << 1));
+    }
+
+    private int slotOf(long expiresAt) {
+        return (int) ((expiresAt / 1000) & wheelMask);
+    }
+
+    @NonNull
+    private Segment segmentFor(long key) {
+        return segments.length == 1 ? segments[0] : segments[LongLongHashMap.hash(key) >>> segmentShift];
+    }
+
+    private static int roundToPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
@@ -0,0 +1,63 @@
+package dev.alphaserpentis.coffeecore.ratelimit;
+
+import io.reactivex.rxjava3.annotations.Nullable;
+
+/**
+ * Decides whether an invocation of a command is allowed. Implementations must be thread-safe and should not allocate
+ * when making decisions as they run on every invocation.
+ * <p>
+ * All times are UNIX timestamps in milliseconds. A {@code guildId} of {@code 0} means the command was not invoked in a
+ * guild.
+ * @see CooldownRatelimitPolicy
+ * @see TokenBucketRatelimitPolicy
+ * @see SlidingWindowRatelimitPolicy
+ */
+public interface RatelimitPolicy {
+    /**
+     * Value returned when an invocation is allowed.
+     */
+    long ALLOWED = 0;
+
+    /**
+     * Attempts to admit an invocation, consuming capacity if the policy is capacity-based.
+     * @param userId The ID of the user invoking the command.
+     * @param guildId The ID of the guild the command was invoked in, or {@code 0}.
+     * @param now The current time.
+     * @return {@link #ALLOWED} if the invocation is allowed, otherwise the time at which it may be retried.
+     */
+    long tryAcquire(long userId, long guildId, long now);
+
+    /**
+     * Checks if an invocation would be admitted without consuming any capacity.
+     * @param userId The ID of the user invoking the command.
+     * @param guildId The ID of the guild the command was invoked in, or {@code 0}.
+     * @param now The current time.
+     * @return {@link #ALLOWED} if the invocation would be allowed, otherwise the time at which it may be retried.
+     */
+    long peek(long userId, long guildId, long now);
+
+    /**
+     * Called after the command has executed and the ratelimit was not forgiven.
+     * @param userId The ID of the user who invoked the command.
+     * @param guildId The ID of the guild the command was invoked in, or {@code 0}.
+     * @param now The current time.
+     */
+    default void onExecuted(long userId, long guildId, long now) {}
+
+    /**
+     * Gives back what the invocation consumed, such as when the command errors or forgives the ratelimit.
+     * @param userId The ID of the user who invoked the command.
+     * @param guildId The ID of the guild the command was invoked in, or {@code 0}.
+     * @param now The current time.
+     */
+    void forgive(long userId, long guildId, long now);
+
+    /**
+     * Gets the store the policy keeps its state in. What the stored values mean depends on the policy.
+     * @return The store, or {@code null} if the policy does not keep its state in a {@link RatelimitStore}.
+     */
+    @Nullable
+    default RatelimitStore getStore() {
+        return null;
+    }
+}
@@ -0,0 +1,59 @@
+package dev.alphaserpentis.coffeecore.ratelimit;
+
+/**
+ * Stores when ratelimits expire, keyed by a Discord ID (e.g., a user or guild). Implementations must be thread-safe as
+ * commands are dispatched concurrently.
+ * <p>
+ * Values are UNIX timestamps in milliseconds. Once a value is in the past, the mapping is considered expired and must
+ * behave as if it was removed.
+ * @see DefaultRatelimitStore
+ */
+public interface RatelimitStore {
+    /**
+     * Value returned for keys without an active ratelimit.
+     */
+    long NONE = 0;
+
+    /**
+     * Gets when the ratelimit of the key expires.
+     * @param key The ID to check.
+     * @return UNIX time in milliseconds of when the ratelimit expires, or {@link #NONE} if there is no active ratelimit.
+     */
+    long get(long key);
+
+    /**
+     * Sets when the ratelimit of the key expires, replacing any current ratelimit.
+     * @param key The ID to ratelimit.
+     * @param expiresAt UNIX time in milliseconds of when the ratelimit expires.
+     */
+    void put(long key, long expiresAt);
+
+    /**
+     * Sets when the ratelimit of the key expires only if there is no active ratelimit.
+     * @param key The ID to ratelimit.
+     * @param expiresAt UNIX time in milliseconds of when the ratelimit expires.
+     * @return The expiry of the active ratelimit, or {@link #NONE} if the ratelimit was set.
+     */
+    long putIfAbsent(long key, long expiresAt);
+
+    /**
+     * Atomically replaces the expiry of the key only if it currently matches the expected expiry.
+     * @param key The ID to ratelimit.
+     * @param expectedExpiresAt The expected expiry, or {@link #NONE} to expect no active ratelimit.
+     * @param expiresAt The new expiry, or {@link #NONE} to remove the ratelimit.
+     * @return {@code true} if the expiry was replaced, {@code false} otherwise.
+     */
+    boolean replace(long key, long expectedExpiresAt, long expiresAt);
+
+    /**
+     * Removes the ratelimit of the key.
+     * @param key The ID to forgive.
+     */
+    void remove(long key);
+
+    /**
+     * Gets the amount of keys being tracked. This may include expired keys which have yet to be evicted.
+     * @return The amount of keys.
+     */
+    int size();
+}
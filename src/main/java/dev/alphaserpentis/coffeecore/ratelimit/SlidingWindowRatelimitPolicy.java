@@ -0,0 +1,92 @@
+package dev.alphaserpentis.coffeecore.ratelimit;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.time.Duration;
+
+/**
+ * A global limit on invocations of a command within a sliding window, shared by every user and guild.
+ * <p>
+ * The window is approximated with two fixed windows: the count of the previous window is weighted by how much of it
+ * still overlaps the sliding window. This needs constant memory regardless of traffic.
+ */
+public class SlidingWindowRatelimitPolicy implements RatelimitPolicy {
+    private final long limit;
+    private final long windowMillis;
+    private long windowStart = 0;
+    private long currentCount = 0;
+    private long previousCount = 0;
+
+    /**
+     * Creates a sliding window policy.
+     * @param limit The maximum amount of invocations within the window. Must be greater than 0.
+     * @param window The length of the window. Must be positive.
+     * @throws IllegalArgumentException If the limit or window are invalid.
+     */
+    public SlidingWindowRatelimitPolicy(long limit, @NonNull Duration window) {
+        if(limit < 1)
+            throw new IllegalArgumentException("Limit must be greater than 0!");
+        if(window.toMillis() <= 0)
+            throw new IllegalArgumentException("Window must be positive!");
+
+        this.limit = limit;
+        this.windowMillis = window.toMillis();
+    }
+
+    @Override
+    public synchronized long tryAcquire(long userId, long guildId, long now) {
+        long retryAt = peek(userId, guildId, now);
+
+        if(retryAt == ALLOWED)
+            currentCount++;
+
+        return retryAt;
+    }
+
+    @Override
+    public synchronized long peek(long userId, long guildId, long now) {
+        roll(now);
+
+        long elapsed = now - windowStart;
+        long remainingWeight = windowMillis - elapsed;
+
+        // Scaled by the window length to stay in integer arithmetic
+        if(previousCount * remainingWeight + (currentCount + 1) * windowMillis <= limit * windowMillis)
+            return ALLOWED;
+
+        if(currentCount + 1 > limit || previousCount == 0)
+            return windowStart + windowMillis;
+
+        // The earliest point at which enough of the previous window has slid out
+        long neededElapsed = windowMillis - (limit - currentCount - 1) * windowMillis / previousCount;
+
+        return windowStart + Math.max(elapsed + 1, neededElapsed);
+    }
+
+    @Override
+    public synchronized void forgive(long userId, long guildId, long now) {
+        roll(now);
+
+        if(currentCount > 0)
+            currentCount--;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    private void roll(long now) {
+        if(now - windowStart < windowMillis)
+            return;
+
+        long windowsPassed = (now - windowStart) / windowMillis;
+
+        previousCount = windowsPassed == 1 ? currentCount : 0;
+        currentCount = 0;
+        windowStart += windowsPassed * windowMillis;
+    }
+}
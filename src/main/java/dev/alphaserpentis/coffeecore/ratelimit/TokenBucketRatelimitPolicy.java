@@ -0,0 +1,117 @@
+package dev.alphaserpentis.coffeecore.ratelimit;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.time.Duration;
+
+/**
+ * A token bucket per user or per guild. Each bucket holds up to {@code capacity} tokens and regains one token every
+ * {@code refillInterval}, so bursts up to the capacity are allowed while the sustained rate stays bounded.
+ * <p>
+ * Buckets are tracked with the generic cell rate algorithm, which needs a single {@code long} per bucket: the time at
+ * which the bucket will be full again. That value doubles as the expiry in the {@link RatelimitStore}, so full buckets
+ * are evicted without any extra bookkeeping.
+ */
+public class TokenBucketRatelimitPolicy implements RatelimitPolicy {
+    /**
+     * What a bucket is shared by.
+     */
+    public enum Scope {
+        /**
+         * Every user has their own bucket.
+         */
+        USER,
+        /**
+         * Every guild shares a bucket. Invocations outside a guild use the bucket of the user.
+         */
+        GUILD
+    }
+
+    private final RatelimitStore store;
+    private final Scope scope;
+    private final long intervalMillis;
+    private final long burstMillis;
+
+    public TokenBucketRatelimitPolicy(@NonNull Scope scope, int capacity, @NonNull Duration refillInterval) {
+        this(new DefaultRatelimitStore(), scope, capacity, refillInterval);
+    }
+
+    /**
+     * Creates a token bucket policy.
+     * @param store The store to keep the buckets in.
+     * @param scope What a bucket is shared by.
+     * @param capacity The maximum amount of tokens in a bucket. Must be greater than 0.
+     * @param refillInterval The time it takes to regain a single token. Must be positive.
+     * @throws IllegalArgumentException If the capacity or refill interval are invalid.
+     */
+    public TokenBucketRatelimitPolicy(
+            @NonNull RatelimitStore store,
+            @NonNull Scope scope,
+            int capacity,
+            @NonNull Duration refillInterval
+    ) {
+        if(capacity < 1)
+            throw new IllegalArgumentException("Capacity must be greater than 0!");
+        if(refillInterval.toMillis() <= 0)
+            throw new IllegalArgumentException("Refill interval must be positive!");
+
+        this.store = store;
+        this.scope = scope;
+        this.intervalMillis = refillInterval.toMillis();
+        this.burstMillis = intervalMillis * capacity;
+    }
+
+    @Override
+    public long tryAcquire(long userId, long guildId, long now) {
+        long key = keyOf(userId, guildId);
+
+        while(true) {
+            long stored = store.get(key);
+            long nextFullAt = Math.max(stored, now) + intervalMillis;
+
+            if(nextFullAt - now > burstMillis)
+                return nextFullAt - burstMillis;
+            if(store.replace(key, stored, nextFullAt))
+                return ALLOWED;
+        }
+    }
+
+    @Override
+    public long peek(long userId, long guildId, long now) {
+        long nextFullAt = Math.max(store.get(keyOf(userId, guildId)), now) + intervalMillis;
+
+        return nextFullAt - now > burstMillis ? nextFullAt - burstMillis : ALLOWED;
+    }
+
+    @Override
+    public void forgive(long userId, long guildId, long now) {
+        long key = keyOf(userId, guildId);
+
+        while(true) {
+            long stored = store.get(key);
+
+            if(stored == RatelimitStore.NONE)
+                return;
+
+            long refunded = stored - intervalMillis;
+
+            if(store.replace(key, stored, refunded > now ? refunded : RatelimitStore.NONE))
+                return;
+        }
+    }
+
+    @NonNull
+    public Scope getScope() {
+        return scope;
+    }
+
+    @Override
+    @NonNull
+    public RatelimitStore getStore() {
+        return store;
+    }
+
+    private long keyOf(long userId, long guildId) {
+        return scope == Scope.GUILD && guildId != 0 ? guildId : userId;
+    }
+}
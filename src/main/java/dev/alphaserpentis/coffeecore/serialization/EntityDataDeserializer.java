@@ -9,18 +9,22 @@ import com.google.gson.JsonParseException;
 import dev.alphaserpentis.coffeecore.data.entity.EntityData;
 import dev.alphaserpentis.coffeecore.data.entity.EntityType;
 import dev.alphaserpentis.coffeecore.handler.api.discord.entities.AbstractDataHandler;
+import dev.alphaserpentis.coffeecore.util.LongObjectHashMap;
 import io.reactivex.rxjava3.annotations.NonNull;
 
 import java.lang.reflect.Type;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
 
 /**
  * A deserializer for {@link EntityData} objects.
+ * <p>
+ * This builds a tree of the whole file before deserializing the entities. Prefer {@link EntityDataTypeAdapter}, which
+ * streams the entities instead.
  * @param <T> The type of {@link EntityData} to deserialize.
  */
 public class EntityDataDeserializer<T extends EntityData> implements JsonDeserializer<Map<String, Map<Long, T>>> {
+    private final Gson gson = new Gson();
     private AbstractDataHandler<T> dataHandler;
 
     public void setDataHandler(@NonNull AbstractDataHandler<T> dataHandler) {
@@ -35,37 +39,30 @@ public class EntityDataDeserializer<T extends EntityData> implements JsonDeseria
             JsonDeserializationContext jsonDeserializationContext
     ) throws JsonParseException {
         Map<String, Map<Long, T>> entityDataMap = new HashMap<>();
-        Gson gson = new Gson();
+        Map<String, EntityType> entityTypes = new HashMap<>();
         JsonObject object = jsonElement.getAsJsonObject();
 
+        for(EntityType entityType: dataHandler.getEntityTypes()) {
+            entityTypes.put(entityType.getId(), entityType);
+        }
+
         for(Map.Entry<String, JsonElement> entry: object.entrySet()) {
             // Determine the entity data class
-            EntityType entityType = dataHandler
-                    .getEntityTypes()
-                    .stream()
-                    .filter(type1 -> type1.getId().equals(entry.getKey()))
-                    .findFirst()
-                    .orElseThrow(() -> new JsonParseException("Invalid entity type: " + entry.getKey()));
-            Map<String, JsonElement> innerObject = entry.getValue().getAsJsonObject().asMap();
+            EntityType entityType = entityTypes.get(entry.getKey());
+
+            if(entityType == null)
+                throw new JsonParseException("Invalid entity type: " + entry.getKey());
 
             // Initialize the entity data map
-            entityDataMap.put(
-                    entityType.id(),
-                    Objects.requireNonNullElse(
-                            entityDataMap.get(entityType.id()),
-                            new HashMap<>()
-                    )
-            );
+            Map<Long, T> entities = entityDataMap.computeIfAbsent(entityType.id(), id -> new LongObjectHashMap<>());
 
             // Deserialize the entity data
-            innerObject
-                    .forEach((key, value) -> entityDataMap
-                                .get(entityType.id())
-                                .put(
-                                        Long.parseLong(key),
-                                        (T) gson.fromJson(value, entityType.getEntityDataClass())
-                                )
-                    );
+            for(Map.Entry<String, JsonElement> entity: entry.getValue().getAsJsonObject().entrySet()) {
+                entities.put(
+                        Long.parseLong(entity.getKey()),
+                        (T) gson.fromJson(entity.getValue(), entityType.getEntityDataClass())
+                );
+            }
         }
 
         return entityDataMap;
@@ -0,0 +1,117 @@
+package dev.alphaserpentis.coffeecore.serialization;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import dev.alphaserpentis.coffeecore.data.entity.EntityData;
+import dev.alphaserpentis.coffeecore.data.entity.EntityType;
+import dev.alphaserpentis.coffeecore.util.LongObjectHashMap;
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A streaming {@link TypeAdapter} for the mapping of entity type IDs to entity IDs to {@link EntityData}.
+ * <p>
+ * Unlike {@link EntityDataDeserializer}, entities are decoded straight from the {@link JsonReader} without building a
+ * tree of the whole file first, so the memory used while loading is close to the size of the loaded data.
+ * @param <T> The type of {@link EntityData} to read and write.
+ */
+public class EntityDataTypeAdapter<T extends EntityData> extends TypeAdapter<Map<String, Map<Long, T>>> {
+    /**
+     * The adapters of the entity data classes mapped by entity type ID.
+     */
+    private final Map<String, TypeAdapter<?>> adapters = new HashMap<>();
+
+    public EntityDataTypeAdapter(@NonNull List<EntityType> entityTypes) {
+        this(new Gson(), entityTypes);
+    }
+
+    /**
+     * Creates the adapter.
+     * @param gson The {@link Gson} instance to get the adapters of the entity data classes from.
+     * @param entityTypes The entity types that may be read.
+     */
+    public EntityDataTypeAdapter(@NonNull Gson gson, @NonNull List<EntityType> entityTypes) {
+        for(EntityType entityType: entityTypes) {
+            adapters.put(entityType.getId(), gson.getAdapter(entityType.getEntityDataClass()));
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void write(@NonNull JsonWriter out, Map<String, Map<Long, T>> value) throws IOException {
+        if(value == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+
+        for(Map.Entry<String, Map<Long, T>> entry: value.entrySet()) {
+            TypeAdapter<T> adapter = (TypeAdapter<T>) getAdapter(entry.getKey());
+
+            out.name(entry.getKey());
+            out.beginObject();
+
+            for(Map.Entry<Long, T> entity: entry.getValue().entrySet()) {
+                out.name(Long.toString(entity.getKey()));
+                adapter.write(out, entity.getValue());
+            }
+
+            out.endObject();
+        }
+
+        out.endObject();
+    }
+
+    @Override
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public Map<String, Map<Long, T>> read(@NonNull JsonReader in) throws IOException {
+        Map<String, Map<Long, T>> entityDataMap = new HashMap<>();
+
+        if(in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return entityDataMap;
+        }
+
+        in.beginObject();
+
+        while(in.hasNext()) {
+            String type = in.nextName();
+            TypeAdapter<?> adapter = getAdapter(type);
+            Map<Long, T> entities = entityDataMap.computeIfAbsent(type, id -> new LongObjectHashMap<>());
+
+            in.beginObject();
+
+            while(in.hasNext()) {
+                long id = Long.parseLong(in.nextName());
+
+                entities.put(id, (T) adapter.read(in));
+            }
+
+            in.endObject();
+        }
+
+        in.endObject();
+
+        return entityDataMap;
+    }
+
+    @NonNull
+    private TypeAdapter<?> getAdapter(@NonNull String type) {
+        TypeAdapter<?> adapter = adapters.get(type);
+
+        if(adapter == null)
+            throw new JsonParseException("Invalid entity type: " + type);
+
+        return adapter;
+    }
+}
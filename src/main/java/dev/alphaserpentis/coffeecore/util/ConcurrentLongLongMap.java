@@ -0,0 +1,146 @@
+package dev.alphaserpentis.coffeecore.util;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+
+/**
+ * A thread-safe map of primitive {@code long} keys to primitive {@code long} values. The map is split into segments,
+ * each being a {@link LongLongHashMap} guarded by its own lock, so threads working on different keys rarely contend.
+ * <p>
+ * Like {@link LongLongHashMap}, {@link #MISSING_VALUE} represents a missing mapping and cannot be stored.
+ */
+public class ConcurrentLongLongMap {
+    /**
+     * The value returned for keys that are not mapped.
+     */
+    public static final long MISSING_VALUE = LongLongHashMap.MISSING_VALUE;
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private final LongLongHashMap[] segments;
+    private final int segmentShift;
+
+    public ConcurrentLongLongMap() {
+        this(DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * Creates a map with the specified amount of segments.
+     * @param segments The amount of segments. This is rounded up to a power of two.
+     */
+    public ConcurrentLongLongMap(int segments) {
+        int count = segments <= 1 ? 1 : Integer.highestOneBit(segments - 1) << 1;
+
+        this.segments = new LongLongHashMap[count];
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(count);
+
+        for(int i = 0; i < count; i++) {
+            this.segments[i] = new LongLongHashMap();
+        }
+    }
+
+    public long get(long key) {
+        LongLongHashMap segment = segmentFor(key);
+
+        synchronized(segment) {
+            return segment.get(key);
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != MISSING_VALUE;
+    }
+
+    public long put(long key, long value) {
+        LongLongHashMap segment = segmentFor(key);
+
+        synchronized(segment) {
+            return segment.put(key, value);
+        }
+    }
+
+    /**
+     * Maps the key to the value if the key is not mapped.
+     * @param key The key.
+     * @param value The value.
+     * @return The current value, or {@link #MISSING_VALUE} if the value was put.
+     */
+    public long putIfAbsent(long key, long value) {
+        LongLongHashMap segment = segmentFor(key);
+
+        synchronized(segment) {
+            long current = segment.get(key);
+
+            if(current == MISSING_VALUE)
+                segment.put(key, value);
+
+            return current;
+        }
+    }
+
+    /**
+     * Replaces the value of the key only if it is currently mapped to the expected value.
+     * @param key The key.
+     * @param expectedValue The expected value. Use {@link #MISSING_VALUE} to expect that the key is not mapped.
+     * @param newValue The new value. Use {@link #MISSING_VALUE} to remove the mapping.
+     * @return {@code true} if the value was replaced, {@code false} otherwise.
+     */
+    public boolean replace(long key, long expectedValue, long newValue) {
+        LongLongHashMap segment = segmentFor(key);
+
+        synchronized(segment) {
+            if(segment.get(key) != expectedValue)
+                return false;
+
+            segment.put(key, newValue);
+            return true;
+        }
+    }
+
+    public long remove(long key) {
+        LongLongHashMap segment = segmentFor(key);
+
+        synchronized(segment) {
+            return segment.remove(key);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+
+        for(LongLongHashMap segment: segments) {
+            synchronized(segment) {
+                size += segment.size();
+            }
+        }
+
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        for(LongLongHashMap segment: segments) {
+            synchronized(segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Runs the consumer for every mapping, one segment at a time. The consumer must not modify the map.
+     * @param consumer The consumer.
+     */
+    public void forEach(@NonNull LongLongHashMap.LongLongConsumer consumer) {
+        for(LongLongHashMap segment: segments) {
+            synchronized(segment) {
+                segment.forEach(consumer);
+            }
+        }
+    }
+
+    @NonNull
+    private LongLongHashMap segmentFor(long key) {
+        return segments.length == 1 ? segments[0] : segments[LongLongHashMap.hash(key) >>> segmentShift];
+    }
+}
@@ -0,0 +1,311 @@
+package dev.alphaserpentis.coffeecore.util;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.LongFunction;
+
+/**
+ * A thread-safe map of primitive {@code long} keys to objects. Like {@link ConcurrentLongLongMap}, the map is split
+ * into segments, each being a {@link LongObjectHashMap} guarded by its own lock, so threads working on different keys
+ * rarely contend.
+ * <p>
+ * {@code null} values cannot be stored. Iterating through the {@link Map} views and {@link #keys()} copy the mappings
+ * one segment at a time, so they never fail while the map is modified, but may or may not reflect those modifications.
+ * @param <V> The type of the values.
+ */
+public class ConcurrentLongObjectMap<V> extends AbstractMap<Long, V> implements LongObjectMap<V> {
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private final LongObjectHashMap<V>[] segments;
+    private final int segmentShift;
+
+    public ConcurrentLongObjectMap() {
+        this(DEFAULT_SEGMENTS, 16);
+    }
+
+    /**
+     * Creates a map with the mappings of another map.
+     * @param map The map to copy.
+     */
+    public ConcurrentLongObjectMap(@NonNull Map<Long, ? extends V> map) {
+        this(DEFAULT_SEGMENTS, map.size());
+
+        for(Map.Entry<Long, ? extends V> entry: map.entrySet()) {
+            put(entry.getKey().longValue(), entry.getValue());
+        }
+    }
+
+    /**
+     * Creates a map with the specified amount of segments.
+     * @param segments The amount of segments. This is rounded up to a power of two.
+     * @param expectedSize The amount of mappings the map is expected to hold.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentLongObjectMap(int segments, int expectedSize) {
+        int count = segments <= 1 ? 1 : Integer.highestOneBit(segments - 1) << 1;
+
+        this.segments = new LongObjectHashMap[count];
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(count);
+
+        for(int i = 0; i < count; i++) {
+            this.segments[i] = new LongObjectHashMap<>(expectedSize / count);
+        }
+    }
+
+    @Override
+    @Nullable
+    public V get(long key) {
+        LongObjectHashMap<V> segment = segmentFor(key);
+
+        synchronized(segment) {
+            return segment.get(key);
+        }
+    }
+
+    @Override
+    @Nullable
+    public V get(Object key) {
+        return key instanceof Long id ? get(id.longValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    @Nullable
+    public V put(long key, @NonNull V value) {
+        LongObjectHashMap<V> segment = segmentFor(key);
+
+        synchronized(segment) {
+            return segment.put(key, value);
+        }
+    }
+
+    @Override
+    @Nullable
+    public V put(@NonNull Long key, @NonNull V value) {
+        return put(key.longValue(), value);
+    }
+
+    /**
+     * Maps the key to the value if the key is not mapped.
+     * @param key The key.
+     * @param value The value.
+     * @return The current value, or {@code null} if the value was put.
+     */
+    @Nullable
+    public V putIfAbsent(long key, @NonNull V value) {
+        LongObjectHashMap<V> segment = segmentFor(key);
+
+        synchronized(segment) {
+            V current = segment.get(key);
+
+            if(current == null)
+                segment.put(key, value);
+
+            return current;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This is atomic. The mapping function runs while the key's segment is locked, so it must be short and must not
+     * access the map.
+     */
+    @Override
+    @NonNull
+    public V computeIfAbsent(long key, @NonNull LongFunction<? extends V> mappingFunction) {
+        LongObjectHashMap<V> segment = segmentFor(key);
+
+        synchronized(segment) {
+            V current = segment.get(key);
+
+            if(current == null) {
+                current = mappingFunction.apply(key);
+                segment.put(key, current);
+            }
+
+            return current;
+        }
+    }
+
+    @Override
+    @Nullable
+    public V remove(long key) {
+        LongObjectHashMap<V> segment = segmentFor(key);
+
+        synchronized(segment) {
+            return segment.remove(key);
+        }
+    }
+
+    @Override
+    @Nullable
+    public V remove(Object key) {
+        return key instanceof Long id ? remove(id.longValue()) : null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+
+        for(LongObjectHashMap<V> segment: segments) {
+            synchronized(segment) {
+                size += segment.size();
+            }
+        }
+
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for(LongObjectHashMap<V> segment: segments) {
+            synchronized(segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each segment is locked while the consumer runs for its mappings, so the consumer must be short.
+     */
+    @Override
+    public void forEachEntry(@NonNull LongObjectConsumer<? super V> consumer) {
+        for(LongObjectHashMap<V> segment: segments) {
+            synchronized(segment) {
+                segment.forEachEntry(consumer);
+            }
+        }
+    }
+
+    @Override
+    @NonNull
+    public long[] keys() {
+        long[][] segmentKeys = new long[segments.length][];
+        long[] keys;
+        int length = 0;
+
+        for(int i = 0; i < segments.length; i++) {
+            synchronized(segments[i]) {
+                segmentKeys[i] = segments[i].keys();
+            }
+
+            length += segmentKeys[i].length;
+        }
+
+        keys = new long[length];
+        length = 0;
+
+        for(long[] copy: segmentKeys) {
+            System.arraycopy(copy, 0, keys, length, copy.length);
+            length += copy.length;
+        }
+
+        return keys;
+    }
+
+    @Override
+    @NonNull
+    public Set<Entry<Long, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            @NonNull
+            public Iterator<Entry<Long, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return ConcurrentLongObjectMap.this.size();
+            }
+        };
+    }
+
+    @NonNull
+    private LongObjectHashMap<V> segmentFor(long key) {
+        return segments.length == 1 ? segments[0] : segments[LongLongHashMap.hash(key) >>> segmentShift];
+    }
+
+    /**
+     * Iterates over a copy of the mappings, taken one segment at a time as the iterator reaches it.
+     */
+    private class EntryIterator implements Iterator<Entry<Long, V>> {
+        private int segment = 0;
+        private long[] keys = new long[0];
+        private Object[] values = new Object[0];
+        private int next = 0;
+        private long lastKey;
+        private boolean hasLast = false;
+
+        @Override
+        public boolean hasNext() {
+            while(next >= keys.length && segment < segments.length) {
+                copySegment(segments[segment++]);
+            }
+
+            return next < keys.length;
+        }
+
+        @Override
+        @NonNull
+        @SuppressWarnings("unchecked")
+        public Entry<Long, V> next() {
+            if(!hasNext())
+                throw new NoSuchElementException();
+
+            long key = keys[next];
+            V value = (V) values[next++];
+
+            lastKey = key;
+            hasLast = true;
+
+            return new SimpleEntry<>(key, value) {
+                @Override
+                public V setValue(V value) {
+                    super.setValue(value);
+                    return put(key, value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if(!hasLast)
+                throw new IllegalStateException();
+
+            ConcurrentLongObjectMap.this.remove(lastKey);
+            hasLast = false;
+        }
+
+        private void copySegment(@NonNull LongObjectHashMap<V> source) {
+            synchronized(source) {
+                keys = source.keys();
+                values = new Object[keys.length];
+
+                for(int i = 0; i < keys.length; i++) {
+                    values[i] = source.get(keys[i]);
+                }
+            }
+
+            next = 0;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package dev.alphaserpentis.coffeecore.util;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timer wheel that expires items on a single daemon thread. Each tick of the wheel expires the items of one
+ * bucket, so scheduling and cancelling are constant time no matter how many items are pending. Items expire up to one
+ * tick after their delay.
+ * <p>
+ * The expired items of a tick are handed to the {@link TickListener} together, which lets the listener batch the work
+ * done for them. The listener runs on the wheel's thread and should not block.
+ * @param <T> The type of the items.
+ */
+public class HashedTimerWheel<T> implements AutoCloseable {
+    private static final long MAX_DELAY_NANOS = Long.MAX_VALUE / 4;
+
+    private final long tickNanos;
+    private final List<Timeout<T>>[] buckets;
+    private final int mask;
+    private final TickListener<T> listener;
+    private final Queue<Timeout<T>> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final long startTime = System.nanoTime();
+    private final Thread worker;
+    private volatile boolean closed = false;
+    /**
+     * The current tick. Only accessed by the wheel's thread.
+     */
+    private long tick = 0;
+
+    /**
+     * Called by the wheel's thread on every tick.
+     * @param <T> The type of the items.
+     */
+    @FunctionalInterface
+    public interface TickListener<T> {
+        /**
+         * Handles a tick of the wheel.
+         * @param expired The items that expired during the tick. Empty if none expired.
+         */
+        void onTick(@NonNull List<T> expired);
+    }
+
+    /**
+     * A pending item of the wheel.
+     * @param <T> The type of the item.
+     */
+    public static final class Timeout<T> {
+        private final T item;
+        private final long deadline;
+        private long remainingRounds;
+        private volatile boolean cancelled = false;
+
+        private Timeout(@NonNull T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+
+        @NonNull
+        public T getItem() {
+            return item;
+        }
+
+        /**
+         * Cancels the timeout. The item will not be expired, unless it already was.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Creates the wheel and starts its thread.
+     * @param tickDuration The duration of a tick.
+     * @param wheelSize The amount of buckets. Rounded up to a power of two.
+     * @param threadName The name of the wheel's thread.
+     * @param listener The listener of the ticks.
+     * @throws IllegalArgumentException If the tick duration is not positive or the wheel size is less than 1.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public HashedTimerWheel(
+            @NonNull Duration tickDuration,
+            int wheelSize,
+            @NonNull String threadName,
+            @NonNull TickListener<T> listener
+    ) {
+        if(tickDuration.isNegative() || tickDuration.isZero())
+            throw new IllegalArgumentException("The tick duration must be positive");
+        if(wheelSize < 1 || wheelSize > 1 << 30)
+            throw new IllegalArgumentException("The wheel size must be between 1 and 2^30");
+
+        int capacity = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+
+        this.tickNanos = tickDuration.toNanos();
+        this.buckets = new List[capacity];
+        this.mask = capacity - 1;
+        this.listener = listener;
+
+        for(int i = 0; i < capacity; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+
+        worker = new Thread(this::run, threadName);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Schedules the item to expire after the delay.
+     * @param item The item.
+     * @param delay The delay. Negative delays expire on the next tick.
+     * @param unit The unit of the delay.
+     * @return The {@link Timeout} of the item.
+     * @throws IllegalStateException If the wheel is closed.
+     */
+    @NonNull
+    public Timeout<T> schedule(@NonNull T item, long delay, @NonNull TimeUnit unit) {
+        long delayNanos = Math.min(Math.max(0, unit.toNanos(delay)), MAX_DELAY_NANOS);
+        Timeout<T> timeout;
+
+        if(closed)
+            throw new IllegalStateException("The timer wheel is closed");
+
+        timeout = new Timeout<>(item, System.nanoTime() - startTime + delayNanos);
+        newTimeouts.add(timeout);
+
+        return timeout;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Stops the wheel's thread and waits for it to finish its current tick. Pending items are not expired.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(worker);
+
+        if(Thread.currentThread() == worker)
+            return;
+
+        try {
+            worker.join();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while(!closed) {
+            long sleepNanos = tickNanos * (tick + 1) - (System.nanoTime() - startTime);
+            List<T> expired;
+
+            if(sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                continue;
+            }
+
+            transferNewTimeouts();
+            expired = expireBucket(buckets[(int) (tick & mask)]);
+            tick++;
+
+            try {
+                listener.onTick(expired);
+            } catch(RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Moves the timeouts scheduled since the last tick into their buckets.
+     */
+    private void transferNewTimeouts() {
+        Timeout<T> timeout;
+
+        while((timeout = newTimeouts.poll()) != null) {
+            long deadlineTick = timeout.deadline / tickNanos;
+
+            if(timeout.cancelled)
+                continue;
+
+            timeout.remainingRounds = (deadlineTick - tick) / buckets.length;
+            buckets[(int) (Math.max(deadlineTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * Removes the due and cancelled timeouts of the bucket, and counts down the rounds of the others.
+     * @return The items of the due timeouts.
+     */
+    @NonNull
+    private List<T> expireBucket(@NonNull List<Timeout<T>> bucket) {
+        List<T> expired = List.of();
+        int kept = 0;
+
+        for(int i = 0; i < bucket.size(); i++) {
+            Timeout<T> timeout = bucket.get(i);
+
+            if(timeout.cancelled)
+                continue;
+
+            if(timeout.remainingRounds <= 0) {
+                if(expired.isEmpty())
+                    expired = new ArrayList<>();
+
+                expired.add(timeout.item);
+            } else {
+                timeout.remainingRounds--;
+                bucket.set(kept++, timeout);
+            }
+        }
+
+        bucket.subList(kept, bucket.size()).clear();
+        return expired;
+    }
+}
@@ -0,0 +1,261 @@
+package dev.alphaserpentis.coffeecore.util;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map of primitive {@code long} keys to primitive {@code long} values. Nothing is boxed, and
+ * lookups, insertions, and removals do not allocate outside of resizing.
+ * <p>
+ * A value of {@code 0} is used to represent a missing mapping, so {@code 0} cannot be stored as a value. Putting
+ * {@code 0} removes the mapping instead.
+ * <p>
+ * <b>This class is not thread-safe.</b> Use {@link ConcurrentLongLongMap} if the map is shared between threads.
+ */
+public class LongLongHashMap {
+    /**
+     * The value returned for keys that are not mapped.
+     */
+    public static final long MISSING_VALUE = 0;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+    /**
+     * The key {@code 0} marks empty slots, so its mapping is stored separately.
+     */
+    private long zeroKeyValue = MISSING_VALUE;
+
+    /**
+     * Consumer of a key-value mapping.
+     */
+    @FunctionalInterface
+    public interface LongLongConsumer {
+        void accept(long key, long value);
+    }
+
+    public LongLongHashMap() {
+        this(16);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+
+        allocate(capacity);
+    }
+
+    /**
+     * Gets the value mapped to the key.
+     * @param key The key.
+     * @return The value, or {@link #MISSING_VALUE} if the key is not mapped.
+     */
+    public long get(long key) {
+        if(key == 0)
+            return zeroKeyValue;
+
+        int pos = hash(key) & mask;
+        long k;
+
+        while((k = keys[pos]) != 0) {
+            if(k == key)
+                return values[pos];
+
+            pos = (pos + 1) & mask;
+        }
+
+        return MISSING_VALUE;
+    }
+
+    /**
+     * Checks if the key is mapped.
+     * @param key The key.
+     * @return {@code true} if the key is mapped, {@code false} otherwise.
+     */
+    public boolean containsKey(long key) {
+        return get(key) != MISSING_VALUE;
+    }
+
+    /**
+     * Maps the key to the value.
+     * @param key The key.
+     * @param value The value. Putting {@link #MISSING_VALUE} removes the mapping.
+     * @return The previous value, or {@link #MISSING_VALUE} if the key was not mapped.
+     */
+    public long put(long key, long value) {
+        if(value == MISSING_VALUE)
+            return remove(key);
+
+        if(key == 0) {
+            long previous = zeroKeyValue;
+
+            if(previous == MISSING_VALUE)
+                size++;
+
+            zeroKeyValue = value;
+            return previous;
+        }
+
+        int pos = hash(key) & mask;
+        long k;
+
+        while((k = keys[pos]) != 0) {
+            if(k == key) {
+                long previous = values[pos];
+
+                values[pos] = value;
+                return previous;
+            }
+
+            pos = (pos + 1) & mask;
+        }
+
+        keys[pos] = key;
+        values[pos] = value;
+
+        if(++size >= resizeThreshold)
+            rehash(keys.length << 1);
+
+        return MISSING_VALUE;
+    }
+
+    /**
+     * Removes the mapping of the key.
+     * @param key The key.
+     * @return The removed value, or {@link #MISSING_VALUE} if the key was not mapped.
+     */
+    public long remove(long key) {
+        if(key == 0) {
+            long previous = zeroKeyValue;
+
+            if(previous != MISSING_VALUE)
+                size--;
+
+            zeroKeyValue = MISSING_VALUE;
+            return previous;
+        }
+
+        int pos = hash(key) & mask;
+        long k;
+
+        while((k = keys[pos]) != 0) {
+            if(k == key) {
+                long previous = values[pos];
+
+                size--;
+                shiftKeys(pos);
+                return previous;
+            }
+
+            pos = (pos + 1) & mask;
+        }
+
+        return MISSING_VALUE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the mappings.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, MISSING_VALUE);
+        zeroKeyValue = MISSING_VALUE;
+        size = 0;
+    }
+
+    /**
+     * Runs the consumer for every mapping. The map must not be modified by the consumer.
+     * @param consumer The consumer.
+     */
+    public void forEach(@NonNull LongLongConsumer consumer) {
+        if(zeroKeyValue != MISSING_VALUE)
+            consumer.accept(0, zeroKeyValue);
+
+        for(int i = 0; i < keys.length; i++) {
+            if(keys[i] != 0)
+                consumer.accept(keys[i], values[i]);
+        }
+    }
+
+    /**
+     * Spreads the bits of the key so that sequential snowflakes do not cluster.
+     * @param key The key.
+     * @return The hash.
+     */
+    public static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Closes the gap left by a removal by shifting the following entries of the probe sequence back.
+     * @param pos The position of the removed entry.
+     */
+    private void shiftKeys(int pos) {
+        int last;
+        int slot;
+        long k;
+
+        while(true) {
+            pos = ((last = pos) + 1) & mask;
+
+            while(true) {
+                if((k = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    values[last] = MISSING_VALUE;
+                    return;
+                }
+
+                slot = hash(k) & mask;
+
+                if(last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+                    break;
+
+                pos = (pos + 1) & mask;
+            }
+
+            keys[last] = k;
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+
+        allocate(capacity);
+
+        for(int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+
+            if(key != 0) {
+                int pos = hash(key) & mask;
+
+                while(keys[pos] != 0)
+                    pos = (pos + 1) & mask;
+
+                keys[pos] = key;
+                values[pos] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+}
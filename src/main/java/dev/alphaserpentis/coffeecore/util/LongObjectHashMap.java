@@ -0,0 +1,335 @@
+package dev.alphaserpentis.coffeecore.util;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An open-addressing hash map of primitive {@code long} keys to objects. Keys are stored unboxed in a {@code long[]}, so
+ * a mapping costs two array slots instead of a {@code HashMap} node and a boxed {@link Long}.
+ * <p>
+ * {@code null} values cannot be stored. Putting {@code null} removes the mapping instead. Iterating through the
+ * {@link Map} views copies the keys first, so the map may be modified while iterating.
+ * <p>
+ * <b>This class is not thread-safe.</b>
+ * @param <V> The type of the values.
+ */
+public class LongObjectHashMap<V> extends AbstractMap<Long, V> implements LongObjectMap<V> {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+    /**
+     * The key {@code 0} marks empty slots, so its mapping is stored separately.
+     */
+    private V zeroKeyValue = null;
+
+    public LongObjectHashMap() {
+        this(16);
+    }
+
+    public LongObjectHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+
+        allocate(capacity);
+    }
+
+    /**
+     * Creates a map with the mappings of another map.
+     * @param map The map to copy.
+     */
+    public LongObjectHashMap(@NonNull Map<Long, ? extends V> map) {
+        this(map.size());
+
+        for(Map.Entry<Long, ? extends V> entry: map.entrySet()) {
+            put(entry.getKey().longValue(), entry.getValue());
+        }
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if(key == 0)
+            return zeroKeyValue;
+
+        int pos = LongLongHashMap.hash(key) & mask;
+        long k;
+
+        while((k = keys[pos]) != 0) {
+            if(k == key)
+                return (V) values[pos];
+
+            pos = (pos + 1) & mask;
+        }
+
+        return null;
+    }
+
+    @Override
+    @Nullable
+    public V get(Object key) {
+        return key instanceof Long id ? get(id.longValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if(value == null)
+            return remove(key);
+
+        if(key == 0) {
+            V previous = zeroKeyValue;
+
+            if(previous == null)
+                size++;
+
+            zeroKeyValue = value;
+            return previous;
+        }
+
+        int pos = LongLongHashMap.hash(key) & mask;
+        long k;
+
+        while((k = keys[pos]) != 0) {
+            if(k == key) {
+                V previous = (V) values[pos];
+
+                values[pos] = value;
+                return previous;
+            }
+
+            pos = (pos + 1) & mask;
+        }
+
+        keys[pos] = key;
+        values[pos] = value;
+
+        if(++size >= resizeThreshold)
+            rehash(keys.length << 1);
+
+        return null;
+    }
+
+    @Override
+    @Nullable
+    public V put(Long key, V value) {
+        return put(key.longValue(), value);
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if(key == 0) {
+            V previous = zeroKeyValue;
+
+            if(previous != null)
+                size--;
+
+            zeroKeyValue = null;
+            return previous;
+        }
+
+        int pos = LongLongHashMap.hash(key) & mask;
+        long k;
+
+        while((k = keys[pos]) != 0) {
+            if(k == key) {
+                V previous = (V) values[pos];
+
+                size--;
+                shiftKeys(pos);
+                return previous;
+            }
+
+            pos = (pos + 1) & mask;
+        }
+
+        return null;
+    }
+
+    @Override
+    @Nullable
+    public V remove(Object key) {
+        return key instanceof Long id ? remove(id.longValue()) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        zeroKeyValue = null;
+        size = 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEachEntry(@NonNull LongObjectConsumer<? super V> consumer) {
+        if(zeroKeyValue != null)
+            consumer.accept(0, zeroKeyValue);
+
+        for(int i = 0; i < keys.length; i++) {
+            if(keys[i] != 0)
+                consumer.accept(keys[i], (V) values[i]);
+        }
+    }
+
+    @Override
+    @NonNull
+    public long[] keys() {
+        long[] copy = new long[size];
+        int i = 0;
+
+        if(zeroKeyValue != null)
+            copy[i++] = 0;
+
+        for(long key: keys) {
+            if(key != 0)
+                copy[i++] = key;
+        }
+
+        return copy;
+    }
+
+    @Override
+    @NonNull
+    public Set<Entry<Long, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            @NonNull
+            public Iterator<Entry<Long, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Closes the gap left by a removal by shifting the following entries of the probe sequence back.
+     * @param pos The position of the removed entry.
+     */
+    private void shiftKeys(int pos) {
+        int last;
+        int slot;
+        long k;
+
+        while(true) {
+            pos = ((last = pos) + 1) & mask;
+
+            while(true) {
+                if((k = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    values[last] = null;
+                    return;
+                }
+
+                slot = LongLongHashMap.hash(k) & mask;
+
+                if(last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+                    break;
+
+                pos = (pos + 1) & mask;
+            }
+
+            keys[last] = k;
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        allocate(capacity);
+
+        for(int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+
+            if(key != 0) {
+                int pos = LongLongHashMap.hash(key) & mask;
+
+                while(keys[pos] != 0)
+                    pos = (pos + 1) & mask;
+
+                keys[pos] = key;
+                values[pos] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Iterates over a copy of the keys taken when the iterator was created.
+     */
+    private class EntryIterator implements Iterator<Entry<Long, V>> {
+        private final long[] snapshot = keys();
+        private int next = 0;
+
+        @Override
+        public boolean hasNext() {
+            return next < snapshot.length;
+        }
+
+        @Override
+        @NonNull
+        public Entry<Long, V> next() {
+            if(!hasNext())
+                throw new NoSuchElementException();
+
+            long key = snapshot[next++];
+
+            return new SimpleEntry<>(key, get(key)) {
+                @Override
+                public V setValue(V value) {
+                    super.setValue(value);
+                    return put(key, value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if(next == 0)
+                throw new IllegalStateException();
+
+            LongObjectHashMap.this.remove(snapshot[next - 1]);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package dev.alphaserpentis.coffeecore.util;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * A {@link Map} with primitive {@code long} keys. The primitive methods do not box the key, while the {@link Map}
+ * methods remain available for code that expects a {@code Map<Long, V>}.
+ * <p>
+ * {@code null} values cannot be stored.
+ * @param <V> The type of the values.
+ */
+public interface LongObjectMap<V> extends Map<Long, V> {
+    /**
+     * Consumer of a key-value mapping.
+     * @param <V> The type of the value.
+     */
+    @FunctionalInterface
+    interface LongObjectConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    /**
+     * Gets the value mapped to the key.
+     * @param key The key.
+     * @return The value, or {@code null} if the key is not mapped.
+     */
+    @Nullable
+    V get(long key);
+
+    /**
+     * Maps the key to the value.
+     * @param key The key.
+     * @param value The value.
+     * @return The previous value, or {@code null} if the key was not mapped.
+     */
+    @Nullable
+    V put(long key, @NonNull V value);
+
+    /**
+     * Gets the value mapped to the key, mapping it to the value of the mapping function first if it is not mapped.
+     * <p>
+     * The default implementation is not atomic. Thread-safe implementations, such as {@link ConcurrentLongObjectMap},
+     * override it so that concurrent callers always get the same value.
+     * @param key The key.
+     * @param mappingFunction Creates the value of the key.
+     * @return The current value, or the created value if the key was not mapped.
+     */
+    @NonNull
+    default V computeIfAbsent(long key, @NonNull LongFunction<? extends V> mappingFunction) {
+        V current = get(key);
+
+        if(current == null) {
+            current = mappingFunction.apply(key);
+            put(key, current);
+        }
+
+        return current;
+    }
+
+    /**
+     * Removes the mapping of the key.
+     * @param key The key.
+     * @return The removed value, or {@code null} if the key was not mapped.
+     */
+    @Nullable
+    V remove(long key);
+
+    boolean containsKey(long key);
+
+    /**
+     * Gets a copy of the keys. Unlike {@link #keySet()}, this does not box the keys.
+     * @return The keys.
+     */
+    @NonNull
+    long[] keys();
+
+    /**
+     * Runs the consumer for every mapping. The map must not be modified by the consumer.
+     * @param consumer The consumer.
+     */
+    void forEachEntry(@NonNull LongObjectConsumer<? super V> consumer);
+}
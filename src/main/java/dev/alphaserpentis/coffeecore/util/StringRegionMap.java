@@ -0,0 +1,243 @@
+package dev.alphaserpentis.coffeecore.util;
+
+import io.reactivex.rxjava3.annotations.NonNull;
+import io.reactivex.rxjava3.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * An open-addressing hash map of {@link String} keys to objects that can be queried with a region of a larger string,
+ * such as the prefix of a component ID, without allocating a substring for the lookup.
+ * <p>
+ * {@code null} keys and values cannot be stored.
+ * <p>
+ * <b>This class is not thread-safe.</b>
+ * @param <V> The type of the values.
+ */
+public class StringRegionMap<V> {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private String[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public StringRegionMap() {
+        this(16);
+    }
+
+    public StringRegionMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+
+        allocate(capacity);
+    }
+
+    /**
+     * Creates a map with the mappings of another map.
+     * @param map The map to copy.
+     */
+    public StringRegionMap(@NonNull StringRegionMap<? extends V> map) {
+        keys = map.keys.clone();
+        values = map.values.clone();
+        mask = map.mask;
+        size = map.size;
+        resizeThreshold = map.resizeThreshold;
+    }
+
+    /**
+     * Gets the value of the key.
+     * @param key The key.
+     * @return The value, or {@code null} if the key is not mapped.
+     */
+    @Nullable
+    public V get(@NonNull String key) {
+        return get(key, 0, key.length());
+    }
+
+    /**
+     * Gets the value of the key equal to a region of the string.
+     * @param string The string holding the key.
+     * @param start The index the key starts at, inclusive.
+     * @param end The index the key ends at, exclusive.
+     * @return The value, or {@code null} if the region is not mapped.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(@NonNull String string, int start, int end) {
+        int length = end - start;
+        int pos = hash(string, start, end) & mask;
+        String k;
+
+        while((k = keys[pos]) != null) {
+            if(k.length() == length && k.regionMatches(0, string, start, length))
+                return (V) values[pos];
+
+            pos = (pos + 1) & mask;
+        }
+
+        return null;
+    }
+
+    public boolean containsKey(@NonNull String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Maps the key to the value.
+     * @param key The key.
+     * @param value The value.
+     * @return The previous value, or {@code null} if the key was not mapped.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(@NonNull String key, @NonNull V value) {
+        int pos = hash(key, 0, key.length()) & mask;
+        String k;
+
+        while((k = keys[pos]) != null) {
+            if(k.equals(key)) {
+                V previous = (V) values[pos];
+
+                values[pos] = value;
+                return previous;
+            }
+
+            pos = (pos + 1) & mask;
+        }
+
+        keys[pos] = key;
+        values[pos] = value;
+
+        if(++size >= resizeThreshold)
+            rehash(keys.length << 1);
+
+        return null;
+    }
+
+    /**
+     * Removes the mapping of the key.
+     * @param key The key.
+     * @return The previous value, or {@code null} if the key was not mapped.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(@NonNull String key) {
+        int pos = hash(key, 0, key.length()) & mask;
+        String k;
+
+        while((k = keys[pos]) != null) {
+            if(k.equals(key)) {
+                V previous = (V) values[pos];
+
+                size--;
+                shiftKeys(pos);
+                return previous;
+            }
+
+            pos = (pos + 1) & mask;
+        }
+
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Performs the action on every mapping.
+     * @param action The action.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(@NonNull BiConsumer<String, ? super V> action) {
+        for(int i = 0; i < keys.length; i++) {
+            if(keys[i] != null)
+                action.accept(keys[i], (V) values[i]);
+        }
+    }
+
+    /**
+     * Computes the same hash as {@link String#hashCode()} over a region of the string, then spreads it.
+     */
+    private static int hash(@NonNull String string, int start, int end) {
+        int h = 0;
+
+        for(int i = start; i < end; i++) {
+            h = 31 * h + string.charAt(i);
+        }
+
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Closes the gap left by a removal by shifting the following entries of the probe sequence back.
+     * @param pos The position of the removed entry.
+     */
+    private void shiftKeys(int pos) {
+        int last;
+        int slot;
+        String k;
+
+        while(true) {
+            pos = ((last = pos) + 1) & mask;
+
+            while(true) {
+                if((k = keys[pos]) == null) {
+                    keys[last] = null;
+                    values[last] = null;
+                    return;
+                }
+
+                slot = hash(k, 0, k.length()) & mask;
+
+                if(last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+                    break;
+
+                pos = (pos + 1) & mask;
+            }
+
+            keys[last] = k;
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int capacity) {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        allocate(capacity);
+
+        for(int i = 0; i < oldKeys.length; i++) {
+            String key = oldKeys[i];
+
+            if(key != null) {
+                int pos = hash(key, 0, key.length()) & mask;
+
+                while(keys[pos] != null)
+                    pos = (pos + 1) & mask;
+
+                keys[pos] = key;
+                values[pos] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+}
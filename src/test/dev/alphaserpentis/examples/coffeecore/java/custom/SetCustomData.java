@@ -7,11 +7,11 @@ import dev.alphaserpentis.examples.coffeecore.java.custom.handler.CustomServerDa
 import io.reactivex.rxjava3.annotations.NonNull;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
-import net.dv8tion.jda.api.interactions.commands.Command;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
 
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 public class SetCustomData extends BotCommand<String, SlashCommandInteractionEvent> {
 
@@ -52,13 +52,15 @@ public class SetCustomData extends BotCommand<String, SlashCommandInteractionEve
     }
 
     @Override
-    public void updateCommand(@NonNull JDA jda) {
+    @NonNull
+    public CompletableFuture<Void> updateCommandAsync(@NonNull JDA jda) {
         SubcommandData view = new SubcommandData("view", "View the custom data of the server.");
         SubcommandData set = new SubcommandData("set", "Set the custom data of the server.")
                 .addOption(OptionType.STRING, "data", "The data to set.", true);
-        Command cmd = jda.upsertCommand(name, description)
-                .addSubcommands(view, set).complete();
 
-        setGlobalCommandId(cmd.getIdLong());
+        return jda.upsertCommand(name, description)
+                .addSubcommands(view, set)
+                .submit()
+                .thenAccept(cmd -> setGlobalCommandId(cmd.getIdLong()));
     }
 }
@@ -7,6 +7,7 @@ import net.dv8tion.jda.api.JDA
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent
 import net.dv8tion.jda.api.interactions.commands.OptionType
 import net.dv8tion.jda.api.interactions.commands.build.SubcommandData
+import java.util.concurrent.CompletableFuture
 
 class SetCustomData : BotCommand<String, SlashCommandInteractionEvent>(
     BotCommandOptions().apply {
@@ -34,12 +35,12 @@ class SetCustomData : BotCommand<String, SlashCommandInteractionEvent>(
         }
     }
 
-    override fun updateCommand(jda: JDA) {
+    override fun updateCommandAsync(jda: JDA): CompletableFuture<Void> {
         val view = SubcommandData("view", "View the custom data of the server.")
         val set = SubcommandData("set", "Set the custom data of the server.")
             .addOption(OptionType.STRING, "data", "The data to set.", true)
-        val cmd = jda.upsertCommand(name, description).addSubcommands(view, set).complete()
 
-        setGlobalCommandId(cmd.idLong)
+        return jda.upsertCommand(name, description).addSubcommands(view, set).submit()
+            .thenAccept { cmd -> setGlobalCommandId(cmd.idLong) }
     }
 }